@@ -1,14 +1,21 @@
 package com.studentcourseregistration.app;
 
 import com.studentcourseregistration.app.model.Course;
+import com.studentcourseregistration.app.model.CourseSummary;
 import com.studentcourseregistration.app.model.Registration;
 import com.studentcourseregistration.app.model.Student;
+import com.studentcourseregistration.app.repository.CourseFilter;
+import com.studentcourseregistration.app.repository.Page;
+import com.studentcourseregistration.app.service.RegistrationResult;
+import com.studentcourseregistration.app.service.SessionService;
 import com.studentcourseregistration.app.service.SimpleCourseService;
 import com.studentcourseregistration.app.service.SimpleRegistrationService;
 import com.studentcourseregistration.app.service.SimpleStudentService;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
+import java.util.stream.Collectors;
 
 /**
  * Student Course Registration System
@@ -17,7 +24,11 @@ public class App {
     private static final SimpleStudentService studentService = new SimpleStudentService();
     private static final SimpleCourseService courseService = new SimpleCourseService();
     private static final SimpleRegistrationService registrationService = new SimpleRegistrationService(courseService, studentService);
+    private static final SessionService sessionService =
+            new SessionService(studentService::verifyCredentials, studentService::findById);
     private static final Scanner scanner = new Scanner(System.in);
+    private static final int PAGE_SIZE = 20;
+    private static String sessionToken = null;
     private static Student currentStudent = null;
 
     public static void main(String[] args) {
@@ -27,6 +38,13 @@ public class App {
         initializeSampleData();
         
         while (true) {
+            if (sessionToken != null) {
+                currentStudent = sessionService.resolve(sessionToken);
+                if (currentStudent == null) {
+                    sessionToken = null;
+                    System.out.println("\nYour session has expired. Please log in again.");
+                }
+            }
             if (currentStudent == null) {
                 showLoginMenu();
             } else {
@@ -96,6 +114,8 @@ public class App {
                 viewProfile();
                 break;
             case 7:
+                sessionService.logout(sessionToken);
+                sessionToken = null;
                 currentStudent = null;
                 System.out.println("Logged out successfully.");
                 break;
@@ -110,8 +130,9 @@ public class App {
         System.out.print("Password: ");
         String password = scanner.nextLine();
 
-        if (studentService.authenticate(username, password)) {
-            currentStudent = studentService.findByUsername(username);
+        sessionToken = sessionService.login(username, password);
+        if (sessionToken != null) {
+            currentStudent = sessionService.resolve(sessionToken);
             System.out.println("Login successful!");
         } else {
             System.out.println("Invalid username or password.");
@@ -146,21 +167,28 @@ public class App {
 
     private static void viewAvailableCourses() {
         System.out.println("\n=== Available Courses ===");
-        List<Course> courses = courseService.getAvailableCourses();
+        CourseFilter openSeats = new CourseFilter().openSeats();
+        Page<CourseSummary> page = courseService.findCourseSummaries(openSeats, PAGE_SIZE, null);
         
-        if (courses.isEmpty()) {
+        if (page.getItems().isEmpty()) {
             System.out.println("No courses available.");
             return;
         }
 
-        for (Course course : courses) {
-            System.out.printf("%-10s | %-30s | %-15s | %d credits | %d/%d enrolled%n",
-                    course.getCourseCode(),
-                    course.getCourseName(),
-                    course.getDepartment(),
-                    course.getCredits(),
-                    course.getEnrolled(),
-                    course.getCapacity());
+        while (true) {
+            for (CourseSummary course : page.getItems()) {
+                System.out.printf("%-10s | %-30s | %-15s | %d credits | %d/%d enrolled%n",
+                        course.getCourseCode(),
+                        course.getCourseName(),
+                        course.getDepartment(),
+                        course.getCredits(),
+                        course.getEnrolled(),
+                        course.getCapacity());
+            }
+            if (!wantsNextPage(page)) {
+                return;
+            }
+            page = courseService.findCourseSummaries(openSeats, PAGE_SIZE, page.getNextCursor());
         }
     }
 
@@ -168,21 +196,35 @@ public class App {
         System.out.print("Enter search term: ");
         String searchTerm = scanner.nextLine();
         
-        List<Course> courses = courseService.searchCourses(searchTerm);
+        Page<Course> page = courseService.searchCourses(searchTerm, PAGE_SIZE, null);
         
-        if (courses.isEmpty()) {
+        if (page.getItems().isEmpty()) {
             System.out.println("No courses found matching: " + searchTerm);
             return;
         }
 
         System.out.println("\n=== Search Results ===");
-        for (Course course : courses) {
-            System.out.printf("%-10s | %-30s | %-15s | %d credits%n",
-                    course.getCourseCode(),
-                    course.getCourseName(),
-                    course.getDepartment(),
-                    course.getCredits());
+        while (true) {
+            for (Course course : page.getItems()) {
+                System.out.printf("%-10s | %-30s | %-15s | %d credits%n",
+                        course.getCourseCode(),
+                        course.getCourseName(),
+                        course.getDepartment(),
+                        course.getCredits());
+            }
+            if (!wantsNextPage(page)) {
+                return;
+            }
+            page = courseService.searchCourses(searchTerm, PAGE_SIZE, page.getNextCursor());
+        }
+    }
+
+    private static boolean wantsNextPage(Page<?> page) {
+        if (!page.hasMore()) {
+            return false;
         }
+        System.out.print("Show more? (y/n): ");
+        return scanner.nextLine().trim().equalsIgnoreCase("y");
     }
 
     private static void registerForCourse() {
@@ -195,20 +237,31 @@ public class App {
             return;
         }
 
-        try {
-            Registration registration = registrationService.registerStudentForCourse(
-                    currentStudent.getStudentId(), course.getCourseId());
+        RegistrationResult result = registrationService.tryRegisterStudentForCourse(
+                currentStudent.getStudentId(), course.getCourseId());
+        if (result.getFailureReason() == RegistrationResult.FailureReason.COURSE_FULL) {
+            System.out.print("Course is full. Join the waitlist? (y/n): ");
+            if (scanner.nextLine().trim().equalsIgnoreCase("y")) {
+                result = registrationService.joinWaitlist(currentStudent.getStudentId(), course.getCourseId());
+            }
+        }
+
+        if (!result.isSuccess()) {
+            System.out.println("Registration failed: " + result.getFailureReason().getMessage());
+        } else if ("WAITLISTED".equals(result.getRegistration().getStatus())) {
+            System.out.println("Added to the waitlist for " + course.getCourseName() + " at position "
+                    + registrationService.getWaitlistPosition(currentStudent.getStudentId(), course.getCourseId()));
+        } else {
             System.out.println("Successfully registered for " + course.getCourseName());
-        } catch (IllegalArgumentException e) {
-            System.out.println("Registration failed: " + e.getMessage());
         }
     }
 
     private static void viewMyCourses() {
         System.out.println("\n=== My Courses ===");
         List<Course> courses = registrationService.getStudentCourses(currentStudent.getStudentId());
+        List<Registration> waitlist = registrationService.getStudentWaitlist(currentStudent.getStudentId());
         
-        if (courses.isEmpty()) {
+        if (courses.isEmpty() && waitlist.isEmpty()) {
             System.out.println("You are not registered for any courses.");
             return;
         }
@@ -221,6 +274,20 @@ public class App {
                     course.getCredits(),
                     course.getSchedule());
         }
+
+        Map<String, Course> waitlistedCourses = courseService.findAllByIds(waitlist.stream()
+                .map(Registration::getCourseId)
+                .collect(Collectors.toList())).stream()
+                .collect(Collectors.toMap(Course::getCourseId, course -> course));
+        for (Registration registration : waitlist) {
+            Course course = waitlistedCourses.get(registration.getCourseId());
+            if (course != null) {
+                System.out.printf("%-10s | %-30s | waitlist position %d%n",
+                        course.getCourseCode(),
+                        course.getCourseName(),
+                        registrationService.getWaitlistPosition(currentStudent.getStudentId(), course.getCourseId()));
+            }
+        }
     }
 
     private static void dropCourse() {
@@ -236,7 +303,7 @@ public class App {
         if (registrationService.dropCourse(currentStudent.getStudentId(), course.getCourseId())) {
             System.out.println("Successfully dropped " + course.getCourseName());
         } else {
-            System.out.println("You are not registered for this course.");
+            System.out.println("You are not registered or waitlisted for this course.");
         }
     }
 
@@ -1,39 +1,127 @@
 package com.studentcourseregistration.app.config;
 
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.core.retry.RetryPolicy;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedAsyncClient;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClientBuilder;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
-import java.net.URI;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClientBuilder;
 
+/**
+ * Shared DynamoDB clients, built once from {@link DynamoDbSettings}. Each client lives in a
+ * holder class that the JVM initializes exactly once on first use, so concurrent first callers
+ * all get the same client, and the async client is only built if something asks for it.
+ */
 public class DynamoDbConfig {
-    private static DynamoDbEnhancedClient enhancedClient;
-    private static DynamoDbClient dynamoDbClient;
-    
+
+    private static final class SettingsHolder {
+        private static final DynamoDbSettings INSTANCE = DynamoDbSettings.load();
+    }
+
+    private static final class ClientHolder {
+        private static final DynamoDbClient CLIENT = createDynamoDbClient(getSettings());
+        private static final DynamoDbEnhancedClient ENHANCED = DynamoDbEnhancedClient.builder()
+                .dynamoDbClient(CLIENT)
+                .build();
+    }
+
+    private static final class AsyncClientHolder {
+        private static final DynamoDbAsyncClient CLIENT = createDynamoDbAsyncClient(getSettings());
+        private static final DynamoDbEnhancedAsyncClient ENHANCED = DynamoDbEnhancedAsyncClient.builder()
+                .dynamoDbClient(CLIENT)
+                .build();
+    }
+
+    public static DynamoDbSettings getSettings() {
+        return SettingsHolder.INSTANCE;
+    }
+
     public static DynamoDbEnhancedClient getEnhancedClient() {
-        if (enhancedClient == null) {
-            dynamoDbClient = createLocalDynamoDbClient();
-            enhancedClient = DynamoDbEnhancedClient.builder()
-                    .dynamoDbClient(dynamoDbClient)
-                    .build();
-        }
-        return enhancedClient;
+        return ClientHolder.ENHANCED;
     }
-    
+
     public static DynamoDbClient getDynamoDbClient() {
-        if (dynamoDbClient == null) {
-            dynamoDbClient = createLocalDynamoDbClient();
+        return ClientHolder.CLIENT;
+    }
+
+    /**
+     * Non-blocking client for independent reads that should overlap. Responses complete on
+     * the SDK's async threads, so callers must not block inside their callbacks.
+     */
+    public static DynamoDbEnhancedAsyncClient getEnhancedAsyncClient() {
+        return AsyncClientHolder.ENHANCED;
+    }
+
+    public static DynamoDbAsyncClient getDynamoDbAsyncClient() {
+        return AsyncClientHolder.CLIENT;
+    }
+
+    private static DynamoDbClient createDynamoDbClient(DynamoDbSettings settings) {
+        DynamoDbClientBuilder builder = DynamoDbClient.builder()
+                .region(Region.of(settings.getRegion()))
+                .credentialsProvider(credentials(settings))
+                .overrideConfiguration(overrides(settings));
+        if (settings.getEndpoint() != null) {
+            builder.endpointOverride(settings.getEndpoint());
+        }
+        if (settings.getHttpClient() == DynamoDbSettings.HttpClientType.APACHE) {
+            builder.httpClientBuilder(ApacheHttpClient.builder()
+                    .maxConnections(settings.getMaxConnections())
+                    .connectionTimeout(settings.getConnectionTimeout())
+                    .connectionAcquisitionTimeout(settings.getAcquisitionTimeout())
+                    .socketTimeout(settings.getSocketTimeout())
+                    .connectionMaxIdleTime(settings.getMaxIdle())
+                    .tcpKeepAlive(settings.isTcpKeepAlive()));
+        }
+        return builder.build();
+    }
+
+    private static DynamoDbAsyncClient createDynamoDbAsyncClient(DynamoDbSettings settings) {
+        DynamoDbAsyncClientBuilder builder = DynamoDbAsyncClient.builder()
+                .region(Region.of(settings.getRegion()))
+                .credentialsProvider(credentials(settings))
+                .overrideConfiguration(overrides(settings));
+        if (settings.getEndpoint() != null) {
+            builder.endpointOverride(settings.getEndpoint());
+        }
+        if (settings.getAsyncHttpClient() == DynamoDbSettings.AsyncHttpClientType.NETTY) {
+            builder.httpClientBuilder(NettyNioAsyncHttpClient.builder()
+                    .maxConcurrency(settings.getMaxConnections())
+                    .connectionTimeout(settings.getConnectionTimeout())
+                    .connectionAcquisitionTimeout(settings.getAcquisitionTimeout())
+                    .readTimeout(settings.getSocketTimeout())
+                    .writeTimeout(settings.getSocketTimeout())
+                    .connectionMaxIdleTime(settings.getMaxIdle())
+                    .tcpKeepAlive(settings.isTcpKeepAlive()));
         }
-        return dynamoDbClient;
-    }
-    
-    private static DynamoDbClient createLocalDynamoDbClient() {
-        return DynamoDbClient.builder()
-                .endpointOverride(URI.create("http://localhost:8000"))
-                .region(Region.US_EAST_1)
-                .credentialsProvider(StaticCredentialsProvider.create(
-                    AwsBasicCredentials.create("dummy", "dummy")))
+        return builder.build();
+    }
+
+    // Adaptive mode also slows the client down when DynamoDB throttles, instead of only backing off
+    private static ClientOverrideConfiguration overrides(DynamoDbSettings settings) {
+        return ClientOverrideConfiguration.builder()
+                .retryPolicy(RetryPolicy.builder(settings.getRetryMode())
+                        .numRetries(settings.getMaxAttempts() - 1)
+                        .build())
+                .apiCallAttemptTimeout(settings.getApiCallAttemptTimeout())
+                .apiCallTimeout(settings.getApiCallTimeout())
                 .build();
     }
-}
\ No newline at end of file
+
+    // An endpoint override points at DynamoDB Local, which accepts any credentials
+    private static AwsCredentialsProvider credentials(DynamoDbSettings settings) {
+        if (settings.getEndpoint() != null) {
+            return StaticCredentialsProvider.create(AwsBasicCredentials.create("dummy", "dummy"));
+        }
+        return DefaultCredentialsProvider.create();
+    }
+}
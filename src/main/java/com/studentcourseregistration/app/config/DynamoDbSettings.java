@@ -0,0 +1,255 @@
+package com.studentcourseregistration.app.config;
+
+import software.amazon.awssdk.core.retry.RetryMode;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * DynamoDB connection settings. Each setting is read from a system property such as
+ * {@code dynamodb.http.max-connections}, then from the matching environment variable
+ * ({@code DYNAMODB_HTTP_MAX_CONNECTIONS}), then falls back to the default below. Durations
+ * are in milliseconds. Invalid values fail with IllegalArgumentException naming the setting.
+ *
+ * <pre>
+ * dynamodb.endpoint                      http://localhost:8000, with dummy credentials;
+ *                                        blank for the region's AWS endpoint and default credentials
+ * dynamodb.region                        us-east-1
+ * dynamodb.http.client                   apache | sdk-default
+ * dynamodb.http.async-client             netty | sdk-default
+ * dynamodb.http.max-connections          256
+ * dynamodb.http.connection-timeout       2000
+ * dynamodb.http.acquisition-timeout      10000
+ * dynamodb.http.socket-timeout           30000
+ * dynamodb.http.max-idle                 60000
+ * dynamodb.http.tcp-keep-alive           true
+ * dynamodb.api-call-attempt-timeout      10000
+ * dynamodb.api-call-timeout              30000
+ * dynamodb.retry.mode                    adaptive | standard | legacy
+ * dynamodb.retry.max-attempts            3
+ * dynamodb.scan.segments                 sized from the table when unset
+ * </pre>
+ */
+public final class DynamoDbSettings {
+    public static final String LOCAL_ENDPOINT = "http://localhost:8000";
+    // Room for 200 concurrent registrants plus background scans; the SDK default is 50
+    public static final int DEFAULT_MAX_CONNECTIONS = 256;
+
+    /**
+     * {@code SDK_DEFAULT} leaves the choice to the SDK, which uses whichever implementation
+     * is on the classpath (or the one named by {@code software.amazon.awssdk.http.service.impl})
+     * with its own defaults; the pool and socket settings then do not apply.
+     */
+    public enum HttpClientType {
+        APACHE, SDK_DEFAULT
+    }
+
+    public enum AsyncHttpClientType {
+        NETTY, SDK_DEFAULT
+    }
+
+    private final URI endpoint;
+    private final String region;
+    private final HttpClientType httpClient;
+    private final AsyncHttpClientType asyncHttpClient;
+    private final int maxConnections;
+    private final Duration connectionTimeout;
+    private final Duration acquisitionTimeout;
+    private final Duration socketTimeout;
+    private final Duration maxIdle;
+    private final boolean tcpKeepAlive;
+    private final Duration apiCallAttemptTimeout;
+    private final Duration apiCallTimeout;
+    private final RetryMode retryMode;
+    private final int maxAttempts;
+    private final Integer scanSegments;
+
+    private DynamoDbSettings(Function<String, String> lookup) {
+        String endpointValue = string(lookup, "dynamodb.endpoint", LOCAL_ENDPOINT);
+        this.endpoint = endpointValue.isBlank() ? null : uri("dynamodb.endpoint", endpointValue);
+        this.region = string(lookup, "dynamodb.region", "us-east-1");
+        this.httpClient = choice(lookup, "dynamodb.http.client", HttpClientType.class, HttpClientType.APACHE);
+        this.asyncHttpClient = choice(lookup, "dynamodb.http.async-client",
+                AsyncHttpClientType.class, AsyncHttpClientType.NETTY);
+        this.maxConnections = positive(lookup, "dynamodb.http.max-connections", DEFAULT_MAX_CONNECTIONS);
+        this.connectionTimeout = millis(lookup, "dynamodb.http.connection-timeout", 2_000);
+        this.acquisitionTimeout = millis(lookup, "dynamodb.http.acquisition-timeout", 10_000);
+        this.socketTimeout = millis(lookup, "dynamodb.http.socket-timeout", 30_000);
+        this.maxIdle = millis(lookup, "dynamodb.http.max-idle", 60_000);
+        this.tcpKeepAlive = bool(lookup, "dynamodb.http.tcp-keep-alive", true);
+        this.apiCallAttemptTimeout = millis(lookup, "dynamodb.api-call-attempt-timeout", 10_000);
+        this.apiCallTimeout = millis(lookup, "dynamodb.api-call-timeout", 30_000);
+        this.retryMode = choice(lookup, "dynamodb.retry.mode", RetryMode.class, RetryMode.ADAPTIVE);
+        this.maxAttempts = positive(lookup, "dynamodb.retry.max-attempts", 3);
+        String segments = lookup.apply("dynamodb.scan.segments");
+        this.scanSegments = segments == null || segments.isBlank() ? null
+                : positive(lookup, "dynamodb.scan.segments", 1);
+        if (apiCallTimeout.compareTo(apiCallAttemptTimeout) < 0) {
+            throw new IllegalArgumentException("dynamodb.api-call-timeout must not be shorter than "
+                    + "dynamodb.api-call-attempt-timeout");
+        }
+    }
+
+    /**
+     * Settings from system properties and environment variables.
+     */
+    public static DynamoDbSettings load() {
+        return from(key -> {
+            String value = System.getProperty(key);
+            return value != null ? value : System.getenv(environmentName(key));
+        });
+    }
+
+    /**
+     * Settings from the given lookup, which is called with property names and returns null
+     * for unset ones.
+     */
+    public static DynamoDbSettings from(Function<String, String> lookup) {
+        return new DynamoDbSettings(lookup);
+    }
+
+    // dynamodb.http.max-connections -> DYNAMODB_HTTP_MAX_CONNECTIONS
+    static String environmentName(String key) {
+        return key.toUpperCase(Locale.ROOT).replace('.', '_').replace('-', '_');
+    }
+
+    /**
+     * The endpoint override, or null to use the region's AWS endpoint.
+     */
+    public URI getEndpoint() {
+        return endpoint;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public HttpClientType getHttpClient() {
+        return httpClient;
+    }
+
+    public AsyncHttpClientType getAsyncHttpClient() {
+        return asyncHttpClient;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public Duration getConnectionTimeout() {
+        return connectionTimeout;
+    }
+
+    /**
+     * How long a call waits for a pooled connection before failing.
+     */
+    public Duration getAcquisitionTimeout() {
+        return acquisitionTimeout;
+    }
+
+    public Duration getSocketTimeout() {
+        return socketTimeout;
+    }
+
+    public Duration getMaxIdle() {
+        return maxIdle;
+    }
+
+    public boolean isTcpKeepAlive() {
+        return tcpKeepAlive;
+    }
+
+    /**
+     * Limit on a single HTTP attempt.
+     */
+    public Duration getApiCallAttemptTimeout() {
+        return apiCallAttemptTimeout;
+    }
+
+    /**
+     * Limit on a whole call, retries and backoff included.
+     */
+    public Duration getApiCallTimeout() {
+        return apiCallTimeout;
+    }
+
+    public RetryMode getRetryMode() {
+        return retryMode;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * The configured parallel scan segment count, or null to size scans from the table.
+     */
+    public Integer getScanSegments() {
+        return scanSegments;
+    }
+
+    private static String string(Function<String, String> lookup, String key, String defaultValue) {
+        String value = lookup.apply(key);
+        return value == null ? defaultValue : value.trim();
+    }
+
+    private static URI uri(String key, String value) {
+        try {
+            return URI.create(value);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(key + " is not a valid URI: " + value, e);
+        }
+    }
+
+    private static int positive(Function<String, String> lookup, String key, int defaultValue) {
+        String value = lookup.apply(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            int parsed = Integer.parseInt(value.trim());
+            if (parsed > 0) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new IllegalArgumentException(key + " must be a positive integer: " + value);
+    }
+
+    private static Duration millis(Function<String, String> lookup, String key, int defaultMillis) {
+        return Duration.ofMillis(positive(lookup, key, defaultMillis));
+    }
+
+    private static boolean bool(Function<String, String> lookup, String key, boolean defaultValue) {
+        String value = lookup.apply(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        if (value.trim().equalsIgnoreCase("true") || value.trim().equalsIgnoreCase("false")) {
+            return Boolean.parseBoolean(value.trim());
+        }
+        throw new IllegalArgumentException(key + " must be true or false: " + value);
+    }
+
+    // Accepts the constant name in any case, with '-' for '_' (sdk-default -> SDK_DEFAULT)
+    private static <E extends Enum<E>> E choice(Function<String, String> lookup, String key,
+                                               Class<E> type, E defaultValue) {
+        String value = lookup.apply(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        String name = value.trim().toUpperCase(Locale.ROOT).replace('-', '_');
+        for (E constant : type.getEnumConstants()) {
+            if (constant.name().equals(name)) {
+                return constant;
+            }
+        }
+        throw new IllegalArgumentException(key + " must be one of "
+                + Arrays.toString(type.getEnumConstants()).toLowerCase(Locale.ROOT).replace('_', '-')
+                + ": " + value);
+    }
+}
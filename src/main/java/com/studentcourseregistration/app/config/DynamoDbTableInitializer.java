@@ -1,8 +1,11 @@
 package com.studentcourseregistration.app.config;
 
 import com.studentcourseregistration.app.model.Course;
+import com.studentcourseregistration.app.model.Enrollment;
 import com.studentcourseregistration.app.model.Registration;
+import com.studentcourseregistration.app.model.Session;
 import com.studentcourseregistration.app.model.Student;
+import com.studentcourseregistration.app.model.UniqueConstraint;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
 import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
@@ -19,6 +22,9 @@ public class DynamoDbTableInitializer {
         createStudentsTable(client, enhancedClient);
         createCoursesTable(client, enhancedClient);
         createRegistrationsTable(client, enhancedClient);
+        createEnrollmentsTable(client, enhancedClient);
+        createUniqueConstraintsTable(client, enhancedClient);
+        createSessionsTable(client, enhancedClient);
         
         System.out.println("DynamoDB tables initialized successfully!");
     }
@@ -78,6 +84,14 @@ public class DynamoDbTableInitializer {
                     EnhancedGlobalSecondaryIndex.builder()
                         .indexName("department-index")
                         .projection(p -> p.projectionType(ProjectionType.ALL))
+                        .provisionedThroughput(b -> b
+                            .readCapacityUnits(5L)
+                            .writeCapacityUnits(5L)
+                            .build())
+                        .build(),
+                    EnhancedGlobalSecondaryIndex.builder()
+                        .indexName("updated-index")
+                        .projection(p -> p.projectionType(ProjectionType.ALL))
                         .provisionedThroughput(b -> b
                             .readCapacityUnits(5L)
                             .writeCapacityUnits(5L)
@@ -88,6 +102,8 @@ public class DynamoDbTableInitializer {
             System.out.println("Courses table created successfully");
         } catch (ResourceInUseException e) {
             System.out.println("Courses table already exists");
+            addIndexIfMissing(client, "Courses", "updated-index",
+                "catalogPartition", ScalarAttributeType.S, "updatedAt", ScalarAttributeType.S);
         } catch (Exception e) {
             System.err.println("Error creating Courses table: " + e.getMessage());
         }
@@ -113,6 +129,14 @@ public class DynamoDbTableInitializer {
                     EnhancedGlobalSecondaryIndex.builder()
                         .indexName("course-index")
                         .projection(p -> p.projectionType(ProjectionType.ALL))
+                        .provisionedThroughput(b -> b
+                            .readCapacityUnits(5L)
+                            .writeCapacityUnits(5L)
+                            .build())
+                        .build(),
+                    EnhancedGlobalSecondaryIndex.builder()
+                        .indexName("waitlist-index")
+                        .projection(p -> p.projectionType(ProjectionType.ALL))
                         .provisionedThroughput(b -> b
                             .readCapacityUnits(5L)
                             .writeCapacityUnits(5L)
@@ -123,8 +147,92 @@ public class DynamoDbTableInitializer {
             System.out.println("Registrations table created successfully");
         } catch (ResourceInUseException e) {
             System.out.println("Registrations table already exists");
+            addIndexIfMissing(client, "Registrations", "waitlist-index",
+                "waitlistCourseId", ScalarAttributeType.S, "waitlistPosition", ScalarAttributeType.N);
         } catch (Exception e) {
             System.err.println("Error creating Registrations table: " + e.getMessage());
         }
     }
-}
+    
+    // Tables created before an index existed get it added in place
+    private static void addIndexIfMissing(DynamoDbClient client, String tableName, String indexName,
+                                          String hashKey, ScalarAttributeType hashType,
+                                          String rangeKey, ScalarAttributeType rangeType) {
+        TableDescription table = client.describeTable(r -> r.tableName(tableName)).table();
+        if (table.hasGlobalSecondaryIndexes() && table.globalSecondaryIndexes().stream()
+                .anyMatch(index -> indexName.equals(index.indexName()))) {
+            return;
+        }
+        client.updateTable(r -> r
+            .tableName(tableName)
+            .attributeDefinitions(
+                AttributeDefinition.builder().attributeName(hashKey).attributeType(hashType).build(),
+                AttributeDefinition.builder().attributeName(rangeKey).attributeType(rangeType).build())
+            .globalSecondaryIndexUpdates(GlobalSecondaryIndexUpdate.builder()
+                .create(CreateGlobalSecondaryIndexAction.builder()
+                    .indexName(indexName)
+                    .keySchema(
+                        KeySchemaElement.builder().attributeName(hashKey).keyType(KeyType.HASH).build(),
+                        KeySchemaElement.builder().attributeName(rangeKey).keyType(KeyType.RANGE).build())
+                    .projection(p -> p.projectionType(ProjectionType.ALL))
+                    .provisionedThroughput(b -> b.readCapacityUnits(5L).writeCapacityUnits(5L))
+                    .build())
+                .build()));
+        System.out.println("Added " + indexName + " to " + tableName + " table");
+    }
+    
+    private static void createEnrollmentsTable(DynamoDbClient client, DynamoDbEnhancedClient enhancedClient) {
+        try {
+            DynamoDbTable<Enrollment> table = enhancedClient.table("Enrollments", TableSchema.fromBean(Enrollment.class));
+            table.createTable(builder -> builder
+                .provisionedThroughput(b -> b
+                    .readCapacityUnits(5L)
+                    .writeCapacityUnits(5L)
+                    .build())
+            );
+            System.out.println("Enrollments table created successfully");
+        } catch (ResourceInUseException e) {
+            System.out.println("Enrollments table already exists");
+        } catch (Exception e) {
+            System.err.println("Error creating Enrollments table: " + e.getMessage());
+        }
+    }
+    
+    private static void createUniqueConstraintsTable(DynamoDbClient client, DynamoDbEnhancedClient enhancedClient) {
+        try {
+            DynamoDbTable<UniqueConstraint> table = enhancedClient.table("UniqueConstraints", TableSchema.fromBean(UniqueConstraint.class));
+            table.createTable(builder -> builder
+                .provisionedThroughput(b -> b
+                    .readCapacityUnits(5L)
+                    .writeCapacityUnits(5L)
+                    .build())
+            );
+            System.out.println("UniqueConstraints table created successfully");
+        } catch (ResourceInUseException e) {
+            System.out.println("UniqueConstraints table already exists");
+        } catch (Exception e) {
+            System.err.println("Error creating UniqueConstraints table: " + e.getMessage());
+        }
+    }
+    
+    private static void createSessionsTable(DynamoDbClient client, DynamoDbEnhancedClient enhancedClient) {
+        try {
+            DynamoDbTable<Session> table = enhancedClient.table("Sessions", TableSchema.fromBean(Session.class));
+            table.createTable(builder -> builder
+                .provisionedThroughput(b -> b
+                    .readCapacityUnits(5L)
+                    .writeCapacityUnits(5L)
+                    .build())
+            );
+            // Expired sessions are removed by DynamoDB rather than by a sweeper
+            client.updateTimeToLive(r -> r
+                .tableName("Sessions")
+                .timeToLiveSpecification(t -> t.attributeName("expiresAt").enabled(true)));
+            System.out.println("Sessions table created successfully");
+        } catch (ResourceInUseException e) {
+            System.out.println("Sessions table already exists");
+        } catch (Exception e) {
+            System.err.println("Error creating Sessions table: " + e.getMessage());
+        }
+    }
+}
\ No newline at end of file
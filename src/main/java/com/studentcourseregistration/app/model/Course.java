@@ -1,12 +1,18 @@
 package com.studentcourseregistration.app.model;
 
+import software.amazon.awssdk.enhanced.dynamodb.extensions.annotations.DynamoDbVersionAttribute;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.*;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
 @DynamoDbBean
 public class Course {
+    // updated-index spreads courses over this many partitions, picked by course id, so seat
+    // updates across the catalog do not all write one index partition; readers query each shard
+    public static final int CATALOG_SHARDS = 8;
+
     private String courseId;
     private String courseCode;
     private String courseName;
@@ -20,9 +26,12 @@ public class Course {
     private String location;
     private Integer capacity;
     private Integer enrolled;
+    private Long waitlistSequence; // last waitlist position handed out
     private List<String> prerequisites;
     private String createdAt;
     private String updatedAt;
+    private String catalogPartition;
+    private Long version; // bumped by every write, for optimistic locking
 
     public Course() {
         this.createdAt = Instant.now().toString();
@@ -30,6 +39,31 @@ public class Course {
         this.enrolled = 0;
     }
 
+    /**
+     * A copy that shares nothing mutable with {@code other}.
+     */
+    public Course(Course other) {
+        this.courseId = other.courseId;
+        this.courseCode = other.courseCode;
+        this.courseName = other.courseName;
+        this.description = other.description;
+        this.credits = other.credits;
+        this.department = other.department;
+        this.instructor = other.instructor;
+        this.semester = other.semester;
+        this.year = other.year;
+        this.schedule = other.schedule;
+        this.location = other.location;
+        this.capacity = other.capacity;
+        this.enrolled = other.enrolled;
+        this.waitlistSequence = other.waitlistSequence;
+        this.prerequisites = other.prerequisites == null ? null : new ArrayList<>(other.prerequisites);
+        this.createdAt = other.createdAt;
+        this.updatedAt = other.updatedAt;
+        this.catalogPartition = other.catalogPartition;
+        this.version = other.version;
+    }
+
     @DynamoDbPartitionKey
     public String getCourseId() {
         return courseId;
@@ -137,6 +171,14 @@ public class Course {
         this.enrolled = enrolled;
     }
 
+    public Long getWaitlistSequence() {
+        return waitlistSequence;
+    }
+
+    public void setWaitlistSequence(Long waitlistSequence) {
+        this.waitlistSequence = waitlistSequence;
+    }
+
     public List<String> getPrerequisites() {
         return prerequisites;
     }
@@ -153,6 +195,7 @@ public class Course {
         this.createdAt = createdAt;
     }
 
+    @DynamoDbSecondarySortKey(indexNames = "updated-index")
     public String getUpdatedAt() {
         return updatedAt;
     }
@@ -161,6 +204,33 @@ public class Course {
         this.updatedAt = updatedAt;
     }
 
+    // Derived from the id, so a write also moves items stored under an older partition scheme
+    @DynamoDbSecondaryPartitionKey(indexNames = "updated-index")
+    public String getCatalogPartition() {
+        return courseId == null ? catalogPartition : catalogPartitionFor(courseId);
+    }
+
+    public void setCatalogPartition(String catalogPartition) {
+        this.catalogPartition = catalogPartition;
+    }
+
+    public static String catalogPartitionFor(String courseId) {
+        return catalogShard(Math.floorMod(courseId.hashCode(), CATALOG_SHARDS));
+    }
+
+    public static String catalogShard(int shard) {
+        return "CATALOG#" + shard;
+    }
+
+    @DynamoDbVersionAttribute
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public boolean isAvailable() {
         return enrolled < capacity;
     }
@@ -0,0 +1,137 @@
+package com.studentcourseregistration.app.model;
+
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.*;
+import java.util.Objects;
+
+/**
+ * Read-only listing view of a Courses item: only the attributes catalog screens show, so a
+ * scan can project away descriptions, prerequisites and bookkeeping fields. Never saved;
+ * writes always go through {@link Course}.
+ */
+@DynamoDbBean
+public class CourseSummary {
+    private String courseId;
+    private String courseCode;
+    private String courseName;
+    private String department;
+    private Integer credits;
+    private String semester;
+    private Integer year;
+    private Integer capacity;
+    private Integer enrolled;
+
+    public static CourseSummary of(Course course) {
+        CourseSummary summary = new CourseSummary();
+        summary.setCourseId(course.getCourseId());
+        summary.setCourseCode(course.getCourseCode());
+        summary.setCourseName(course.getCourseName());
+        summary.setDepartment(course.getDepartment());
+        summary.setCredits(course.getCredits());
+        summary.setSemester(course.getSemester());
+        summary.setYear(course.getYear());
+        summary.setCapacity(course.getCapacity());
+        summary.setEnrolled(course.getEnrolled());
+        return summary;
+    }
+
+    @DynamoDbPartitionKey
+    public String getCourseId() {
+        return courseId;
+    }
+
+    public void setCourseId(String courseId) {
+        this.courseId = courseId;
+    }
+
+    public String getCourseCode() {
+        return courseCode;
+    }
+
+    public void setCourseCode(String courseCode) {
+        this.courseCode = courseCode;
+    }
+
+    public String getCourseName() {
+        return courseName;
+    }
+
+    public void setCourseName(String courseName) {
+        this.courseName = courseName;
+    }
+
+    @DynamoDbSecondaryPartitionKey(indexNames = "department-index")
+    public String getDepartment() {
+        return department;
+    }
+
+    public void setDepartment(String department) {
+        this.department = department;
+    }
+
+    public Integer getCredits() {
+        return credits;
+    }
+
+    public void setCredits(Integer credits) {
+        this.credits = credits;
+    }
+
+    public String getSemester() {
+        return semester;
+    }
+
+    public void setSemester(String semester) {
+        this.semester = semester;
+    }
+
+    public Integer getYear() {
+        return year;
+    }
+
+    public void setYear(Integer year) {
+        this.year = year;
+    }
+
+    public Integer getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(Integer capacity) {
+        this.capacity = capacity;
+    }
+
+    public Integer getEnrolled() {
+        return enrolled;
+    }
+
+    public void setEnrolled(Integer enrolled) {
+        this.enrolled = enrolled;
+    }
+
+    public boolean isAvailable() {
+        return enrolled != null && capacity != null && enrolled < capacity;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        CourseSummary that = (CourseSummary) o;
+        return Objects.equals(courseId, that.courseId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(courseId);
+    }
+
+    @Override
+    public String toString() {
+        return "CourseSummary{" +
+                "courseCode='" + courseCode + '\'' +
+                ", courseName='" + courseName + '\'' +
+                ", enrolled=" + enrolled +
+                ", capacity=" + capacity +
+                '}';
+    }
+}
@@ -0,0 +1,89 @@
+package com.studentcourseregistration.app.model;
+
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.*;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Uniqueness marker for an active (studentId, courseId) pair. Written in the
+ * same transaction as the registration so a student cannot hold two active
+ * registrations for one course.
+ */
+@DynamoDbBean
+public class Enrollment {
+    private String enrollmentKey;
+    private String registrationId;
+    private String studentId;
+    private String courseId;
+    private String createdAt;
+
+    public Enrollment() {
+        this.createdAt = Instant.now().toString();
+    }
+
+    public static String keyFor(String studentId, String courseId) {
+        return studentId + "#" + courseId;
+    }
+
+    @DynamoDbPartitionKey
+    public String getEnrollmentKey() {
+        return enrollmentKey;
+    }
+
+    public void setEnrollmentKey(String enrollmentKey) {
+        this.enrollmentKey = enrollmentKey;
+    }
+
+    public String getRegistrationId() {
+        return registrationId;
+    }
+
+    public void setRegistrationId(String registrationId) {
+        this.registrationId = registrationId;
+    }
+
+    public String getStudentId() {
+        return studentId;
+    }
+
+    public void setStudentId(String studentId) {
+        this.studentId = studentId;
+    }
+
+    public String getCourseId() {
+        return courseId;
+    }
+
+    public void setCourseId(String courseId) {
+        this.courseId = courseId;
+    }
+
+    public String getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(String createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Enrollment that = (Enrollment) o;
+        return Objects.equals(enrollmentKey, that.enrollmentKey);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(enrollmentKey);
+    }
+
+    @Override
+    public String toString() {
+        return "Enrollment{" +
+                "enrollmentKey='" + enrollmentKey + '\'' +
+                ", registrationId='" + registrationId + '\'' +
+                '}';
+    }
+}
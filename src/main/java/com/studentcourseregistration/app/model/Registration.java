@@ -1,5 +1,6 @@
 package com.studentcourseregistration.app.model;
 
+import software.amazon.awssdk.enhanced.dynamodb.extensions.annotations.DynamoDbVersionAttribute;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.*;
 import java.time.Instant;
 import java.util.Objects;
@@ -13,6 +14,9 @@ public class Registration {
     private String grade;
     private String registeredAt;
     private String droppedAt;
+    private String waitlistCourseId; // set only while WAITLISTED, keeps waitlist-index sparse
+    private Long waitlistPosition;
+    private Long version; // bumped by every write, for optimistic locking
 
     public Registration() {
         this.registeredAt = Instant.now().toString();
@@ -78,6 +82,33 @@ public class Registration {
         this.droppedAt = droppedAt;
     }
 
+    @DynamoDbSecondaryPartitionKey(indexNames = "waitlist-index")
+    public String getWaitlistCourseId() {
+        return waitlistCourseId;
+    }
+
+    public void setWaitlistCourseId(String waitlistCourseId) {
+        this.waitlistCourseId = waitlistCourseId;
+    }
+
+    @DynamoDbSecondarySortKey(indexNames = "waitlist-index")
+    public Long getWaitlistPosition() {
+        return waitlistPosition;
+    }
+
+    public void setWaitlistPosition(Long waitlistPosition) {
+        this.waitlistPosition = waitlistPosition;
+    }
+
+    @DynamoDbVersionAttribute
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
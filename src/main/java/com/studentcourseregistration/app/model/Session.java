@@ -0,0 +1,86 @@
+package com.studentcourseregistration.app.model;
+
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.*;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * A login session shared between app nodes. Keyed by a hash of the token, so the table never
+ * holds a usable token. {@code expiresAt} slides with use and is the table's TTL attribute;
+ * {@code maxExpiresAt} caps the lifetime however active the session is. Both are epoch seconds.
+ */
+@DynamoDbBean
+public class Session {
+    private String sessionKey;
+    private String studentId;
+    private Long expiresAt;
+    private Long maxExpiresAt;
+    private String createdAt;
+
+    public Session() {
+        this.createdAt = Instant.now().toString();
+    }
+
+    @DynamoDbPartitionKey
+    public String getSessionKey() {
+        return sessionKey;
+    }
+
+    public void setSessionKey(String sessionKey) {
+        this.sessionKey = sessionKey;
+    }
+
+    public String getStudentId() {
+        return studentId;
+    }
+
+    public void setStudentId(String studentId) {
+        this.studentId = studentId;
+    }
+
+    public Long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Long expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public Long getMaxExpiresAt() {
+        return maxExpiresAt;
+    }
+
+    public void setMaxExpiresAt(Long maxExpiresAt) {
+        this.maxExpiresAt = maxExpiresAt;
+    }
+
+    public String getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(String createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Session session = (Session) o;
+        return Objects.equals(sessionKey, session.sessionKey);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(sessionKey);
+    }
+
+    @Override
+    public String toString() {
+        return "Session{" +
+                "studentId='" + studentId + '\'' +
+                ", expiresAt=" + expiresAt +
+                ", maxExpiresAt=" + maxExpiresAt +
+                '}';
+    }
+}
@@ -1,5 +1,6 @@
 package com.studentcourseregistration.app.model;
 
+import software.amazon.awssdk.enhanced.dynamodb.extensions.annotations.DynamoDbVersionAttribute;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.*;
 import java.time.Instant;
 import java.util.Objects;
@@ -19,6 +20,7 @@ public class Student {
     private String address;
     private String createdAt;
     private String updatedAt;
+    private Long version; // bumped by every write, for optimistic locking
 
     public Student() {
         this.createdAt = Instant.now().toString();
@@ -132,6 +134,15 @@ public class Student {
         this.updatedAt = updatedAt;
     }
 
+    @DynamoDbVersionAttribute
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,75 @@
+package com.studentcourseregistration.app.model;
+
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.*;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Claim on a value that must be unique across students, such as a username or an
+ * email. Written in the same transaction as the student so two signups cannot both
+ * take the same value.
+ */
+@DynamoDbBean
+public class UniqueConstraint {
+    private String constraintKey;
+    private String studentId;
+    private String createdAt;
+
+    public UniqueConstraint() {
+        this.createdAt = Instant.now().toString();
+    }
+
+    public static String usernameKey(String username) {
+        return "USERNAME#" + username;
+    }
+
+    public static String emailKey(String email) {
+        return "EMAIL#" + email;
+    }
+
+    @DynamoDbPartitionKey
+    public String getConstraintKey() {
+        return constraintKey;
+    }
+
+    public void setConstraintKey(String constraintKey) {
+        this.constraintKey = constraintKey;
+    }
+
+    public String getStudentId() {
+        return studentId;
+    }
+
+    public void setStudentId(String studentId) {
+        this.studentId = studentId;
+    }
+
+    public String getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(String createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        UniqueConstraint that = (UniqueConstraint) o;
+        return Objects.equals(constraintKey, that.constraintKey);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(constraintKey);
+    }
+
+    @Override
+    public String toString() {
+        return "UniqueConstraint{" +
+                "constraintKey='" + constraintKey + '\'' +
+                ", studentId='" + studentId + '\'' +
+                '}';
+    }
+}
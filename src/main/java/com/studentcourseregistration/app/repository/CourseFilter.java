@@ -0,0 +1,120 @@
+package com.studentcourseregistration.app.repository;
+
+import com.studentcourseregistration.app.model.Course;
+import software.amazon.awssdk.enhanced.dynamodb.Expression;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Conditions for catalog listings. Unset conditions match everything; set ones are ANDed.
+ * DynamoDB repositories evaluate them server-side as a filter expression, in-memory ones
+ * with {@link #matches(Course)}.
+ */
+public class CourseFilter {
+    private String department;
+    private String semester;
+    private Integer year;
+    private Integer minCredits;
+    private Integer maxCredits;
+    private boolean openSeats;
+
+    public CourseFilter department(String department) {
+        this.department = department;
+        return this;
+    }
+
+    public CourseFilter semester(String semester) {
+        this.semester = semester;
+        return this;
+    }
+
+    public CourseFilter year(int year) {
+        this.year = year;
+        return this;
+    }
+
+    public CourseFilter creditsBetween(int min, int max) {
+        if (max < min) {
+            throw new IllegalArgumentException("Range is empty: " + min + " to " + max);
+        }
+        this.minCredits = min;
+        this.maxCredits = max;
+        return this;
+    }
+
+    /**
+     * Only courses with {@code enrolled < capacity}.
+     */
+    public CourseFilter openSeats() {
+        this.openSeats = true;
+        return this;
+    }
+
+    public String getDepartment() {
+        return department;
+    }
+
+    public boolean matches(Course course) {
+        return (department == null || department.equals(course.getDepartment()))
+                && (semester == null || semester.equals(course.getSemester()))
+                && (year == null || year.equals(course.getYear()))
+                && (minCredits == null || (course.getCredits() != null
+                        && course.getCredits() >= minCredits && course.getCredits() <= maxCredits))
+                && (!openSeats || (course.getCapacity() != null && course.getEnrolled() != null
+                        && course.isAvailable()));
+    }
+
+    /**
+     * The filter as a DynamoDB filter expression, or null when nothing is filtered. The
+     * department is left out when {@code includeDepartment} is false, for queries that
+     * already key on it.
+     */
+    Expression toExpression(boolean includeDepartment) {
+        List<String> conditions = new ArrayList<>();
+        // capacity and year are reserved words, so every name goes through a placeholder
+        Map<String, String> names = new HashMap<>();
+        Map<String, AttributeValue> values = new HashMap<>();
+        if (includeDepartment && department != null) {
+            conditions.add("#department = :department");
+            names.put("#department", "department");
+            values.put(":department", AttributeValue.builder().s(department).build());
+        }
+        if (semester != null) {
+            conditions.add("#semester = :semester");
+            names.put("#semester", "semester");
+            values.put(":semester", AttributeValue.builder().s(semester).build());
+        }
+        if (year != null) {
+            conditions.add("#year = :year");
+            names.put("#year", "year");
+            values.put(":year", number(year));
+        }
+        if (minCredits != null) {
+            conditions.add("#credits BETWEEN :minCredits AND :maxCredits");
+            names.put("#credits", "credits");
+            values.put(":minCredits", number(minCredits));
+            values.put(":maxCredits", number(maxCredits));
+        }
+        if (openSeats) {
+            conditions.add("#enrolled < #capacity");
+            names.put("#enrolled", "enrolled");
+            names.put("#capacity", "capacity");
+        }
+        if (conditions.isEmpty()) {
+            return null;
+        }
+        return Expression.builder()
+                .expression(String.join(" AND ", conditions))
+                .expressionNames(names)
+                .expressionValues(values.isEmpty() ? null : values)
+                .build();
+    }
+
+    private static AttributeValue number(int value) {
+        return AttributeValue.builder().n(Integer.toString(value)).build();
+    }
+}
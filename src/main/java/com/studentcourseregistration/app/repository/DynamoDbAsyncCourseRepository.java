@@ -0,0 +1,54 @@
+package com.studentcourseregistration.app.repository;
+
+import com.studentcourseregistration.app.config.DynamoDbConfig;
+import com.studentcourseregistration.app.model.Course;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbAsyncTable;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking counterpart of {@link DynamoDbCourseRepository}.
+ */
+public class DynamoDbAsyncCourseRepository {
+    private final DynamoDbAsyncTable<Course> courseTable;
+    
+    public DynamoDbAsyncCourseRepository() {
+        this.courseTable = DynamoDbConfig.getEnhancedAsyncClient()
+                .table("Courses", TableSchema.fromBean(Course.class));
+    }
+    
+    /**
+     * Versioned put; completes exceptionally with ConditionalCheckFailedException if the stored
+     * course has moved past the version this one was read at.
+     */
+    public CompletableFuture<Course> save(Course course) {
+        return courseTable.putItem(course).thenApply(done -> {
+            course.setVersion(OptimisticLocking.nextVersion(course.getVersion()));
+            return course;
+        });
+    }
+    
+    public CompletableFuture<Optional<Course>> findById(String courseId) {
+        return courseTable.getItem(Key.builder().partitionValue(courseId).build())
+                .thenApply(Optional::ofNullable);
+    }
+    
+    public CompletableFuture<Optional<Course>> findByCourseCode(String courseCode) {
+        return DynamoDbAsyncQueries.first(courseTable.index("course-code-index")
+                .query(QueryConditional.keyEqualTo(Key.builder().partitionValue(courseCode).build())));
+    }
+    
+    public CompletableFuture<List<Course>> findByDepartment(String department) {
+        return DynamoDbAsyncQueries.collect(courseTable.index("department-index")
+                .query(QueryConditional.keyEqualTo(Key.builder().partitionValue(department).build())));
+    }
+    
+    public CompletableFuture<Void> delete(String courseId) {
+        return courseTable.deleteItem(Key.builder().partitionValue(courseId).build()).thenApply(deleted -> null);
+    }
+}
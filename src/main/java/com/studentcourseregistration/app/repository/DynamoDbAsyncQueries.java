@@ -0,0 +1,30 @@
+package com.studentcourseregistration.app.repository;
+
+import software.amazon.awssdk.core.async.SdkPublisher;
+import software.amazon.awssdk.enhanced.dynamodb.model.Page;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Folds the page publishers of async queries into futures. Pages are delivered one at a
+ * time, so the collecting list needs no synchronization.
+ */
+final class DynamoDbAsyncQueries {
+    private DynamoDbAsyncQueries() {
+    }
+
+    static <T> CompletableFuture<List<T>> collect(SdkPublisher<Page<T>> pages) {
+        List<T> items = new ArrayList<>();
+        return pages.subscribe(page -> items.addAll(page.items())).thenApply(done -> items);
+    }
+
+    // Stops requesting pages once the first item has arrived
+    static <T> CompletableFuture<Optional<T>> first(SdkPublisher<Page<T>> pages) {
+        List<T> items = new ArrayList<>(1);
+        return pages.flatMapIterable(Page::items).limit(1).subscribe(items::add)
+                .thenApply(done -> items.stream().findFirst());
+    }
+}
@@ -0,0 +1,75 @@
+package com.studentcourseregistration.app.repository;
+
+import com.studentcourseregistration.app.config.DynamoDbConfig;
+import com.studentcourseregistration.app.model.Enrollment;
+import com.studentcourseregistration.app.model.Registration;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbAsyncTable;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedAsyncClient;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking counterpart of {@link DynamoDbRegistrationRepository}.
+ */
+public class DynamoDbAsyncRegistrationRepository {
+    private final DynamoDbAsyncTable<Registration> registrationTable;
+    private final DynamoDbAsyncTable<Enrollment> enrollmentTable;
+    
+    public DynamoDbAsyncRegistrationRepository() {
+        DynamoDbEnhancedAsyncClient enhancedClient = DynamoDbConfig.getEnhancedAsyncClient();
+        this.registrationTable = enhancedClient.table("Registrations", TableSchema.fromBean(Registration.class));
+        this.enrollmentTable = enhancedClient.table("Enrollments", TableSchema.fromBean(Enrollment.class));
+    }
+    
+    /**
+     * Versioned put; completes exceptionally with ConditionalCheckFailedException if the stored
+     * registration has moved past the version this one was read at.
+     */
+    public CompletableFuture<Registration> save(Registration registration) {
+        return registrationTable.putItem(registration).thenApply(done -> {
+            registration.setVersion(OptimisticLocking.nextVersion(registration.getVersion()));
+            return registration;
+        });
+    }
+    
+    public CompletableFuture<Optional<Registration>> findById(String registrationId) {
+        return registrationTable.getItem(Key.builder().partitionValue(registrationId).build())
+                .thenApply(Optional::ofNullable);
+    }
+    
+    public CompletableFuture<List<Registration>> findByStudentId(String studentId) {
+        return DynamoDbAsyncQueries.collect(registrationTable.index("student-index")
+                .query(QueryConditional.keyEqualTo(Key.builder().partitionValue(studentId).build())));
+    }
+    
+    public CompletableFuture<List<Registration>> findByCourseId(String courseId) {
+        return DynamoDbAsyncQueries.collect(registrationTable.index("course-index")
+                .query(QueryConditional.keyEqualTo(Key.builder().partitionValue(courseId).build())));
+    }
+    
+    /**
+     * Strongly consistent read of the (student, course) enrollment marker, which exists while
+     * the student is enrolled in or waitlisted for the course.
+     */
+    public CompletableFuture<Optional<Enrollment>> findEnrollment(String studentId, String courseId) {
+        Key key = Key.builder().partitionValue(Enrollment.keyFor(studentId, courseId)).build();
+        return enrollmentTable.getItem(r -> r.key(key).consistentRead(true)).thenApply(Optional::ofNullable);
+    }
+    
+    public CompletableFuture<Optional<Registration>> findActiveRegistration(String studentId, String courseId) {
+        return findEnrollment(studentId, courseId).thenCompose(enrollment -> enrollment.isEmpty()
+                ? CompletableFuture.completedFuture(Optional.<Registration>empty())
+                : findById(enrollment.get().getRegistrationId())
+                        .thenApply(registration -> registration.filter(reg -> "ENROLLED".equals(reg.getStatus()))));
+    }
+    
+    public CompletableFuture<Void> delete(String registrationId) {
+        return registrationTable.deleteItem(Key.builder().partitionValue(registrationId).build())
+                .thenApply(deleted -> null);
+    }
+}
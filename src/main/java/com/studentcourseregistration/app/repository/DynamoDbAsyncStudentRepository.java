@@ -0,0 +1,54 @@
+package com.studentcourseregistration.app.repository;
+
+import com.studentcourseregistration.app.config.DynamoDbConfig;
+import com.studentcourseregistration.app.model.Student;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbAsyncTable;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking counterpart of {@link DynamoDbStudentRepository}: each call sends its request
+ * and returns at once, so independent reads can be in flight together.
+ */
+public class DynamoDbAsyncStudentRepository {
+    private final DynamoDbAsyncTable<Student> studentTable;
+    
+    public DynamoDbAsyncStudentRepository() {
+        this.studentTable = DynamoDbConfig.getEnhancedAsyncClient()
+                .table("Students", TableSchema.fromBean(Student.class));
+    }
+    
+    /**
+     * Versioned put; completes exceptionally with ConditionalCheckFailedException if the stored
+     * student has moved past the version this one was read at.
+     */
+    public CompletableFuture<Student> save(Student student) {
+        return studentTable.putItem(student).thenApply(done -> {
+            student.setVersion(OptimisticLocking.nextVersion(student.getVersion()));
+            return student;
+        });
+    }
+    
+    public CompletableFuture<Optional<Student>> findById(String studentId) {
+        return studentTable.getItem(Key.builder().partitionValue(studentId).build())
+                .thenApply(Optional::ofNullable);
+    }
+    
+    public CompletableFuture<Optional<Student>> findByUsername(String username) {
+        return DynamoDbAsyncQueries.first(studentTable.index("username-index")
+                .query(QueryConditional.keyEqualTo(Key.builder().partitionValue(username).build())));
+    }
+    
+    public CompletableFuture<Optional<Student>> findByEmail(String email) {
+        return DynamoDbAsyncQueries.first(studentTable.index("email-index")
+                .query(QueryConditional.keyEqualTo(Key.builder().partitionValue(email).build())));
+    }
+    
+    public CompletableFuture<Void> delete(String studentId) {
+        return studentTable.deleteItem(Key.builder().partitionValue(studentId).build()).thenApply(deleted -> null);
+    }
+}
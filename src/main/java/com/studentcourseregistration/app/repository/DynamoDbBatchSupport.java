@@ -0,0 +1,211 @@
+package com.studentcourseregistration.app.repository;
+
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Chunking and retry for BatchGetItem / BatchWriteItem. Unprocessed keys and items
+ * are retried with exponential backoff and jitter until DynamoDB accepts them.
+ */
+public final class DynamoDbBatchSupport {
+    public static final int MAX_GET_BATCH = 100;
+    public static final int MAX_WRITE_BATCH = 25;
+
+    private static final int MAX_ATTEMPTS = 10;
+    private static final long BASE_BACKOFF_MILLIS = 25;
+    private static final long MAX_BACKOFF_MILLIS = 2000;
+
+    private DynamoDbBatchSupport() {
+    }
+
+    /**
+     * Fetches all items for the given keys of one table. Duplicate keys are fetched once;
+     * keys without an item are simply absent from the result.
+     */
+    public static List<Map<String, AttributeValue>> batchGet(DynamoDbClient client, String tableName,
+                                                             List<Map<String, AttributeValue>> keys,
+                                                             boolean consistentRead) {
+        List<Map<String, AttributeValue>> distinctKeys = new ArrayList<>(new LinkedHashSet<>(keys));
+        List<Map<String, AttributeValue>> items = new ArrayList<>();
+
+        for (int from = 0; from < distinctKeys.size(); from += MAX_GET_BATCH) {
+            List<Map<String, AttributeValue>> chunk =
+                    distinctKeys.subList(from, Math.min(from + MAX_GET_BATCH, distinctKeys.size()));
+            Map<String, KeysAndAttributes> pending = Map.of(tableName,
+                    KeysAndAttributes.builder().keys(chunk).consistentRead(consistentRead).build());
+
+            for (int attempt = 0; !pending.isEmpty(); attempt++) {
+                if (attempt > 0) {
+                    backoff(attempt, "BatchGetItem", tableName);
+                }
+                Map<String, KeysAndAttributes> request = pending;
+                BatchGetItemResponse response = client.batchGetItem(r -> r.requestItems(request));
+                items.addAll(response.responses().getOrDefault(tableName, List.of()));
+                pending = response.hasUnprocessedKeys() ? response.unprocessedKeys() : Map.of();
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Fetches items of one table by a string partition key, mapped through the table schema
+     * and returned in the order of the first occurrence of each id.
+     */
+    public static <T> List<T> batchGetByIds(DynamoDbClient client, String tableName, String keyName,
+                                            TableSchema<T> schema, Function<T, String> idOf,
+                                            Collection<String> ids, boolean consistentRead) {
+        List<Map<String, AttributeValue>> keys = ids.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .map(id -> Map.of(keyName, AttributeValue.builder().s(id).build()))
+                .collect(Collectors.toList());
+        Map<String, T> itemsById = new HashMap<>();
+        for (Map<String, AttributeValue> item : batchGet(client, tableName, keys, consistentRead)) {
+            T mapped = schema.mapToItem(item);
+            itemsById.put(idOf.apply(mapped), mapped);
+        }
+        return ids.stream()
+                .distinct()
+                .map(itemsById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Writes all requests, grouped into 25-item BatchWriteItem calls that may span tables.
+     */
+    public static void batchWrite(DynamoDbClient client, Map<String, List<WriteRequest>> requestsByTable) {
+        List<Map.Entry<String, WriteRequest>> requests = new ArrayList<>();
+        requestsByTable.forEach((table, tableRequests) ->
+                tableRequests.forEach(request -> requests.add(Map.entry(table, request))));
+
+        for (int from = 0; from < requests.size(); from += MAX_WRITE_BATCH) {
+            Map<String, List<WriteRequest>> pending = new HashMap<>();
+            for (Map.Entry<String, WriteRequest> request :
+                    requests.subList(from, Math.min(from + MAX_WRITE_BATCH, requests.size()))) {
+                pending.computeIfAbsent(request.getKey(), t -> new ArrayList<>()).add(request.getValue());
+            }
+
+            for (int attempt = 0; !pending.isEmpty(); attempt++) {
+                if (attempt > 0) {
+                    backoff(attempt, "BatchWriteItem", pending.keySet().toString());
+                }
+                Map<String, List<WriteRequest>> chunk = pending;
+                BatchWriteItemResponse response = client.batchWriteItem(r -> r.requestItems(chunk));
+                pending = response.hasUnprocessedItems() ? response.unprocessedItems() : Map.of();
+            }
+        }
+    }
+
+    /**
+     * Writes groups of requests that belong together, such as an item and its marker in
+     * another table. A group never spans two BatchWriteItem calls, and groups are written in
+     * order. If a call fails, the failure is rethrown as a {@link PartialWriteException} naming
+     * the groups that may not have been written in full; every other group was.
+     */
+    public static void batchWriteGroups(DynamoDbClient client, List<Map<String, List<WriteRequest>>> groups) {
+        int from = 0;
+        while (from < groups.size()) {
+            // Pack whole groups into the next call
+            Map<String, List<WriteRequest>> pending = new HashMap<>();
+            Map<WriteRequest, Integer> groupOf = new HashMap<>();
+            int to = from;
+            int size = 0;
+            while (to < groups.size()) {
+                int groupSize = groups.get(to).values().stream().mapToInt(List::size).sum();
+                if (groupSize > MAX_WRITE_BATCH) {
+                    throw new IllegalArgumentException("Write group " + to + " has " + groupSize
+                            + " requests; at most " + MAX_WRITE_BATCH + " fit in one BatchWriteItem");
+                }
+                if (size + groupSize > MAX_WRITE_BATCH) {
+                    break;
+                }
+                for (Map.Entry<String, List<WriteRequest>> table : groups.get(to).entrySet()) {
+                    for (WriteRequest request : table.getValue()) {
+                        pending.computeIfAbsent(table.getKey(), t -> new ArrayList<>()).add(request);
+                        groupOf.put(request, to);
+                    }
+                }
+                size += groupSize;
+                to++;
+            }
+
+            try {
+                for (int attempt = 0; !pending.isEmpty(); attempt++) {
+                    if (attempt > 0) {
+                        backoff(attempt, "BatchWriteItem", pending.keySet().toString());
+                    }
+                    Map<String, List<WriteRequest>> chunk = pending;
+                    BatchWriteItemResponse response = client.batchWriteItem(r -> r.requestItems(chunk));
+                    pending = response.hasUnprocessedItems() ? response.unprocessedItems() : Map.of();
+                }
+            } catch (RuntimeException e) {
+                // Groups of this call with nothing left pending made it; later groups were never sent
+                BitSet unwritten = new BitSet();
+                for (List<WriteRequest> requests : pending.values()) {
+                    for (WriteRequest request : requests) {
+                        Integer group = groupOf.get(request);
+                        if (group == null) {
+                            unwritten.set(from, to);
+                        } else {
+                            unwritten.set(group);
+                        }
+                    }
+                }
+                unwritten.set(to, groups.size());
+                throw new PartialWriteException(unwritten, e);
+            }
+            from = to;
+        }
+    }
+
+    /**
+     * A grouped batch write stopped part way. The groups in {@link #getUnwrittenGroups()} may
+     * be missing some or all of their items; all other groups were written in full.
+     */
+    public static class PartialWriteException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final BitSet unwrittenGroups;
+
+        public PartialWriteException(BitSet unwrittenGroups, Throwable cause) {
+            super("Batch write stopped with " + unwrittenGroups.cardinality() + " groups not written", cause);
+            this.unwrittenGroups = (BitSet) unwrittenGroups.clone();
+        }
+
+        public BitSet getUnwrittenGroups() {
+            return (BitSet) unwrittenGroups.clone();
+        }
+    }
+
+    private static void backoff(int attempt, String operation, String tableName) {
+        if (attempt >= MAX_ATTEMPTS) {
+            throw new IllegalStateException(operation + " on " + tableName
+                    + " still has unprocessed entries after " + MAX_ATTEMPTS + " attempts");
+        }
+        long ceiling = Math.min(MAX_BACKOFF_MILLIS, BASE_BACKOFF_MILLIS << Math.min(attempt, 16));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(operation + " interrupted while retrying", e);
+        }
+    }
+}
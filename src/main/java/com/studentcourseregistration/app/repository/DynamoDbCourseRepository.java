@@ -2,28 +2,45 @@ package com.studentcourseregistration.app.repository;
 
 import com.studentcourseregistration.app.config.DynamoDbConfig;
 import com.studentcourseregistration.app.model.Course;
+import com.studentcourseregistration.app.model.CourseSummary;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
 import software.amazon.awssdk.enhanced.dynamodb.Key;
 import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
 import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.ResourceNotFoundException;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class DynamoDbCourseRepository {
     private final DynamoDbTable<Course> courseTable;
+    // The same table read through the listing view, projected to its attributes
+    private final DynamoDbTable<CourseSummary> summaryTable;
+    private final List<String> summaryAttributes;
+    private final DynamoDbClient dynamoDbClient;
     
     public DynamoDbCourseRepository() {
         DynamoDbEnhancedClient enhancedClient = DynamoDbConfig.getEnhancedClient();
         this.courseTable = enhancedClient.table("Courses", TableSchema.fromBean(Course.class));
+        this.summaryTable = enhancedClient.table("Courses", TableSchema.fromBean(CourseSummary.class));
+        this.summaryAttributes = summaryTable.tableSchema().attributeNames();
+        this.dynamoDbClient = DynamoDbConfig.getDynamoDbClient();
     }
     
+    /**
+     * Versioned put: fails with ConditionalCheckFailedException if the stored course has moved
+     * past the version this one was read at.
+     */
     public Course save(Course course) {
         courseTable.putItem(course);
+        course.setVersion(OptimisticLocking.nextVersion(course.getVersion()));
         return course;
     }
     
@@ -36,6 +53,15 @@ public class DynamoDbCourseRepository {
         }
     }
     
+    /**
+     * Loads several courses with BatchGetItem (100 keys per call) instead of one GetItem each.
+     * Results follow the order of the ids; missing ids are skipped.
+     */
+    public List<Course> findAllByIds(Collection<String> courseIds) {
+        return DynamoDbBatchSupport.batchGetByIds(dynamoDbClient, "Courses", "courseId",
+                courseTable.tableSchema(), Course::getCourseId, courseIds, false);
+    }
+    
     public Optional<Course> findByCourseCode(String courseCode) {
         try {
             return courseTable.index("course-code-index")
@@ -49,21 +75,73 @@ public class DynamoDbCourseRepository {
     }
     
     public List<Course> findByDepartment(String department) {
-        try {
-            return courseTable.index("department-index")
-                    .query(QueryConditional.keyEqualTo(Key.builder().partitionValue(department).build()))
-                    .stream()
-                    .flatMap(page -> page.items().stream())
-                    .collect(Collectors.toList());
+        try (Stream<Course> courses = streamByDepartment(department)) {
+            return courses.collect(Collectors.toList());
         } catch (Exception e) {
             return new ArrayList<>();
         }
     }
     
+    /**
+     * The department's courses, queried from department-index one page at a time as the
+     * stream is consumed.
+     */
+    public Stream<Course> streamByDepartment(String department) {
+        return courseTable.index("department-index")
+                .query(QueryConditional.keyEqualTo(Key.builder().partitionValue(department).build()))
+                .stream()
+                .flatMap(page -> page.items().stream());
+    }
+    
+    public Page<Course> findByDepartment(String department, int limit, String cursor) {
+        return DynamoDbPaging.query(courseTable, "department-index",
+                QueryConditional.keyEqualTo(Key.builder().partitionValue(department).build()), null, limit, cursor);
+    }
+    
+    /**
+     * Scans the whole table, in parallel segments once it is large enough to benefit.
+     */
     public List<Course> findAll() {
-        List<Course> courses = new ArrayList<>();
-        courseTable.scan().items().forEach(courses::add);
-        return courses;
+        return DynamoDbParallelScan.toList(courseTable, DynamoDbParallelScan.segmentsFor(dynamoDbClient, "Courses"));
+    }
+    
+    /**
+     * Lazily pages through the whole table: each scan page is requested only when the stream
+     * reaches it, so memory stays at one page whatever the table size. Sequential, unlike
+     * {@link #findAll()}; close it (try-with-resources) when done.
+     */
+    public Stream<Course> streamAll() {
+        return courseTable.scan().items().stream();
+    }
+    
+    /**
+     * Streams the whole table into the sink from {@code segments} parallel scan segments.
+     * The sink must be thread-safe.
+     */
+    public void scanAll(int segments, Consumer<? super Course> sink) {
+        DynamoDbParallelScan.forEach(courseTable, segments, sink);
+    }
+    
+    /**
+     * One page of a table scan, in DynamoDB's scan order.
+     */
+    public Page<Course> findAll(int limit, String cursor) {
+        return DynamoDbPaging.scan(courseTable, limit, cursor);
+    }
+    
+    /**
+     * One page of listing summaries. The filter runs server-side and only summary attributes
+     * are read, so skipped courses and unused fields never cross the network. A department
+     * filter queries department-index instead of scanning. Pass the same filter with every
+     * cursor; DynamoDB's scan order is arbitrary.
+     */
+    public Page<CourseSummary> findSummaries(CourseFilter filter, int limit, String cursor) {
+        if (filter.getDepartment() != null) {
+            return DynamoDbPaging.query(summaryTable, "department-index",
+                    QueryConditional.keyEqualTo(Key.builder().partitionValue(filter.getDepartment()).build()),
+                    filter.toExpression(false), summaryAttributes, limit, cursor);
+        }
+        return DynamoDbPaging.scan(summaryTable, filter.toExpression(true), summaryAttributes, limit, cursor);
     }
     
     public List<Course> searchCourses(String searchTerm) {
@@ -0,0 +1,150 @@
+package com.studentcourseregistration.app.repository;
+
+import software.amazon.awssdk.core.pagination.sync.SdkIterable;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Expression;
+import software.amazon.awssdk.enhanced.dynamodb.TableMetadata;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.ScanEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.BiFunction;
+
+/**
+ * Maps {@link Page} cursors onto DynamoDB's {@code ExclusiveStartKey} / {@code LastEvaluatedKey}.
+ * With a filter, DynamoDB's limit counts items read rather than items matched, so a page is
+ * topped up with further reads until it is full or the listing ends. When a read returns more
+ * matches than fit, the cursor is built from the key of the last item kept, which DynamoDB
+ * accepts as a start key just like one it returned itself.
+ */
+public final class DynamoDbPaging {
+    private static final String STRING = "S";
+    private static final String NUMBER = "N";
+
+    private DynamoDbPaging() {
+    }
+
+    public static <T> Page<T> scan(DynamoDbTable<T> table, int limit, String cursor) {
+        return scan(table, null, null, limit, cursor);
+    }
+
+    /**
+     * @param filter     evaluated by DynamoDB before items are returned, or null
+     * @param attributes the only attributes to read, or null for all; must include the table key
+     */
+    public static <T> Page<T> scan(DynamoDbTable<T> table, Expression filter, Collection<String> attributes,
+                                   int limit, String cursor) {
+        return fill(table, null, limit, cursor, (readLimit, startKey) -> table.scan(ScanEnhancedRequest.builder()
+                .filterExpression(filter)
+                .attributesToProject(attributes)
+                .limit(readLimit)
+                .exclusiveStartKey(startKey)
+                .build()));
+    }
+
+    /**
+     * Queries the table, or one of its secondary indexes when {@code indexName} is set.
+     *
+     * @param filter applied after the key condition, or null
+     */
+    public static <T> Page<T> query(DynamoDbTable<T> table, String indexName, QueryConditional condition,
+                                   Expression filter, int limit, String cursor) {
+        return query(table, indexName, condition, filter, null, limit, cursor);
+    }
+
+    /**
+     * @param attributes the only attributes to read, or null for all; must include the table
+     *                   and index keys
+     */
+    public static <T> Page<T> query(DynamoDbTable<T> table, String indexName, QueryConditional condition,
+                                   Expression filter, Collection<String> attributes, int limit, String cursor) {
+        QueryEnhancedRequest.Builder request = QueryEnhancedRequest.builder()
+                .queryConditional(condition)
+                .filterExpression(filter)
+                .attributesToProject(attributes);
+        return fill(table, indexName, limit, cursor, (readLimit, startKey) -> {
+            QueryEnhancedRequest query = request.limit(readLimit).exclusiveStartKey(startKey).build();
+            return indexName == null ? table.query(query) : table.index(indexName).query(query);
+        });
+    }
+
+    private static <T> Page<T> fill(DynamoDbTable<T> table, String indexName, int limit, String cursor,
+                                    BiFunction<Integer, Map<String, AttributeValue>,
+                                            SdkIterable<software.amazon.awssdk.enhanced.dynamodb.model.Page<T>>> read) {
+        Page.checkLimit(limit);
+        List<T> items = new ArrayList<>();
+        Map<String, AttributeValue> startKey = cursor == null ? null : decodeKey(cursor);
+        do {
+            software.amazon.awssdk.enhanced.dynamodb.model.Page<T> page = read.apply(limit, startKey).iterator().next();
+            startKey = page.lastEvaluatedKey() == null || page.lastEvaluatedKey().isEmpty()
+                    ? null : page.lastEvaluatedKey();
+            List<T> matched = page.items();
+            int room = limit - items.size();
+            if (matched.size() > room) {
+                items.addAll(matched.subList(0, room));
+                startKey = table.tableSchema().itemToMap(items.get(items.size() - 1), keyNames(table, indexName));
+            } else {
+                items.addAll(matched);
+            }
+        } while (startKey != null && items.size() < limit);
+        return new Page<>(items, startKey == null ? null : encodeKey(startKey));
+    }
+
+    // A start key for an index needs the index key and the table key
+    private static Set<String> keyNames(DynamoDbTable<?> table, String indexName) {
+        TableMetadata metadata = table.tableSchema().tableMetadata();
+        Set<String> names = new LinkedHashSet<>(metadata.primaryKeys());
+        if (indexName != null) {
+            names.addAll(metadata.indexKeys(indexName));
+        }
+        return names;
+    }
+
+    // Key attributes of our tables and indexes are all strings or numbers
+    private static String encodeKey(Map<String, AttributeValue> key) {
+        List<String> parts = new ArrayList<>();
+        for (Map.Entry<String, AttributeValue> attribute : new TreeMap<>(key).entrySet()) {
+            AttributeValue value = attribute.getValue();
+            parts.add(attribute.getKey());
+            if (value.s() != null) {
+                parts.add(STRING);
+                parts.add(value.s());
+            } else if (value.n() != null) {
+                parts.add(NUMBER);
+                parts.add(value.n());
+            } else {
+                throw new IllegalStateException("Unsupported key attribute type: " + attribute.getKey());
+            }
+        }
+        return Page.encodeCursor(parts);
+    }
+
+    private static Map<String, AttributeValue> decodeKey(String cursor) {
+        List<String> parts = Page.decodeCursor(cursor);
+        if (parts.isEmpty() || parts.size() % 3 != 0) {
+            throw new IllegalArgumentException("Invalid page cursor");
+        }
+        Map<String, AttributeValue> key = new HashMap<>();
+        for (int i = 0; i < parts.size(); i += 3) {
+            String type = parts.get(i + 1);
+            String value = parts.get(i + 2);
+            if (STRING.equals(type)) {
+                key.put(parts.get(i), AttributeValue.builder().s(value).build());
+            } else if (NUMBER.equals(type)) {
+                key.put(parts.get(i), AttributeValue.builder().n(value).build());
+            } else {
+                throw new IllegalArgumentException("Invalid page cursor");
+            }
+        }
+        return key;
+    }
+}
@@ -0,0 +1,139 @@
+package com.studentcourseregistration.app.repository;
+
+import com.studentcourseregistration.app.config.DynamoDbConfig;
+import com.studentcourseregistration.app.config.DynamoDbSettings;
+import com.studentcourseregistration.app.util.LruCache;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.model.ScanEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.TableDescription;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Full-table scans split into DynamoDB scan segments ({@code Segment} / {@code TotalSegments})
+ * that are read in parallel, each over its own connection. The segment count comes from the
+ * dynamodb.scan.segments setting (see {@link DynamoDbSettings}), or else from the table's
+ * size, at one segment per {@link #BYTES_PER_SEGMENT}.
+ *
+ * Segments run on a shared pool of {@link #MAX_SEGMENTS} daemon threads; when several
+ * scans overlap, their segments queue for it. If any segment fails, the others stop at
+ * their next page and the failure is rethrown to the caller.
+ */
+public final class DynamoDbParallelScan {
+    public static final int MAX_SEGMENTS = 16;
+    public static final long BYTES_PER_SEGMENT = 64L * 1024 * 1024;
+
+    // DynamoDB itself only refreshes the reported size every few hours
+    private static final Duration SEGMENT_COUNT_TTL = Duration.ofMinutes(30);
+    private static final LruCache<String, Integer> SEGMENT_COUNTS = new LruCache<>(64, SEGMENT_COUNT_TTL);
+
+    private DynamoDbParallelScan() {
+    }
+
+    private static final class Holder {
+        private static final ExecutorService EXECUTOR = newExecutor();
+    }
+
+    /**
+     * The configured segment count, or one sized to the table from DescribeTable. DynamoDB
+     * refreshes the table size only every few hours, so new tables start at one segment.
+     * Sized counts are cached per table for {@link #SEGMENT_COUNT_TTL}, so repeated scans
+     * do not each pay for a DescribeTable call.
+     */
+    public static int segmentsFor(DynamoDbClient client, String tableName) {
+        Integer configured = DynamoDbConfig.getSettings().getScanSegments();
+        if (configured != null) {
+            return checkSegments(configured);
+        }
+        return SEGMENT_COUNTS.get(tableName, name -> {
+            TableDescription table = client.describeTable(r -> r.tableName(name)).table();
+            long bytes = table.tableSizeBytes() == null ? 0 : table.tableSizeBytes();
+            return (int) Math.max(1, Math.min(MAX_SEGMENTS, (bytes + BYTES_PER_SEGMENT - 1) / BYTES_PER_SEGMENT));
+        });
+    }
+
+    /**
+     * Hands every item to the sink. The sink is called from several scanning threads at once
+     * and must be thread-safe; items arrive in no particular order.
+     */
+    public static <T> void forEach(DynamoDbTable<T> table, int segments, Consumer<? super T> sink) {
+        checkSegments(segments);
+        if (segments == 1) {
+            table.scan().items().forEach(sink);
+            return;
+        }
+        AtomicBoolean failed = new AtomicBoolean();
+        CompletableFuture<?>[] scans = new CompletableFuture<?>[segments];
+        for (int segment = 0; segment < segments; segment++) {
+            ScanEnhancedRequest request = ScanEnhancedRequest.builder()
+                    .segment(segment)
+                    .totalSegments(segments)
+                    .build();
+            scans[segment] = CompletableFuture.runAsync(() -> {
+                try {
+                    for (software.amazon.awssdk.enhanced.dynamodb.model.Page<T> page : table.scan(request)) {
+                        if (failed.get()) {
+                            return;
+                        }
+                        page.items().forEach(sink);
+                    }
+                } catch (RuntimeException e) {
+                    failed.set(true);
+                    throw e;
+                }
+            }, Holder.EXECUTOR);
+        }
+        try {
+            CompletableFuture.allOf(scans).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    public static <T> List<T> toList(DynamoDbTable<T> table, int segments) {
+        ConcurrentLinkedQueue<T> items = new ConcurrentLinkedQueue<>();
+        forEach(table, segments, items::add);
+        return new ArrayList<>(items);
+    }
+
+    private static int checkSegments(int segments) {
+        if (segments < 1 || segments > MAX_SEGMENTS) {
+            throw new IllegalArgumentException("Scan segments must be between 1 and " + MAX_SEGMENTS);
+        }
+        return segments;
+    }
+
+    // Idle threads exit, so the pool costs nothing between scans
+    private static ExecutorService newExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(MAX_SEGMENTS, MAX_SEGMENTS,
+                30L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), daemonThreads());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static ThreadFactory daemonThreads() {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "dynamodb-scan-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -1,29 +1,46 @@
 package com.studentcourseregistration.app.repository;
 
 import com.studentcourseregistration.app.config.DynamoDbConfig;
+import com.studentcourseregistration.app.model.Enrollment;
 import com.studentcourseregistration.app.model.Registration;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Expression;
 import software.amazon.awssdk.enhanced.dynamodb.Key;
 import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
 import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
 import software.amazon.awssdk.services.dynamodb.model.ResourceNotFoundException;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class DynamoDbRegistrationRepository {
     private final DynamoDbTable<Registration> registrationTable;
+    private final DynamoDbTable<Enrollment> enrollmentTable;
+    private final DynamoDbClient dynamoDbClient;
     
     public DynamoDbRegistrationRepository() {
         DynamoDbEnhancedClient enhancedClient = DynamoDbConfig.getEnhancedClient();
+        this.dynamoDbClient = DynamoDbConfig.getDynamoDbClient();
         this.registrationTable = enhancedClient.table("Registrations", TableSchema.fromBean(Registration.class));
+        this.enrollmentTable = enhancedClient.table("Enrollments", TableSchema.fromBean(Enrollment.class));
     }
     
+    /**
+     * Versioned put: fails with ConditionalCheckFailedException if the stored registration has moved
+     * past the version this one was read at.
+     */
     public Registration save(Registration registration) {
         registrationTable.putItem(registration);
+        registration.setVersion(OptimisticLocking.nextVersion(registration.getVersion()));
         return registration;
     }
     
@@ -37,36 +54,126 @@ public class DynamoDbRegistrationRepository {
     }
     
     public List<Registration> findByStudentId(String studentId) {
-        try {
-            return registrationTable.index("student-index")
-                    .query(QueryConditional.keyEqualTo(Key.builder().partitionValue(studentId).build()))
-                    .stream()
-                    .flatMap(page -> page.items().stream())
-                    .collect(Collectors.toList());
+        try (Stream<Registration> registrations = streamByStudentId(studentId)) {
+            return registrations.collect(Collectors.toList());
         } catch (Exception e) {
             return new ArrayList<>();
         }
     }
     
+    /**
+     * The student's registrations, queried from student-index one page at a time as the stream
+     * is consumed.
+     */
+    public Stream<Registration> streamByStudentId(String studentId) {
+        return registrationTable.index("student-index")
+                .query(QueryConditional.keyEqualTo(Key.builder().partitionValue(studentId).build()))
+                .stream()
+                .flatMap(page -> page.items().stream());
+    }
+    
     public List<Registration> findByCourseId(String courseId) {
-        try {
-            return registrationTable.index("course-index")
-                    .query(QueryConditional.keyEqualTo(Key.builder().partitionValue(courseId).build()))
-                    .stream()
-                    .flatMap(page -> page.items().stream())
-                    .collect(Collectors.toList());
+        try (Stream<Registration> registrations = streamByCourseId(courseId)) {
+            return registrations.collect(Collectors.toList());
         } catch (Exception e) {
             return new ArrayList<>();
         }
     }
     
+    /**
+     * The course's registrations, queried from course-index one page at a time as the stream
+     * is consumed.
+     */
+    public Stream<Registration> streamByCourseId(String courseId) {
+        return registrationTable.index("course-index")
+                .query(QueryConditional.keyEqualTo(Key.builder().partitionValue(courseId).build()))
+                .stream()
+                .flatMap(page -> page.items().stream());
+    }
+    
+    public Page<Registration> findByCourseId(String courseId, int limit, String cursor) {
+        return DynamoDbPaging.query(registrationTable, "course-index",
+                QueryConditional.keyEqualTo(Key.builder().partitionValue(courseId).build()), null, limit, cursor);
+    }
+    
+    /**
+     * Scans the whole table, in parallel segments once it is large enough to benefit.
+     */
     public List<Registration> findAll() {
-        List<Registration> registrations = new ArrayList<>();
-        registrationTable.scan().items().forEach(registrations::add);
-        return registrations;
+        return DynamoDbParallelScan.toList(registrationTable, DynamoDbParallelScan.segmentsFor(dynamoDbClient, "Registrations"));
+    }
+    
+    /**
+     * Lazily pages through the whole table: each scan page is requested only when the stream
+     * reaches it, so memory stays at one page whatever the table size. Sequential, unlike
+     * {@link #findAll()}; close it (try-with-resources) when done.
+     */
+    public Stream<Registration> streamAll() {
+        return registrationTable.scan().items().stream();
+    }
+    
+    /**
+     * Streams the whole table into the sink from {@code segments} parallel scan segments.
+     * The sink must be thread-safe.
+     */
+    public void scanAll(int segments, Consumer<? super Registration> sink) {
+        DynamoDbParallelScan.forEach(registrationTable, segments, sink);
+    }
+    
+    /**
+     * One page of a table scan, in DynamoDB's scan order.
+     */
+    public Page<Registration> findAll(int limit, String cursor) {
+        return DynamoDbPaging.scan(registrationTable, limit, cursor);
     }
     
     public void delete(String registrationId) {
         registrationTable.deleteItem(Key.builder().partitionValue(registrationId).build());
     }
+    
+    public Enrollment saveEnrollment(Registration registration) {
+        Enrollment enrollment = new Enrollment();
+        enrollment.setEnrollmentKey(Enrollment.keyFor(registration.getStudentId(), registration.getCourseId()));
+        enrollment.setRegistrationId(registration.getRegistrationId());
+        enrollment.setStudentId(registration.getStudentId());
+        enrollment.setCourseId(registration.getCourseId());
+        enrollmentTable.putItem(enrollment);
+        return enrollment;
+    }
+    
+    /**
+     * Writes the marker for the registration unless another registration holds the pair.
+     * Returns false in that case; claiming a marker the registration already holds succeeds.
+     */
+    public boolean claimEnrollment(Registration registration) {
+        Enrollment enrollment = new Enrollment();
+        enrollment.setEnrollmentKey(Enrollment.keyFor(registration.getStudentId(), registration.getCourseId()));
+        enrollment.setRegistrationId(registration.getRegistrationId());
+        enrollment.setStudentId(registration.getStudentId());
+        enrollment.setCourseId(registration.getCourseId());
+        try {
+            enrollmentTable.putItem(r -> r.item(enrollment).conditionExpression(Expression.builder()
+                    .expression("attribute_not_exists(enrollmentKey) OR registrationId = :registrationId")
+                    .expressionValues(Map.of(":registrationId",
+                            AttributeValue.builder().s(registration.getRegistrationId()).build()))
+                    .build()));
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        }
+    }
+    
+    public Optional<Registration> findActiveRegistration(String studentId, String courseId) {
+        Enrollment enrollment = enrollmentTable.getItem(
+                Key.builder().partitionValue(Enrollment.keyFor(studentId, courseId)).build());
+        if (enrollment == null) {
+            return Optional.empty();
+        }
+        return findById(enrollment.getRegistrationId())
+                .filter(reg -> "ENROLLED".equals(reg.getStatus()));
+    }
+    
+    public void deleteEnrollment(String studentId, String courseId) {
+        enrollmentTable.deleteItem(Key.builder().partitionValue(Enrollment.keyFor(studentId, courseId)).build());
+    }
 }
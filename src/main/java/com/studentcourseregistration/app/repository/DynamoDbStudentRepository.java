@@ -2,30 +2,79 @@ package com.studentcourseregistration.app.repository;
 
 import com.studentcourseregistration.app.config.DynamoDbConfig;
 import com.studentcourseregistration.app.model.Student;
+import com.studentcourseregistration.app.model.UniqueConstraint;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Expression;
 import software.amazon.awssdk.enhanced.dynamodb.Key;
 import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
 import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
 import software.amazon.awssdk.services.dynamodb.model.ResourceNotFoundException;
 
-import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public class DynamoDbStudentRepository {
     private final DynamoDbTable<Student> studentTable;
+    private final DynamoDbTable<UniqueConstraint> constraintTable;
+    private final DynamoDbClient dynamoDbClient;
     
     public DynamoDbStudentRepository() {
         DynamoDbEnhancedClient enhancedClient = DynamoDbConfig.getEnhancedClient();
         this.studentTable = enhancedClient.table("Students", TableSchema.fromBean(Student.class));
+        this.constraintTable = enhancedClient.table("UniqueConstraints", TableSchema.fromBean(UniqueConstraint.class));
+        this.dynamoDbClient = DynamoDbConfig.getDynamoDbClient();
     }
     
+    /**
+     * Versioned put: fails with ConditionalCheckFailedException if the stored student has moved
+     * past the version this one was read at.
+     */
     public Student save(Student student) {
         studentTable.putItem(student);
+        student.setVersion(OptimisticLocking.nextVersion(student.getVersion()));
         return student;
     }
     
+    /**
+     * Claims the student's username and email so later signups see them as taken.
+     */
+    public void saveUniqueConstraints(Student student) {
+        for (String key : List.of(UniqueConstraint.usernameKey(student.getUsername()),
+                                  UniqueConstraint.emailKey(student.getEmail()))) {
+            UniqueConstraint constraint = new UniqueConstraint();
+            constraint.setConstraintKey(key);
+            constraint.setStudentId(student.getStudentId());
+            constraintTable.putItem(constraint);
+        }
+    }
+    
+    /**
+     * Claims one username or email marker for the student unless another student holds it.
+     * Returns false in that case; claiming a marker the student already holds succeeds.
+     */
+    public boolean claimUniqueConstraint(String constraintKey, String studentId) {
+        UniqueConstraint constraint = new UniqueConstraint();
+        constraint.setConstraintKey(constraintKey);
+        constraint.setStudentId(studentId);
+        try {
+            constraintTable.putItem(r -> r.item(constraint).conditionExpression(Expression.builder()
+                    .expression("attribute_not_exists(constraintKey) OR studentId = :studentId")
+                    .expressionValues(Map.of(":studentId", AttributeValue.builder().s(studentId).build()))
+                    .build()));
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        }
+    }
+    
     public Optional<Student> findById(String studentId) {
         try {
             Student student = studentTable.getItem(Key.builder().partitionValue(studentId).build());
@@ -35,6 +84,15 @@ public class DynamoDbStudentRepository {
         }
     }
     
+    /**
+     * Loads several students with BatchGetItem (100 keys per call) instead of one GetItem each.
+     * Results follow the order of the ids; missing ids are skipped.
+     */
+    public List<Student> findAllByIds(Collection<String> studentIds) {
+        return DynamoDbBatchSupport.batchGetByIds(dynamoDbClient, "Students", "studentId",
+                studentTable.tableSchema(), Student::getStudentId, studentIds, false);
+    }
+    
     public Optional<Student> findByUsername(String username) {
         try {
             return studentTable.index("username-index")
@@ -59,10 +117,35 @@ public class DynamoDbStudentRepository {
         }
     }
     
+    /**
+     * Scans the whole table, in parallel segments once it is large enough to benefit.
+     */
     public List<Student> findAll() {
-        List<Student> students = new ArrayList<>();
-        studentTable.scan().items().forEach(students::add);
-        return students;
+        return DynamoDbParallelScan.toList(studentTable, DynamoDbParallelScan.segmentsFor(dynamoDbClient, "Students"));
+    }
+    
+    /**
+     * Lazily pages through the whole table: each scan page is requested only when the stream
+     * reaches it, so memory stays at one page whatever the table size. Sequential, unlike
+     * {@link #findAll()}; close it (try-with-resources) when done.
+     */
+    public Stream<Student> streamAll() {
+        return studentTable.scan().items().stream();
+    }
+    
+    /**
+     * Streams the whole table into the sink from {@code segments} parallel scan segments.
+     * The sink must be thread-safe.
+     */
+    public void scanAll(int segments, Consumer<? super Student> sink) {
+        DynamoDbParallelScan.forEach(studentTable, segments, sink);
+    }
+    
+    /**
+     * One page of a table scan, in DynamoDB's scan order.
+     */
+    public Page<Student> findAll(int limit, String cursor) {
+        return DynamoDbPaging.scan(studentTable, limit, cursor);
     }
     
     public void delete(String studentId) {
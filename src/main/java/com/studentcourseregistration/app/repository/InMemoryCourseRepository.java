@@ -2,10 +2,13 @@ package com.studentcourseregistration.app.repository;
 
 import com.studentcourseregistration.app.model.Course;
 import java.util.*;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class InMemoryCourseRepository {
-    private final Map<String, Course> coursesById = new HashMap<>();
+    // Sorted by id, so a page cursor is simply the last id returned
+    private final NavigableMap<String, Course> coursesById = new TreeMap<>();
     private final Map<String, Course> coursesByCode = new HashMap<>();
 
     public void save(Course course) {
@@ -17,20 +20,47 @@ public class InMemoryCourseRepository {
         return Optional.ofNullable(coursesById.get(courseId));
     }
 
+    public List<Course> findAllByIds(Collection<String> courseIds) {
+        return courseIds.stream()
+                .distinct()
+                .map(coursesById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
     public Optional<Course> findByCourseCode(String courseCode) {
         return Optional.ofNullable(coursesByCode.get(courseCode));
     }
 
     public List<Course> findByDepartment(String department) {
+        return streamByDepartment(department).collect(Collectors.toList());
+    }
+
+    public Stream<Course> streamByDepartment(String department) {
         return coursesById.values().stream()
-                .filter(course -> department.equals(course.getDepartment()))
-                .collect(Collectors.toList());
+                .filter(course -> department.equals(course.getDepartment()));
+    }
+
+    public Page<Course> findByDepartment(String department, int limit, String cursor) {
+        return page(course -> department.equals(course.getDepartment()), limit, cursor);
     }
 
     public List<Course> findAll() {
         return new ArrayList<>(coursesById.values());
     }
 
+    /**
+     * Streams the stored courses in id order without copying them. Like the rest of this
+     * repository, not safe against concurrent saves.
+     */
+    public Stream<Course> streamAll() {
+        return coursesById.values().stream();
+    }
+
+    public Page<Course> findAll(int limit, String cursor) {
+        return page(course -> true, limit, cursor);
+    }
+
     public List<Course> searchCourses(String searchTerm) {
         String lowerSearchTerm = searchTerm.toLowerCase();
         return coursesById.values().stream()
@@ -54,4 +84,29 @@ public class InMemoryCourseRepository {
         coursesById.clear();
         coursesByCode.clear();
     }
+
+    private Page<Course> page(Predicate<Course> matches, int limit, String cursor) {
+        Page.checkLimit(limit);
+        Map<String, Course> remaining = cursor == null ? coursesById
+                : coursesById.tailMap(lastId(cursor), false);
+        List<Course> items = new ArrayList<>();
+        for (Course course : remaining.values()) {
+            if (!matches.test(course)) {
+                continue;
+            }
+            if (items.size() == limit) {
+                return new Page<>(items, Page.encodeCursor(List.of(items.get(limit - 1).getCourseId())));
+            }
+            items.add(course);
+        }
+        return new Page<>(items, null);
+    }
+
+    private static String lastId(String cursor) {
+        List<String> parts = Page.decodeCursor(cursor);
+        if (parts.size() != 1) {
+            throw new IllegalArgumentException("Invalid page cursor");
+        }
+        return parts.get(0);
+    }
 }
\ No newline at end of file
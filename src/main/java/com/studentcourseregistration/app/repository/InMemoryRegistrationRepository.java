@@ -2,56 +2,368 @@ package com.studentcourseregistration.app.repository;
 
 import com.studentcourseregistration.app.model.Registration;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+/**
+ * Thread-safe registration store with secondary indexes by student, course and
+ * (student, course, status). Writers are serialized per student through striped
+ * locks; readers are lock-free and only touch the index entries they return. Index
+ * entries are sorted by registration id, which makes them resumable page cursors.
+ * Waitlisted registrations carry a per-course FIFO position.
+ */
 public class InMemoryRegistrationRepository {
-    private final Map<String, Registration> registrationsById = new HashMap<>();
+    private static final String ENROLLED = "ENROLLED";
+    private static final String WAITLISTED = "WAITLISTED";
+    private static final String DROPPED = "DROPPED";
+    private static final int LOCK_STRIPES = 64;
+
+    private final Map<String, IndexedRegistration> registrationsById = new ConcurrentHashMap<>();
+    private final Map<String, NavigableSet<String>> idsByStudent = new ConcurrentHashMap<>();
+    private final Map<String, NavigableSet<String>> idsByCourse = new ConcurrentHashMap<>();
+    private final Map<String, NavigableSet<String>> idsByStudentStatus = new ConcurrentHashMap<>();
+    private final Map<String, NavigableSet<String>> idsByCourseStatus = new ConcurrentHashMap<>();
+    private final Map<String, NavigableSet<String>> idsByStudentCourseStatus = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> waitlistSequences = new ConcurrentHashMap<>();
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    public InMemoryRegistrationRepository() {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
 
     public void save(Registration registration) {
-        registrationsById.put(registration.getRegistrationId(), registration);
+        synchronized (lockFor(registration.getStudentId())) {
+            put(registration);
+        }
+    }
+
+    /**
+     * Saves the registration unless the student already has an ENROLLED or WAITLISTED
+     * registration for the same course. The check and the write are atomic.
+     */
+    public boolean saveIfAbsent(Registration registration) {
+        synchronized (lockFor(registration.getStudentId())) {
+            if (holdsCourse(registration.getStudentId(), registration.getCourseId())) {
+                return false;
+            }
+            put(registration);
+            return true;
+        }
+    }
+
+    /**
+     * Adds the registration to the end of its course's waitlist unless the student already
+     * holds the course. Positions come from a per-course sequence, so gaps are possible.
+     */
+    public boolean saveWaitlisted(Registration registration) {
+        synchronized (lockFor(registration.getStudentId())) {
+            if (holdsCourse(registration.getStudentId(), registration.getCourseId())) {
+                return false;
+            }
+            registration.setStatus(WAITLISTED);
+            registration.setWaitlistCourseId(registration.getCourseId());
+            registration.setWaitlistPosition(waitlistSequences
+                    .computeIfAbsent(registration.getCourseId(), id -> new AtomicLong())
+                    .incrementAndGet());
+            put(registration);
+            return true;
+        }
     }
 
     public Optional<Registration> findById(String registrationId) {
-        return Optional.ofNullable(registrationsById.get(registrationId));
+        IndexedRegistration entry = registrationsById.get(registrationId);
+        return entry == null ? Optional.empty() : Optional.of(entry.registration);
     }
 
     public List<Registration> findByStudentId(String studentId) {
-        return registrationsById.values().stream()
-                .filter(reg -> studentId.equals(reg.getStudentId()))
-                .collect(Collectors.toList());
+        return lookup(idsByStudent, studentId, entry -> studentId.equals(entry.studentId));
     }
 
     public List<Registration> findByCourseId(String courseId) {
-        return registrationsById.values().stream()
-                .filter(reg -> courseId.equals(reg.getCourseId()))
-                .collect(Collectors.toList());
+        return lookup(idsByCourse, courseId, entry -> courseId.equals(entry.courseId));
+    }
+
+    /**
+     * The course's registrations in id order, resolved from the index as the stream is
+     * consumed rather than copied up front. Registrations saved or dropped meanwhile may or
+     * may not be seen, but none is seen twice.
+     */
+    public Stream<Registration> streamByCourseId(String courseId) {
+        return lookupStream(idsByCourse, courseId, entry -> courseId.equals(entry.courseId));
+    }
+
+    public Stream<Registration> streamByStudentId(String studentId) {
+        return lookupStream(idsByStudent, studentId, entry -> studentId.equals(entry.studentId));
+    }
+
+    /**
+     * Every registration, in no particular order, read lazily like {@link #streamByCourseId}.
+     */
+    public Stream<Registration> streamAll() {
+        return registrationsById.values().stream().map(entry -> entry.registration);
+    }
+
+    public Page<Registration> findByCourseId(String courseId, int limit, String cursor) {
+        return lookupPage(idsByCourse, courseId, entry -> courseId.equals(entry.courseId), limit, cursor);
     }
 
     public List<Registration> findActiveByStudentId(String studentId) {
-        return findByStudentId(studentId).stream()
-                .filter(reg -> "ENROLLED".equals(reg.getStatus()))
-                .collect(Collectors.toList());
+        return lookup(idsByStudentStatus, key(studentId, ENROLLED),
+                entry -> studentId.equals(entry.studentId) && ENROLLED.equals(entry.status));
     }
 
     public List<Registration> findActiveByCourseId(String courseId) {
-        return findByCourseId(courseId).stream()
-                .filter(reg -> "ENROLLED".equals(reg.getStatus()))
-                .collect(Collectors.toList());
+        return lookup(idsByCourseStatus, key(courseId, ENROLLED),
+                entry -> courseId.equals(entry.courseId) && ENROLLED.equals(entry.status));
+    }
+
+    public Page<Registration> findActiveByCourseId(String courseId, int limit, String cursor) {
+        return lookupPage(idsByCourseStatus, key(courseId, ENROLLED),
+                entry -> courseId.equals(entry.courseId) && ENROLLED.equals(entry.status), limit, cursor);
     }
 
     public Optional<Registration> findActiveRegistration(String studentId, String courseId) {
-        return registrationsById.values().stream()
-                .filter(reg -> studentId.equals(reg.getStudentId()) && 
-                              courseId.equals(reg.getCourseId()) && 
-                              "ENROLLED".equals(reg.getStatus()))
-                .findFirst();
+        return findRegistration(studentId, courseId, ENROLLED);
+    }
+
+    public Optional<Registration> findWaitlistedRegistration(String studentId, String courseId) {
+        return findRegistration(studentId, courseId, WAITLISTED);
+    }
+
+    public List<Registration> findWaitlistedByStudentId(String studentId) {
+        return lookup(idsByStudentStatus, key(studentId, WAITLISTED),
+                entry -> studentId.equals(entry.studentId) && WAITLISTED.equals(entry.status));
+    }
+
+    /**
+     * Returns the course's waitlist in FIFO order.
+     */
+    public List<Registration> findWaitlistByCourseId(String courseId) {
+        List<Registration> waitlist = lookup(idsByCourseStatus, key(courseId, WAITLISTED),
+                entry -> courseId.equals(entry.courseId) && WAITLISTED.equals(entry.status));
+        waitlist.sort(Comparator.comparing(Registration::getWaitlistPosition));
+        return waitlist;
     }
 
     public void delete(String registrationId) {
-        registrationsById.remove(registrationId);
+        IndexedRegistration entry = registrationsById.get(registrationId);
+        if (entry == null) {
+            return;
+        }
+        synchronized (lockFor(entry.studentId)) {
+            IndexedRegistration current = registrationsById.remove(registrationId);
+            if (current != null) {
+                unindex(current);
+            }
+        }
     }
 
     public void clear() {
         registrationsById.clear();
+        idsByStudent.clear();
+        idsByCourse.clear();
+        idsByStudentStatus.clear();
+        idsByCourseStatus.clear();
+        idsByStudentCourseStatus.clear();
+        waitlistSequences.clear();
+    }
+
+    /**
+     * Atomically moves the student's ENROLLED registration for the course to DROPPED.
+     * Returns the dropped registration, or empty if there was none (e.g. a concurrent drop won).
+     */
+    public Optional<Registration> dropActiveRegistration(String studentId, String courseId, String droppedAt) {
+        return dropRegistration(studentId, courseId, ENROLLED, droppedAt);
+    }
+
+    /**
+     * Atomically moves the student's WAITLISTED registration for the course to DROPPED.
+     */
+    public Optional<Registration> leaveWaitlist(String studentId, String courseId, String droppedAt) {
+        return dropRegistration(studentId, courseId, WAITLISTED, droppedAt);
+    }
+
+    /**
+     * Moves the earliest waitlisted registration of the course that the predicate accepts to
+     * ENROLLED. Rejected entries stay waitlisted; an entry that changed status between the
+     * lookup and its student's lock is skipped for the next one. Callers own the seat
+     * accounting and must serialize promotions per course.
+     */
+    public Optional<Registration> promoteNextWaitlisted(String courseId, Predicate<Registration> eligible) {
+        for (Registration head : findWaitlistByCourseId(courseId)) {
+            if (!eligible.test(head)) {
+                continue;
+            }
+            synchronized (lockFor(head.getStudentId())) {
+                IndexedRegistration current = registrationsById.get(head.getRegistrationId());
+                if (current == null || !WAITLISTED.equals(current.status)) {
+                    continue;
+                }
+                head.setStatus(ENROLLED);
+                head.setWaitlistCourseId(null);
+                head.setWaitlistPosition(null);
+                put(head);
+                return Optional.of(head);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private Optional<Registration> findRegistration(String studentId, String courseId, String status) {
+        return lookupStream(idsByStudentCourseStatus, key(studentId, courseId, status),
+                entry -> studentId.equals(entry.studentId) && courseId.equals(entry.courseId)
+                        && status.equals(entry.status))
+                .findFirst();
+    }
+
+    // Caller must hold the lock for the student
+    private boolean holdsCourse(String studentId, String courseId) {
+        return findActiveRegistration(studentId, courseId).isPresent()
+                || findWaitlistedRegistration(studentId, courseId).isPresent();
+    }
+
+    private Optional<Registration> dropRegistration(String studentId, String courseId, String status,
+                                                    String droppedAt) {
+        synchronized (lockFor(studentId)) {
+            Optional<Registration> registration = findRegistration(studentId, courseId, status);
+            registration.ifPresent(reg -> {
+                reg.setStatus(DROPPED);
+                reg.setDroppedAt(droppedAt);
+                reg.setWaitlistCourseId(null);
+                reg.setWaitlistPosition(null);
+                put(reg);
+            });
+            return registration;
+        }
+    }
+
+    // Caller must hold the lock for the registration's student
+    private void put(Registration registration) {
+        IndexedRegistration current = new IndexedRegistration(registration);
+        IndexedRegistration previous = registrationsById.put(registration.getRegistrationId(), current);
+        if (previous != null && previous.hasSameKeys(current)) {
+            return;
+        }
+        if (previous != null) {
+            unindex(previous);
+        }
+        index(current);
+    }
+
+    private void index(IndexedRegistration entry) {
+        String id = entry.registration.getRegistrationId();
+        addToIndex(idsByStudent, entry.studentId, id);
+        addToIndex(idsByCourse, entry.courseId, id);
+        addToIndex(idsByStudentStatus, key(entry.studentId, entry.status), id);
+        addToIndex(idsByCourseStatus, key(entry.courseId, entry.status), id);
+        addToIndex(idsByStudentCourseStatus, key(entry.studentId, entry.courseId, entry.status), id);
+    }
+
+    private void unindex(IndexedRegistration entry) {
+        String id = entry.registration.getRegistrationId();
+        removeFromIndex(idsByStudent, entry.studentId, id);
+        removeFromIndex(idsByCourse, entry.courseId, id);
+        removeFromIndex(idsByStudentStatus, key(entry.studentId, entry.status), id);
+        removeFromIndex(idsByCourseStatus, key(entry.courseId, entry.status), id);
+        removeFromIndex(idsByStudentCourseStatus, key(entry.studentId, entry.courseId, entry.status), id);
+    }
+
+    private static void addToIndex(Map<String, NavigableSet<String>> index, String key, String id) {
+        index.compute(key, (k, ids) -> {
+            NavigableSet<String> result = ids != null ? ids : new ConcurrentSkipListSet<>();
+            result.add(id);
+            return result;
+        });
+    }
+
+    private static void removeFromIndex(Map<String, NavigableSet<String>> index, String key, String id) {
+        index.computeIfPresent(key, (k, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    // Index entries can briefly lag a concurrent re-save, so each hit is checked against the current entry
+    private List<Registration> lookup(Map<String, NavigableSet<String>> index, String key,
+                                      Predicate<IndexedRegistration> matches) {
+        return lookupStream(index, key, matches).collect(Collectors.toList());
+    }
+
+    private Stream<Registration> lookupStream(Map<String, NavigableSet<String>> index, String key,
+                                              Predicate<IndexedRegistration> matches) {
+        Set<String> ids = index.get(key);
+        if (ids == null) {
+            return Stream.empty();
+        }
+        return ids.stream()
+                .map(registrationsById::get)
+                .filter(entry -> entry != null && matches.test(entry))
+                .map(entry -> entry.registration);
+    }
+
+    private Page<Registration> lookupPage(Map<String, NavigableSet<String>> index, String key,
+                                          Predicate<IndexedRegistration> matches, int limit, String cursor) {
+        Page.checkLimit(limit);
+        NavigableSet<String> ids = index.get(key);
+        if (ids == null) {
+            return new Page<>(new ArrayList<>(), null);
+        }
+        List<Registration> items = new ArrayList<>();
+        String lastId = null;
+        for (String id : cursor == null ? ids : ids.tailSet(lastId(cursor), false)) {
+            IndexedRegistration entry = registrationsById.get(id);
+            if (entry == null || !matches.test(entry)) {
+                continue;
+            }
+            if (items.size() == limit) {
+                return new Page<>(items, Page.encodeCursor(List.of(lastId)));
+            }
+            items.add(entry.registration);
+            lastId = id;
+        }
+        return new Page<>(items, null);
+    }
+
+    private static String lastId(String cursor) {
+        List<String> parts = Page.decodeCursor(cursor);
+        if (parts.size() != 1) {
+            throw new IllegalArgumentException("Invalid page cursor");
+        }
+        return parts.get(0);
+    }
+
+    private Object lockFor(String studentId) {
+        return locks[Math.floorMod(Objects.hashCode(studentId), LOCK_STRIPES)];
+    }
+
+    private static String key(String... parts) {
+        return String.join("\u0000", parts);
+    }
+
+    // Snapshot of the indexed fields, so a registration mutated after save is unindexed by its old keys
+    private static final class IndexedRegistration {
+        private final Registration registration;
+        private final String studentId;
+        private final String courseId;
+        private final String status;
+
+        private IndexedRegistration(Registration registration) {
+            this.registration = registration;
+            this.studentId = registration.getStudentId();
+            this.courseId = registration.getCourseId();
+            this.status = registration.getStatus();
+        }
+
+        private boolean hasSameKeys(IndexedRegistration other) {
+            return Objects.equals(studentId, other.studentId)
+                    && Objects.equals(courseId, other.courseId)
+                    && Objects.equals(status, other.status);
+        }
     }
-}
\ No newline at end of file
+}
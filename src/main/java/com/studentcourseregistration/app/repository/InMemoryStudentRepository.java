@@ -1,12 +1,21 @@
 package com.studentcourseregistration.app.repository;
 
 import com.studentcourseregistration.app.model.Student;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class InMemoryStudentRepository {
-    private final Map<String, Student> studentsById = new HashMap<>();
+    // Sorted by id, so a page cursor is simply the last id returned
+    private final NavigableMap<String, Student> studentsById = new TreeMap<>();
     private final Map<String, Student> studentsByUsername = new HashMap<>();
     private final Map<String, Student> studentsByEmail = new HashMap<>();
 
@@ -20,6 +29,14 @@ public class InMemoryStudentRepository {
         return Optional.ofNullable(studentsById.get(studentId));
     }
 
+    public List<Student> findAllByIds(Collection<String> studentIds) {
+        return studentIds.stream()
+                .distinct()
+                .map(studentsById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
     public Optional<Student> findByUsername(String username) {
         return Optional.ofNullable(studentsByUsername.get(username));
     }
@@ -28,6 +45,28 @@ public class InMemoryStudentRepository {
         return Optional.ofNullable(studentsByEmail.get(email));
     }
 
+    /**
+     * Streams the stored students in id order without copying them. Like the rest of this
+     * repository, not safe against concurrent saves.
+     */
+    public Stream<Student> streamAll() {
+        return studentsById.values().stream();
+    }
+
+    public Page<Student> findAll(int limit, String cursor) {
+        Page.checkLimit(limit);
+        Map<String, Student> remaining = cursor == null ? studentsById
+                : studentsById.tailMap(lastId(cursor), false);
+        List<Student> items = new ArrayList<>();
+        for (Student student : remaining.values()) {
+            if (items.size() == limit) {
+                return new Page<>(items, Page.encodeCursor(List.of(items.get(limit - 1).getStudentId())));
+            }
+            items.add(student);
+        }
+        return new Page<>(items, null);
+    }
+
     public void delete(String studentId) {
         Student student = studentsById.remove(studentId);
         if (student != null) {
@@ -41,4 +80,12 @@ public class InMemoryStudentRepository {
         studentsByUsername.clear();
         studentsByEmail.clear();
     }
+
+    private static String lastId(String cursor) {
+        List<String> parts = Page.decodeCursor(cursor);
+        if (parts.size() != 1) {
+            throw new IllegalArgumentException("Invalid page cursor");
+        }
+        return parts.get(0);
+    }
 }
\ No newline at end of file
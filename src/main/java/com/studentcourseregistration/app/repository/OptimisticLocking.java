@@ -0,0 +1,64 @@
+package com.studentcourseregistration.app.repository;
+
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Read-modify-write against items guarded by a version attribute. A write that loses the
+ * race fails its version condition; the item is then read again and the mutation re-applied
+ * to the fresh copy, so no concurrent change is overwritten.
+ */
+public final class OptimisticLocking {
+    public static final int MAX_ATTEMPTS = 10;
+
+    private static final long BASE_BACKOFF_MILLIS = 10;
+    private static final long MAX_BACKOFF_MILLIS = 500;
+
+    private OptimisticLocking() {
+    }
+
+    /**
+     * Reads the item, applies the mutation and writes it with the version condition, retrying
+     * on conflict. Returns the written item, or null when the read finds nothing. The mutation
+     * may run several times and should only depend on the item it is given.
+     */
+    public static <T> T update(Supplier<T> reader, Consumer<T> mutation, UnaryOperator<T> writer) {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            if (attempt > 0) {
+                backoff(attempt);
+            }
+            T item = reader.get();
+            if (item == null) {
+                return null;
+            }
+            mutation.accept(item);
+            try {
+                return writer.apply(item);
+            } catch (ConditionalCheckFailedException e) {
+                // Someone else wrote a newer version; start over from it
+            }
+        }
+        throw new IllegalStateException("Update still conflicting after " + MAX_ATTEMPTS + " attempts");
+    }
+
+    /**
+     * The version a versioned put stores: 1 for a new item, otherwise one past the version read.
+     */
+    public static Long nextVersion(Long version) {
+        return version == null ? 1L : version + 1;
+    }
+
+    private static void backoff(int attempt) {
+        long ceiling = Math.min(MAX_BACKOFF_MILLIS, BASE_BACKOFF_MILLIS << attempt);
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying update", e);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.studentcourseregistration.app.repository;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of a listing plus the cursor for the next one. Cursors are opaque to callers:
+ * pass {@link #getNextCursor()} back unchanged, or null for the first page. A null next
+ * cursor means the listing is complete.
+ *
+ * A page may hold fewer than the requested number of items, or none, while a next cursor
+ * is still returned; keep going until the cursor is null.
+ */
+public final class Page<T> {
+    public static final int MAX_LIMIT = 1_000;
+
+    private final List<T> items;
+    private final String nextCursor;
+
+    public Page(List<T> items, String nextCursor) {
+        this.items = Collections.unmodifiableList(items);
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+
+    /**
+     * The same position in the listing with the items replaced, e.g. registrations by their students.
+     */
+    public <U> Page<U> withItems(List<U> newItems) {
+        return new Page<>(newItems, nextCursor);
+    }
+
+    public static void checkLimit(int limit) {
+        if (limit <= 0 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_LIMIT);
+        }
+    }
+
+    /**
+     * Packs the position a listing stopped at into a URL-safe cursor string.
+     */
+    public static String encodeCursor(List<String> parts) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeShort(parts.size());
+            for (String part : parts) {
+                out.writeUTF(part);
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cursor position is too large", e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    public static List<String> decodeCursor(String cursor) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Base64.getUrlDecoder().decode(cursor)))) {
+            int count = in.readUnsignedShort();
+            List<String> parts = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                parts.add(in.readUTF());
+            }
+            if (in.available() > 0) {
+                throw new IOException("Trailing bytes");
+            }
+            return parts;
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid page cursor", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Page{items=" + items.size() + ", hasMore=" + hasMore() + '}';
+    }
+}
@@ -0,0 +1,314 @@
+package com.studentcourseregistration.app.service;
+
+import com.studentcourseregistration.app.model.Course;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.BiConsumer;
+
+/**
+ * Type-ahead over course codes, course names and instructors. Every field is indexed from
+ * each word start, so "prog" completes "Intro to Programming" and "brooks" completes
+ * "Dr. Fred Brooks". Entries sit in a sorted skip list: a completion is a range scan over
+ * the keys starting with the prefix, keeping only the best {@code limit} in a bounded heap,
+ * and reads never block on updates.
+ *
+ * One- and two-letter prefixes match a large share of the catalog, so for those each
+ * ranking also keeps the matching entries in rank order, and a completion reads just the
+ * head of that order. Entries carry the scores of the course as last put, so rankings
+ * follow every {@link #put}, including seat-only updates through {@link #updateScores}.
+ */
+public class CourseAutocomplete {
+    private static final int SHORT_PREFIX_LENGTH = 2;
+    // Ends the text part of a key and sorts before any character that could continue it
+    private static final char KEY_SEPARATOR = '\u0000';
+    // Sorts after any character a prefix can continue with
+    private static final char RANGE_END = '\uffff';
+
+    public enum Kind { CODE, NAME, INSTRUCTOR }
+
+    public enum Ranking {
+        AVAILABLE_SEATS {
+            @Override
+            int score(Course course) {
+                return orZero(course.getCapacity()) - orZero(course.getEnrolled());
+            }
+        },
+        POPULARITY {
+            @Override
+            int score(Course course) {
+                return orZero(course.getEnrolled());
+            }
+        };
+
+        abstract int score(Course course);
+
+        // Best first; ties fall back to key order, which is also the order of a range scan
+        private final Comparator<Entry> order = Comparator
+                .comparingInt((Entry entry) -> -entry.field.scores[ordinal()])
+                .thenComparing(entry -> entry.field.text, String.CASE_INSENSITIVE_ORDER)
+                .thenComparing(entry -> entry.field.kind)
+                .thenComparing(entry -> entry.key);
+
+        private static int orZero(Integer value) {
+            return value == null ? 0 : value;
+        }
+    }
+
+    private final ConcurrentSkipListMap<String, Entry> entries = new ConcurrentSkipListMap<>();
+    private final Map<String, List<Entry>> entriesByCourseId = new ConcurrentHashMap<>();
+    private final Map<String, Map<Ranking, NavigableSet<Entry>>> rankedByShortPrefix = new ConcurrentHashMap<>();
+
+    /**
+     * Adds or re-indexes the course. A course older than the indexed version is ignored.
+     * Callers serialize writes; reads may run concurrently.
+     */
+    public void put(Course course) {
+        List<Entry> previous = entriesByCourseId.get(course.getCourseId());
+        if (previous != null && !previous.isEmpty() && isOlder(course, previous.get(0).field.version)) {
+            return;
+        }
+        List<Entry> added = new ArrayList<>();
+        addEntries(course, Kind.CODE, course.getCourseCode(), added);
+        addEntries(course, Kind.NAME, course.getCourseName(), added);
+        addEntries(course, Kind.INSTRUCTOR, course.getInstructor(), added);
+        entriesByCourseId.put(course.getCourseId(), added);
+
+        // New entries go in before stale ones leave, so a concurrent read never sees a gap
+        for (Entry entry : added) {
+            entries.put(entry.key, entry);
+            forEachRanked(entry, NavigableSet::add);
+        }
+        if (previous != null) {
+            for (Entry entry : previous) {
+                entries.remove(entry.key, entry);
+                forEachRanked(entry, NavigableSet::remove);
+            }
+        }
+    }
+
+    /**
+     * Re-ranks an indexed course after a seat count change; unknown courses are ignored.
+     */
+    public void updateScores(Course course) {
+        if (entriesByCourseId.containsKey(course.getCourseId())) {
+            put(course);
+        }
+    }
+
+    public void remove(String courseId) {
+        List<Entry> previous = entriesByCourseId.remove(courseId);
+        if (previous != null) {
+            for (Entry entry : previous) {
+                entries.remove(entry.key, entry);
+                forEachRanked(entry, NavigableSet::remove);
+            }
+        }
+    }
+
+    public void replaceAll(Collection<Course> courses) {
+        entries.clear();
+        entriesByCourseId.clear();
+        rankedByShortPrefix.clear();
+        for (Course course : courses) {
+            put(course);
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} distinct completions of the prefix, best ranked first.
+     * Completions with the same text, such as an instructor teaching several courses, are
+     * merged under their best-ranked course.
+     */
+    public List<Suggestion> complete(String prefix, int limit, Ranking ranking) {
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        if (normalized.length() <= SHORT_PREFIX_LENGTH) {
+            return head(normalized, limit, ranking);
+        }
+        return scan(normalized, limit, ranking);
+    }
+
+    // Walks the prefix's entries in rank order; the first entry of each text is its best
+    private List<Suggestion> head(String prefix, int limit, Ranking ranking) {
+        Map<Ranking, NavigableSet<Entry>> ranked = rankedByShortPrefix.get(prefix);
+        if (ranked == null) {
+            return List.of();
+        }
+        Set<String> seen = new HashSet<>();
+        List<Suggestion> suggestions = new ArrayList<>();
+        for (Entry entry : ranked.get(ranking)) {
+            if (seen.add(entry.field.kind + entry.field.text)) {
+                suggestions.add(entry.suggestion(ranking));
+                if (suggestions.size() == limit) {
+                    break;
+                }
+            }
+        }
+        return List.copyOf(suggestions);
+    }
+
+    // Keeps the best entry per text in a min-heap of at most limit texts, so a broad prefix
+    // costs O(matches * log limit) rather than a sort of every match
+    private List<Suggestion> scan(String prefix, int limit, Ranking ranking) {
+        Comparator<Entry> order = ranking.order;
+        PriorityQueue<Entry> worstFirst = new PriorityQueue<>(Math.min(limit, 64) + 1, order.reversed());
+        Map<String, Entry> kept = new HashMap<>();
+        for (Entry entry : entries.subMap(prefix, prefix + RANGE_END).values()) {
+            String text = entry.field.kind + entry.field.text;
+            Entry current = kept.get(text);
+            if (current != null) {
+                if (order.compare(entry, current) < 0) {
+                    worstFirst.remove(current);
+                    worstFirst.add(entry);
+                    kept.put(text, entry);
+                }
+            } else if (worstFirst.size() < limit) {
+                worstFirst.add(entry);
+                kept.put(text, entry);
+            } else if (order.compare(entry, worstFirst.peek()) < 0) {
+                Entry evicted = worstFirst.poll();
+                kept.remove(evicted.field.kind + evicted.field.text);
+                worstFirst.add(entry);
+                kept.put(text, entry);
+            }
+        }
+        List<Entry> best = new ArrayList<>(worstFirst);
+        best.sort(order);
+        List<Suggestion> suggestions = new ArrayList<>(best.size());
+        for (Entry entry : best) {
+            suggestions.add(entry.suggestion(ranking));
+        }
+        return List.copyOf(suggestions);
+    }
+
+    private void forEachRanked(Entry entry, BiConsumer<NavigableSet<Entry>, Entry> action) {
+        String text = entry.key.substring(0, entry.key.indexOf(KEY_SEPARATOR));
+        for (int length = 1; length <= Math.min(SHORT_PREFIX_LENGTH, text.length()); length++) {
+            Map<Ranking, NavigableSet<Entry>> ranked = rankedByShortPrefix.computeIfAbsent(
+                    text.substring(0, length), prefix -> {
+                        Map<Ranking, NavigableSet<Entry>> sets = new EnumMap<>(Ranking.class);
+                        for (Ranking ranking : Ranking.values()) {
+                            sets.put(ranking, new ConcurrentSkipListSet<>(ranking.order));
+                        }
+                        return sets;
+                    });
+            for (NavigableSet<Entry> set : ranked.values()) {
+                action.accept(set, entry);
+            }
+        }
+    }
+
+    private static boolean isOlder(Course course, Long indexedVersion) {
+        return course.getVersion() != null && indexedVersion != null && course.getVersion() < indexedVersion;
+    }
+
+    // Keys are the text from a word start, then the kind and course id so every entry is unique
+    private static void addEntries(Course course, Kind kind, String text, List<Entry> added) {
+        String normalized = normalize(text);
+        if (normalized.isEmpty()) {
+            return;
+        }
+        Field field = new Field(course, kind, text.trim());
+        for (int start = 0; start < normalized.length(); start++) {
+            boolean wordStart = start == 0 || !Character.isLetterOrDigit(normalized.charAt(start - 1));
+            if (wordStart && Character.isLetterOrDigit(normalized.charAt(start))) {
+                String key = normalized.substring(start) + KEY_SEPARATOR + kind.ordinal() + course.getCourseId();
+                added.add(new Entry(key, field));
+            }
+        }
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // One indexed field of a course, with the course's scores as of the put
+    private static final class Field {
+        private final String courseId;
+        private final Long version;
+        private final Kind kind;
+        private final String text;
+        private final int[] scores;
+
+        private Field(Course course, Kind kind, String text) {
+            this.courseId = course.getCourseId();
+            this.version = course.getVersion();
+            this.kind = kind;
+            this.text = text;
+            this.scores = new int[Ranking.values().length];
+            for (Ranking ranking : Ranking.values()) {
+                scores[ranking.ordinal()] = ranking.score(course);
+            }
+        }
+    }
+
+    // The field as reached from one of its word starts
+    private static final class Entry {
+        private final String key;
+        private final Field field;
+
+        private Entry(String key, Field field) {
+            this.key = key;
+            this.field = field;
+        }
+
+        private Suggestion suggestion(Ranking ranking) {
+            return new Suggestion(field.kind, field.text, field.courseId, field.scores[ranking.ordinal()]);
+        }
+    }
+
+    /**
+     * One completion: the full field text, which field it came from, and the course it
+     * points to.
+     */
+    public static final class Suggestion {
+        private final Kind kind;
+        private final String text;
+        private final String courseId;
+        private final int score;
+
+        private Suggestion(Kind kind, String text, String courseId, int score) {
+            this.kind = kind;
+            this.text = text;
+            this.courseId = courseId;
+            this.score = score;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public String getCourseId() {
+            return courseId;
+        }
+
+        public int getScore() {
+            return score;
+        }
+
+        @Override
+        public String toString() {
+            return "Suggestion{" + kind + " '" + text + "', score=" + score + '}';
+        }
+    }
+}
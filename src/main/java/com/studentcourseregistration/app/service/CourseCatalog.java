@@ -0,0 +1,344 @@
+package com.studentcourseregistration.app.service;
+
+import com.studentcourseregistration.app.model.Course;
+import com.studentcourseregistration.app.repository.Page;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Immutable, atomically swapped view of all courses. Readers never block on a refresh:
+ * one reader at a time pulls the courses changed since the last high-water mark of
+ * {@code updatedAt}, and everyone else keeps serving the previous snapshot. Local writes
+ * are applied immediately through {@link #onCourseChanged} / {@link #onCourseDeleted};
+ * a periodic full rebuild picks up deletions made elsewhere. A {@link CourseSearchIndex},
+ * a {@link CourseAutocomplete} and a {@link CourseFacetIndex} follow every snapshot change
+ * incrementally.
+ *
+ * Courses in a snapshot are shared between readers and must be treated as read-only;
+ * writers hand the catalog copies, never the instances they go on to edit.
+ */
+public class CourseCatalog {
+    // Writers on other nodes may stamp updatedAt slightly behind our high-water mark
+    private static final Duration CLOCK_SKEW = Duration.ofSeconds(5);
+
+    private final Supplier<List<Course>> fullLoader;
+    private final Function<String, List<Course>> changedSince;
+    private final long refreshIntervalNanos;
+    private final long rebuildIntervalNanos;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private final CourseSearchIndex searchIndex = new CourseSearchIndex();
+    private final CourseAutocomplete autocomplete = new CourseAutocomplete();
+    private final CourseFacetIndex facetIndex = new CourseFacetIndex();
+    // Serializes index writes so each one reflects the latest snapshot
+    private final Object indexWriteLock = new Object();
+    private volatile long nextRefreshAt;
+    private volatile long nextRebuildAt;
+
+    /**
+     * A catalog that only changes through local notifications, for stores owned by this process.
+     */
+    public CourseCatalog(Supplier<List<Course>> fullLoader) {
+        this(fullLoader, null, Duration.ZERO, Duration.ZERO);
+    }
+
+    /**
+     * A catalog that polls {@code changedSince(updatedAt)} at most once per refresh interval
+     * and reloads everything once per rebuild interval.
+     */
+    public CourseCatalog(Supplier<List<Course>> fullLoader, Function<String, List<Course>> changedSince,
+                         Duration refreshInterval, Duration rebuildInterval) {
+        this.fullLoader = fullLoader;
+        this.changedSince = changedSince;
+        this.refreshIntervalNanos = refreshInterval.toNanos();
+        this.rebuildIntervalNanos = rebuildInterval.toNanos();
+    }
+
+    public Snapshot current() {
+        Snapshot current = snapshot.get();
+        if (current == null) {
+            refreshLock.lock();
+            try {
+                if (snapshot.get() == null) {
+                    rebuild();
+                }
+            } finally {
+                refreshLock.unlock();
+            }
+        } else if (changedSince != null && System.nanoTime() - nextRefreshAt >= 0 && refreshLock.tryLock()) {
+            try {
+                if (System.nanoTime() - nextRebuildAt >= 0) {
+                    rebuild();
+                } else {
+                    refresh();
+                }
+            } finally {
+                refreshLock.unlock();
+            }
+        }
+        return snapshot.get();
+    }
+
+    /**
+     * Substring search over the current catalog, best match first.
+     */
+    public List<Course> search(String term) {
+        return search(term, Integer.MAX_VALUE);
+    }
+
+    public List<Course> search(String term, int limit) {
+        current();
+        return searchIndex.search(term, limit);
+    }
+
+    /**
+     * One page of search results. The cursor holds the rank of the last result, so later
+     * pages continue from there even if the catalog changed in between.
+     */
+    public Page<Course> search(String term, int limit, String cursor) {
+        current();
+        return searchIndex.search(term, limit, cursor);
+    }
+
+    public List<CourseAutocomplete.Suggestion> complete(String prefix, int limit, CourseAutocomplete.Ranking ranking) {
+        current();
+        return autocomplete.complete(prefix, limit, ranking);
+    }
+
+    public CourseFacetIndex.Result filter(CourseFacetIndex.Query query) {
+        current();
+        return facetIndex.filter(query);
+    }
+
+    public void onCourseChanged(Course course) {
+        snapshot.updateAndGet(current -> current == null ? null : current.with(List.of(course), Set.of(), null));
+        syncIndex(List.of(course.getCourseId()));
+    }
+
+    /**
+     * A seat count changed and nothing else the snapshot indexes did. Only the autocomplete
+     * rankings follow right away; listings pick the count up on the next refresh.
+     */
+    public void onSeatsChanged(Course course) {
+        synchronized (indexWriteLock) {
+            autocomplete.updateScores(course);
+        }
+    }
+
+    public void onCourseDeleted(String courseId) {
+        snapshot.updateAndGet(current -> current == null ? null : current.with(List.of(), Set.of(courseId), null));
+        syncIndex(List.of(courseId));
+    }
+
+    // Re-indexes the given courses from whatever the latest snapshot holds for them, so
+    // concurrent notifications cannot leave the index behind the snapshot
+    private void syncIndex(Collection<String> courseIds) {
+        synchronized (indexWriteLock) {
+            Snapshot current = snapshot.get();
+            if (current == null) {
+                return;
+            }
+            for (String courseId : courseIds) {
+                Course course = current.getCourse(courseId);
+                if (course == null) {
+                    searchIndex.remove(courseId);
+                    autocomplete.remove(courseId);
+                    facetIndex.remove(courseId);
+                } else {
+                    searchIndex.put(course);
+                    autocomplete.put(course);
+                    facetIndex.put(course);
+                }
+            }
+        }
+    }
+
+    /**
+     * Replaces the snapshot with a full reload.
+     */
+    public void rebuild() {
+        List<Course> courses = fullLoader.get();
+        Snapshot previous = snapshot.get();
+        long version = previous == null ? 1 : previous.version + 1;
+        snapshot.set(Snapshot.of(courses, version, version, highWaterMark(courses, null)));
+        synchronized (indexWriteLock) {
+            searchIndex.replaceAll(snapshot.get().getCourses());
+            autocomplete.replaceAll(snapshot.get().getCourses());
+            facetIndex.replaceAll(snapshot.get().getCourses());
+        }
+        long now = System.nanoTime();
+        nextRefreshAt = now + refreshIntervalNanos;
+        nextRebuildAt = now + rebuildIntervalNanos;
+    }
+
+    private void refresh() {
+        Snapshot current = snapshot.get();
+        String since = current.highWaterMark == null
+                ? Instant.EPOCH.toString()
+                : Instant.parse(current.highWaterMark).minus(CLOCK_SKEW).toString();
+        List<Course> changed = changedSince.apply(since);
+        if (!changed.isEmpty()) {
+            String mark = highWaterMark(changed, current.highWaterMark);
+            snapshot.updateAndGet(latest -> latest.with(changed, Set.of(), mark));
+            List<String> changedIds = new ArrayList<>();
+            for (Course course : changed) {
+                changedIds.add(course.getCourseId());
+            }
+            syncIndex(changedIds);
+        }
+        nextRefreshAt = System.nanoTime() + refreshIntervalNanos;
+    }
+
+    private static String highWaterMark(Collection<Course> courses, String previous) {
+        Instant mark = previous == null ? null : Instant.parse(previous);
+        for (Course course : courses) {
+            if (course.getUpdatedAt() != null) {
+                Instant updatedAt = Instant.parse(course.getUpdatedAt());
+                if (mark == null || updatedAt.isAfter(mark)) {
+                    mark = updatedAt;
+                }
+            }
+        }
+        return mark == null ? null : mark.toString();
+    }
+
+    /**
+     * One immutable catalog version. {@code prerequisitesVersion} only moves when a course is
+     * added or removed or its code or prerequisites change, so derived structures such as the
+     * prerequisite graph survive seat-count updates.
+     */
+    public static final class Snapshot {
+        private final CourseTable table;
+        private final long version;
+        private final long prerequisitesVersion;
+        private final String highWaterMark;
+
+        private Snapshot(CourseTable table, long version, long prerequisitesVersion, String highWaterMark) {
+            this.table = table;
+            this.version = version;
+            this.prerequisitesVersion = prerequisitesVersion;
+            this.highWaterMark = highWaterMark;
+        }
+
+        private static Snapshot of(Collection<Course> courses, long version, long prerequisitesVersion,
+                                   String highWaterMark) {
+            return new Snapshot(CourseTable.of(courses), version, prerequisitesVersion, highWaterMark);
+        }
+
+        // Shares every block of the previous table that the change does not touch
+        private Snapshot with(Collection<Course> changed, Set<String> removedIds, String newHighWaterMark) {
+            Map<String, Course> updates = new HashMap<>();
+            boolean prerequisitesChanged = false;
+            for (Course course : changed) {
+                Course current = updates.containsKey(course.getCourseId())
+                        ? updates.get(course.getCourseId())
+                        : table.get(course.getCourseId());
+                if (isOlder(course, current)) {
+                    // A notification or poll that lost the race with a later write
+                    continue;
+                }
+                updates.put(course.getCourseId(), course);
+                prerequisitesChanged |= current == null
+                        || !Objects.equals(current.getCourseCode(), course.getCourseCode())
+                        || !Objects.equals(current.getPrerequisites(), course.getPrerequisites());
+            }
+            for (String courseId : removedIds) {
+                Course current = updates.containsKey(courseId) ? updates.get(courseId) : table.get(courseId);
+                prerequisitesChanged |= current != null;
+                updates.put(courseId, null);
+            }
+            return new Snapshot(table.apply(updates), version + 1,
+                    prerequisitesChanged ? version + 1 : prerequisitesVersion,
+                    newHighWaterMark != null ? newHighWaterMark : highWaterMark);
+        }
+
+        private static boolean isOlder(Course course, Course current) {
+            return current != null && course.getVersion() != null && current.getVersion() != null
+                    && course.getVersion() < current.getVersion();
+        }
+
+        public List<Course> getCourses() {
+            return table.list();
+        }
+
+        /**
+         * One page of the matching courses in course code order. The cursor names the last
+         * course returned, so a page starts in the right place even if the catalog changed
+         * since the previous one.
+         */
+        public Page<Course> page(int limit, String cursor, Predicate<Course> matches) {
+            Page.checkLimit(limit);
+            List<Course> courses = table.list();
+            List<Course> items = new ArrayList<>();
+            for (int i = cursor == null ? 0 : startAfter(cursor); i < courses.size(); i++) {
+                Course course = courses.get(i);
+                if (!matches.test(course)) {
+                    continue;
+                }
+                if (items.size() == limit) {
+                    Course last = items.get(limit - 1);
+                    List<String> position = last.getCourseCode() == null
+                            ? List.of(last.getCourseId())
+                            : List.of(last.getCourseId(), last.getCourseCode());
+                    return new Page<>(items, Page.encodeCursor(position));
+                }
+                items.add(course);
+            }
+            return new Page<>(items, null);
+        }
+
+        // Index of the first course ordered after the cursor's course
+        private int startAfter(String cursor) {
+            List<String> position = Page.decodeCursor(cursor);
+            if (position.isEmpty() || position.size() > 2) {
+                throw new IllegalArgumentException("Invalid page cursor");
+            }
+            String courseId = position.get(0);
+            String courseCode = position.size() == 2 ? position.get(1) : null;
+            List<Course> courses = table.list();
+            int low = 0;
+            int high = courses.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                Course course = courses.get(mid);
+                int cmp = Objects.compare(course.getCourseCode(), courseCode,
+                        Comparator.nullsLast(Comparator.naturalOrder()));
+                if (cmp == 0) {
+                    cmp = course.getCourseId().compareTo(courseId);
+                }
+                if (cmp <= 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        public Course getCourse(String courseId) {
+            return table.get(courseId);
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public long getPrerequisitesVersion() {
+            return prerequisitesVersion;
+        }
+    }
+}
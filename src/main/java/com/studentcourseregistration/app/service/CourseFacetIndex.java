@@ -0,0 +1,290 @@
+package com.studentcourseregistration.app.service;
+
+import com.studentcourseregistration.app.model.Course;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Bitmap index over the catalog's filterable attributes. Every course gets a dense integer
+ * id, and every facet value keeps a bitmap of the courses that have it, so a filter is a few
+ * word-wide ORs (values of one facet) and ANDs (across facets) rather than a scan. Ids stay
+ * dense because removed courses' ids are reused, which keeps each bitmap at one bit per course.
+ *
+ * Facet counts are disjunctive: the counts for a facet apply every filter except that
+ * facet's own, so they show how many courses picking another value would return.
+ */
+public class CourseFacetIndex {
+    public static final String OPEN = "open";
+    public static final String FULL = "full";
+
+    public enum Facet {
+        DEPARTMENT(Course::getDepartment),
+        SEMESTER(Course::getSemester),
+        YEAR(course -> course.getYear() == null ? null : course.getYear().toString()),
+        CREDITS(course -> course.getCredits() == null ? null : course.getCredits().toString()),
+        SEATS(course -> course.getCapacity() == null || course.getEnrolled() == null ? null
+                : course.isAvailable() ? OPEN : FULL);
+
+        private final Function<Course, String> value;
+
+        Facet(Function<Course, String> value) {
+            this.value = value;
+        }
+
+        private String valueOf(Course course) {
+            return value.apply(course);
+        }
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> docIdByCourseId = new HashMap<>();
+    private final List<Course> docs = new ArrayList<>();
+    // The values each course was indexed under; courses may be edited in place, so the
+    // old values cannot be read back from the course itself
+    private final List<String[]> indexedValues = new ArrayList<>();
+    private final BitSet live = new BitSet();
+    private final BitSet freeIds = new BitSet();
+    private final Map<Facet, Map<String, BitSet>> bitmaps = new EnumMap<>(Facet.class);
+
+    public CourseFacetIndex() {
+        for (Facet facet : Facet.values()) {
+            bitmaps.put(facet, new HashMap<>());
+        }
+    }
+
+    /**
+     * Adds the course, or moves it to the bitmaps of its current values.
+     */
+    public void put(Course course) {
+        lock.writeLock().lock();
+        try {
+            Integer docId = docIdByCourseId.get(course.getCourseId());
+            if (docId == null) {
+                docId = allocate();
+                docIdByCourseId.put(course.getCourseId(), docId);
+            } else {
+                unindex(docId);
+            }
+            String[] values = new String[Facet.values().length];
+            for (Facet facet : Facet.values()) {
+                String value = facet.valueOf(course);
+                values[facet.ordinal()] = value;
+                if (value != null) {
+                    bitmaps.get(facet).computeIfAbsent(value, v -> new BitSet()).set(docId);
+                }
+            }
+            docs.set(docId, course);
+            indexedValues.set(docId, values);
+            live.set(docId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String courseId) {
+        lock.writeLock().lock();
+        try {
+            Integer docId = docIdByCourseId.remove(courseId);
+            if (docId != null) {
+                unindex(docId);
+                docs.set(docId, null);
+                indexedValues.set(docId, null);
+                live.clear(docId);
+                freeIds.set(docId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void replaceAll(Collection<Course> courses) {
+        lock.writeLock().lock();
+        try {
+            docIdByCourseId.clear();
+            docs.clear();
+            indexedValues.clear();
+            live.clear();
+            freeIds.clear();
+            bitmaps.values().forEach(Map::clear);
+            for (Course course : courses) {
+                put(course);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the courses matching the query, ordered by course code, together with the
+     * per-value counts of every facet.
+     */
+    public Result filter(Query query) {
+        lock.readLock().lock();
+        try {
+            Map<Facet, BitSet> selected = new EnumMap<>(Facet.class);
+            for (Map.Entry<Facet, Set<String>> condition : query.conditions.entrySet()) {
+                selected.put(condition.getKey(), union(condition.getKey(), condition.getValue()));
+            }
+            BitSet matches = intersect(selected, null);
+
+            List<Course> courses = new ArrayList<>(matches.cardinality());
+            for (int docId = matches.nextSetBit(0); docId >= 0; docId = matches.nextSetBit(docId + 1)) {
+                courses.add(docs.get(docId));
+            }
+            courses.sort(Comparator.comparing(Course::getCourseCode, Comparator.nullsLast(Comparator.naturalOrder())));
+
+            Map<Facet, Map<String, Integer>> counts = new EnumMap<>(Facet.class);
+            BitSet scratch = new BitSet();
+            for (Facet facet : Facet.values()) {
+                BitSet others = selected.containsKey(facet) ? intersect(selected, facet) : matches;
+                Map<String, Integer> facetCounts = new TreeMap<>();
+                for (Map.Entry<String, BitSet> value : bitmaps.get(facet).entrySet()) {
+                    scratch.clear();
+                    scratch.or(value.getValue());
+                    scratch.and(others);
+                    int count = scratch.cardinality();
+                    if (count > 0) {
+                        facetCounts.put(value.getKey(), count);
+                    }
+                }
+                counts.put(facet, Collections.unmodifiableMap(facetCounts));
+            }
+            return new Result(Collections.unmodifiableList(courses), Collections.unmodifiableMap(counts));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docIdByCourseId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private BitSet union(Facet facet, Set<String> values) {
+        BitSet union = new BitSet();
+        for (String value : values) {
+            BitSet bitmap = bitmaps.get(facet).get(value);
+            if (bitmap != null) {
+                union.or(bitmap);
+            }
+        }
+        return union;
+    }
+
+    // ANDs the selected facets' bitmaps, leaving out one facet for its own counts
+    private BitSet intersect(Map<Facet, BitSet> selected, Facet excluded) {
+        BitSet result = (BitSet) live.clone();
+        for (Map.Entry<Facet, BitSet> entry : selected.entrySet()) {
+            if (entry.getKey() != excluded) {
+                result.and(entry.getValue());
+            }
+        }
+        return result;
+    }
+
+    private int allocate() {
+        int docId = freeIds.nextSetBit(0);
+        if (docId >= 0) {
+            freeIds.clear(docId);
+            return docId;
+        }
+        docs.add(null);
+        indexedValues.add(null);
+        return docs.size() - 1;
+    }
+
+    private void unindex(int docId) {
+        String[] values = indexedValues.get(docId);
+        for (Facet facet : Facet.values()) {
+            String value = values[facet.ordinal()];
+            BitSet bitmap = value == null ? null : bitmaps.get(facet).get(value);
+            if (bitmap != null) {
+                bitmap.clear(docId);
+                if (bitmap.isEmpty()) {
+                    bitmaps.get(facet).remove(value);
+                }
+            }
+        }
+    }
+
+    /**
+     * Values within one facet are ORed; facets are ANDed. A facet with no values is not
+     * filtered on.
+     */
+    public static final class Query {
+        private final Map<Facet, Set<String>> conditions = new EnumMap<>(Facet.class);
+
+        public Query where(Facet facet, String... values) {
+            return where(facet, Arrays.asList(values));
+        }
+
+        public Query where(Facet facet, Collection<String> values) {
+            if (!values.isEmpty()) {
+                conditions.computeIfAbsent(facet, f -> new LinkedHashSet<>()).addAll(values);
+            }
+            return this;
+        }
+
+        /**
+         * Matches a numeric facet such as {@link Facet#CREDITS} or {@link Facet#YEAR} within
+         * {@code [min, max]}.
+         */
+        public Query whereBetween(Facet facet, int min, int max) {
+            if (facet != Facet.CREDITS && facet != Facet.YEAR) {
+                throw new IllegalArgumentException(facet + " is not a numeric facet");
+            }
+            if (max < min) {
+                throw new IllegalArgumentException("Range is empty: " + min + " to " + max);
+            }
+            List<String> values = new ArrayList<>();
+            for (int value = min; value <= max; value++) {
+                values.add(Integer.toString(value));
+            }
+            return where(facet, values);
+        }
+
+        public Query withOpenSeats() {
+            return where(Facet.SEATS, OPEN);
+        }
+    }
+
+    public static final class Result {
+        private final List<Course> courses;
+        private final Map<Facet, Map<String, Integer>> counts;
+
+        private Result(List<Course> courses, Map<Facet, Map<String, Integer>> counts) {
+            this.courses = courses;
+            this.counts = counts;
+        }
+
+        public List<Course> getCourses() {
+            return courses;
+        }
+
+        /**
+         * Courses per value of the facet under every other facet's filter, for values with
+         * at least one course.
+         */
+        public Map<String, Integer> getCounts(Facet facet) {
+            return counts.get(facet);
+        }
+    }
+}
@@ -0,0 +1,351 @@
+package com.studentcourseregistration.app.service;
+
+import com.studentcourseregistration.app.model.Course;
+import com.studentcourseregistration.app.repository.Page;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Trigram inverted index for case-insensitive substring search over course code, name,
+ * instructor, department and description. A query's trigrams select candidates by
+ * intersecting sorted posting lists, smallest first; candidates are then confirmed against
+ * the lower-cased fields, since sharing every trigram does not guarantee a substring match.
+ * Queries shorter than a trigram scan the lower-cased fields instead.
+ *
+ * Results are ranked by the field matched (code highest, description lowest) with a bonus
+ * for matching at the start of a field; ties are ordered by course code, then id.
+ */
+public class CourseSearchIndex {
+    private static final int GRAM = 3;
+    // Code, name, instructor, department, description
+    private static final int[] FIELD_WEIGHTS = {50, 40, 30, 20, 10};
+    private static final int PREFIX_BONUS = 5;
+    private static final int EXACT_CODE_SCORE = 1_000;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> docIdByCourseId = new HashMap<>();
+    private final List<Doc> docs = new ArrayList<>();
+    private final Map<Long, Postings> postingsByGram = new HashMap<>();
+
+    /**
+     * Adds the course, or re-indexes it from its current fields if it is already indexed.
+     */
+    public void put(Course course) {
+        lock.writeLock().lock();
+        try {
+            Integer docId = docIdByCourseId.get(course.getCourseId());
+            if (docId == null) {
+                docId = docs.size();
+                docs.add(null);
+                docIdByCourseId.put(course.getCourseId(), docId);
+            } else {
+                unindex(docId);
+            }
+            Doc doc = new Doc(course);
+            docs.set(docId, doc);
+            for (long gram : doc.grams) {
+                postingsByGram.computeIfAbsent(gram, g -> new Postings()).add(docId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String courseId) {
+        lock.writeLock().lock();
+        try {
+            Integer docId = docIdByCourseId.remove(courseId);
+            if (docId != null) {
+                unindex(docId);
+                docs.set(docId, null);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the whole index, compacting ids left behind by removed courses.
+     */
+    public void replaceAll(Collection<Course> courses) {
+        lock.writeLock().lock();
+        try {
+            docIdByCourseId.clear();
+            docs.clear();
+            postingsByGram.clear();
+            for (Course course : courses) {
+                put(course);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns every course containing the term in one of the indexed fields, best match first.
+     * A blank term matches nothing.
+     */
+    public List<Course> search(String term) {
+        return search(term, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns the {@code limit} best matches. Broad terms still confirm every candidate, but
+     * only the kept matches are ordered, so this is much cheaper than a full result list.
+     */
+    public List<Course> search(String term, int limit) {
+        List<Course> results = new ArrayList<>();
+        for (Scored match : best(normalize(term), limit, null)) {
+            results.add(match.course);
+        }
+        return results;
+    }
+
+    /**
+     * One page of matches in rank order. The cursor holds the score, code and id of the last
+     * match returned, and the next page starts with the first match ranked after it.
+     */
+    public Page<Course> search(String term, int limit, String cursor) {
+        Page.checkLimit(limit);
+        Scored after = cursor == null ? null : Scored.fromCursor(cursor);
+        // One extra match tells whether another page follows
+        List<Scored> matches = best(normalize(term), limit + 1, after);
+        List<Course> items = new ArrayList<>(Math.min(limit, matches.size()));
+        for (int i = 0; i < matches.size() && i < limit; i++) {
+            items.add(matches.get(i).course);
+        }
+        return new Page<>(items, matches.size() > limit ? matches.get(limit - 1).toCursor() : null);
+    }
+
+    private List<Scored> best(String query, int limit, Scored after) {
+        if (query.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            // Worst kept match on top, so it is the one replaced by a better candidate
+            PriorityQueue<Scored> best = new PriorityQueue<>(Scored.BEST_FIRST.reversed());
+            if (query.length() < GRAM) {
+                for (Doc doc : docs) {
+                    offer(score(doc, query), after, best, limit);
+                }
+            } else {
+                for (int docId : candidates(query)) {
+                    offer(score(docs.get(docId), query), after, best, limit);
+                }
+            }
+            List<Scored> matches = new ArrayList<>(best);
+            matches.sort(Scored.BEST_FIRST);
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void offer(Scored match, Scored after, PriorityQueue<Scored> best, int limit) {
+        if (match == null || (after != null && Scored.BEST_FIRST.compare(match, after) <= 0)) {
+            return;
+        }
+        if (best.size() < limit) {
+            best.add(match);
+        } else if (Scored.BEST_FIRST.compare(match, best.peek()) < 0) {
+            best.poll();
+            best.add(match);
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docIdByCourseId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int[] candidates(String query) {
+        Set<Long> grams = new HashSet<>();
+        addGrams(query, grams);
+        List<Postings> lists = new ArrayList<>(grams.size());
+        for (long gram : grams) {
+            Postings postings = postingsByGram.get(gram);
+            if (postings == null) {
+                return new int[0];
+            }
+            lists.add(postings);
+        }
+        lists.sort(Comparator.comparingInt(postings -> postings.size));
+
+        Postings smallest = lists.get(0);
+        int[] result = Arrays.copyOf(smallest.ids, smallest.size);
+        int size = result.length;
+        for (int i = 1; i < lists.size() && size > 0; i++) {
+            Postings other = lists.get(i);
+            int kept = 0;
+            for (int j = 0; j < size; j++) {
+                if (other.contains(result[j])) {
+                    result[kept++] = result[j];
+                }
+            }
+            size = kept;
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    private static Scored score(Doc doc, String query) {
+        if (doc == null) {
+            return null;
+        }
+        int score = 0;
+        for (int field = 0; field < doc.fields.length; field++) {
+            int at = doc.fields[field].indexOf(query);
+            if (at >= 0) {
+                score += FIELD_WEIGHTS[field] + (at == 0 ? PREFIX_BONUS : 0);
+            }
+        }
+        if (score == 0) {
+            return null;
+        }
+        if (doc.fields[0].equals(query)) {
+            score += EXACT_CODE_SCORE;
+        }
+        return new Scored(doc.course, doc.fields[0], score);
+    }
+
+    private void unindex(int docId) {
+        for (long gram : docs.get(docId).grams) {
+            Postings postings = postingsByGram.get(gram);
+            if (postings != null && postings.remove(docId) && postings.size == 0) {
+                postingsByGram.remove(gram);
+            }
+        }
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Trigrams never span two fields, so each field is split on its own
+    private static void addGrams(String text, Set<Long> grams) {
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2));
+        }
+    }
+
+    private static final class Doc {
+        private final Course course;
+        private final String[] fields;
+        private final long[] grams;
+
+        private Doc(Course course) {
+            this.course = course;
+            this.fields = new String[] {
+                    normalize(course.getCourseCode()),
+                    normalize(course.getCourseName()),
+                    normalize(course.getInstructor()),
+                    normalize(course.getDepartment()),
+                    normalize(course.getDescription())
+            };
+            Set<Long> distinct = new HashSet<>();
+            for (String field : fields) {
+                addGrams(field, distinct);
+            }
+            this.grams = distinct.stream().mapToLong(Long::longValue).toArray();
+        }
+    }
+
+    private static final class Scored {
+        private static final Comparator<Scored> BEST_FIRST = Comparator
+                .comparingInt((Scored scored) -> -scored.score)
+                .thenComparing(scored -> scored.code)
+                .thenComparing(scored -> scored.courseId);
+
+        private final Course course;
+        private final String code;
+        private final String courseId;
+        private final int score;
+
+        private Scored(Course course, String code, int score) {
+            this.course = course;
+            this.code = code;
+            this.courseId = course.getCourseId();
+            this.score = score;
+        }
+
+        // A rank position without a course, for comparing matches against a cursor
+        private Scored(String code, String courseId, int score) {
+            this.course = null;
+            this.code = code;
+            this.courseId = courseId;
+            this.score = score;
+        }
+
+        private String toCursor() {
+            return Page.encodeCursor(List.of(Integer.toString(score), code, courseId));
+        }
+
+        private static Scored fromCursor(String cursor) {
+            List<String> parts = Page.decodeCursor(cursor);
+            if (parts.size() != 3) {
+                throw new IllegalArgumentException("Invalid page cursor");
+            }
+            try {
+                return new Scored(parts.get(1), parts.get(2), Integer.parseInt(parts.get(0)));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid page cursor", e);
+            }
+        }
+    }
+
+    // Sorted doc ids; new courses get the highest id, so adds are usually appends
+    private static final class Postings {
+        private int[] ids = new int[4];
+        private int size;
+
+        private void add(int id) {
+            if (size > 0 && ids[size - 1] >= id) {
+                int at = Arrays.binarySearch(ids, 0, size, id);
+                if (at >= 0) {
+                    return;
+                }
+                insertAt(-at - 1, id);
+                return;
+            }
+            insertAt(size, id);
+        }
+
+        private void insertAt(int at, int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            ids[at] = id;
+            size++;
+        }
+
+        private boolean remove(int id) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at < 0) {
+                return false;
+            }
+            System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+            size--;
+            return true;
+        }
+
+        private boolean contains(int id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+    }
+}
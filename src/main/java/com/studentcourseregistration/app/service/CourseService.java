@@ -2,24 +2,69 @@ package com.studentcourseregistration.app.service;
 
 import com.studentcourseregistration.app.config.DynamoDbConfig;
 import com.studentcourseregistration.app.model.Course;
+import com.studentcourseregistration.app.model.CourseSummary;
+import com.studentcourseregistration.app.repository.CourseFilter;
+import com.studentcourseregistration.app.repository.DynamoDbBatchSupport;
+import com.studentcourseregistration.app.repository.DynamoDbCourseRepository;
+import com.studentcourseregistration.app.repository.DynamoDbPaging;
+import com.studentcourseregistration.app.repository.OptimisticLocking;
+import com.studentcourseregistration.app.repository.Page;
+import com.studentcourseregistration.app.util.LruCache;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
 import software.amazon.awssdk.enhanced.dynamodb.Key;
 import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
 import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
 import software.amazon.awssdk.enhanced.dynamodb.model.ScanEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValue;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 public class CourseService {
+    private static final String TABLE_NAME = "Courses";
+    private static final int MAX_RESERVE_ATTEMPTS = 5;
+    // Hot courses are served from memory; edits made through other instances show up within the TTL
+    private static final int COURSE_CACHE_SIZE = 1_000;
+    private static final Duration COURSE_CACHE_TTL = Duration.ofSeconds(30);
+    // Listings poll for changes at most this often; deletions elsewhere show up on the full rebuild
+    private static final Duration CATALOG_REFRESH_INTERVAL = Duration.ofSeconds(2);
+    private static final Duration CATALOG_REBUILD_INTERVAL = Duration.ofMinutes(10);
+
     private final DynamoDbTable<Course> courseTable;
+    private final DynamoDbClient dynamoDbClient;
+    private final DynamoDbAsyncClient dynamoDbAsyncClient;
+    private final DynamoDbCourseRepository courseRepository = new DynamoDbCourseRepository();
+    private final CourseCatalog catalog;
+    private volatile PrerequisiteGraph prerequisiteGraph;
+    // Raw items rather than beans, so every caller gets its own mutable Course
+    private final LruCache<String, Map<String, AttributeValue>> courseCache =
+            new LruCache<>(COURSE_CACHE_SIZE, COURSE_CACHE_TTL);
 
     public CourseService() {
         DynamoDbEnhancedClient enhancedClient = DynamoDbConfig.getEnhancedClient();
-        this.courseTable = enhancedClient.table("Courses", TableSchema.fromBean(Course.class));
+        this.courseTable = enhancedClient.table(TABLE_NAME, TableSchema.fromBean(Course.class));
+        this.dynamoDbClient = DynamoDbConfig.getDynamoDbClient();
+        this.dynamoDbAsyncClient = DynamoDbConfig.getDynamoDbAsyncClient();
+        this.catalog = new CourseCatalog(this::scanAllCourses, this::findChangedSince,
+                CATALOG_REFRESH_INTERVAL, CATALOG_REBUILD_INTERVAL);
     }
 
     public Course createCourse(String courseCode, String courseName, String description,
@@ -40,14 +85,83 @@ public class CourseService {
         course.setLocation(location);
         course.setCapacity(capacity);
         course.setPrerequisites(prerequisites);
+        checkPrerequisites(course);
 
-        courseTable.putItem(course);
+        putVersioned(course);
+        catalog.onCourseChanged(copyOf(course));
         return course;
     }
 
+    /**
+     * Read-through lookup in the course cache. Seat counts in the result may lag by up to
+     * the cache TTL; seat decisions are made by conditional writes, never from this read.
+     */
     public Course findById(String courseId) {
-        Key key = Key.builder().partitionValue(courseId).build();
-        return courseTable.getItem(key);
+        Map<String, AttributeValue> item = courseCache.get(courseId, id -> {
+            GetItemResponse response = dynamoDbClient.getItem(r -> r
+                    .tableName(TABLE_NAME)
+                    .key(Map.of("courseId", AttributeValue.builder().s(id).build())));
+            return response.hasItem() ? response.item() : null;
+        });
+        return item == null ? null : courseTable.tableSchema().mapToItem(item);
+    }
+
+    /**
+     * {@link #findById} without blocking: a cached course completes immediately, a miss is
+     * read with the async client and cached like a synchronous load. Completes with null
+     * if the course does not exist.
+     */
+    public CompletableFuture<Course> findByIdAsync(String courseId) {
+        return courseCache.getAsync(courseId, id -> dynamoDbAsyncClient.getItem(r -> r
+                        .tableName(TABLE_NAME)
+                        .key(Map.of("courseId", AttributeValue.builder().s(id).build())))
+                .thenApply(response -> response.hasItem() ? response.item() : null))
+                .thenApply(item -> item == null ? null : courseTable.tableSchema().mapToItem(item));
+    }
+
+    /**
+     * Loads several courses, serving cached ones from memory and the rest with BatchGetItem.
+     * Results follow the order of the ids; missing ids are skipped.
+     */
+    public List<Course> findAllByIds(Collection<String> courseIds) {
+        List<String> ids = courseIds.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+        Map<String, Map<String, AttributeValue>> items = courseCache.getAll(ids, missing ->
+                DynamoDbBatchSupport.batchGet(dynamoDbClient, TABLE_NAME, missing.stream()
+                                .map(id -> Map.of("courseId", AttributeValue.builder().s(id).build()))
+                                .collect(Collectors.toList()), false)
+                        .stream()
+                        .collect(Collectors.toMap(item -> item.get("courseId").s(), item -> item)));
+        return ids.stream()
+                .map(items::get)
+                .filter(Objects::nonNull)
+                .map(courseTable.tableSchema()::mapToItem)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Applies a seat change committed outside this service (e.g. by a registration
+     * transaction). Transactions return no item, so the course is read back consistently;
+     * that read refills the cache and tells the catalog the way a direct seat update does.
+     */
+    public void onEnrollmentCommitted(String courseId, int delta) {
+        courseCache.invalidate(courseId);
+        Map<String, AttributeValue> item = courseCache.get(courseId, id -> {
+            GetItemResponse response = dynamoDbClient.getItem(r -> r
+                    .tableName(TABLE_NAME)
+                    .key(Map.of("courseId", AttributeValue.builder().s(id).build()))
+                    .consistentRead(true));
+            return response.hasItem() ? response.item() : null;
+        });
+        if (item != null) {
+            onSeatsCommitted(courseTable.tableSchema().mapToItem(item), delta);
+        }
+    }
+
+    public LruCache.Stats getCacheStats() {
+        return courseCache.stats();
     }
 
     public Course findByCourseCode(String courseCode) {
@@ -75,58 +189,278 @@ public class CourseService {
         }
     }
 
+    public Page<Course> findByDepartment(String department, int limit, String cursor) {
+        return DynamoDbPaging.query(courseTable, "department-index",
+                QueryConditional.keyEqualTo(Key.builder().partitionValue(department).build()), null, limit, cursor);
+    }
+
+    /**
+     * Served from the catalog snapshot; the returned courses are shared and read-only.
+     */
     public List<Course> getAllCourses() {
-        return courseTable.scan(ScanEnhancedRequest.builder().build())
-                .items()
-                .stream()
-                .collect(Collectors.toList());
+        return catalog.current().getCourses();
+    }
+
+    /**
+     * One page of the catalog in course code order, served from the catalog snapshot.
+     */
+    public Page<Course> getAllCourses(int limit, String cursor) {
+        return catalog.current().page(limit, cursor, course -> true);
+    }
+
+    /**
+     * Listing summaries read straight from the table with a server-side filter and projection,
+     * for screens that must not wait on or hold the full catalog.
+     */
+    public Page<CourseSummary> findCourseSummaries(CourseFilter filter, int limit, String cursor) {
+        return courseRepository.findSummaries(filter, limit, cursor);
     }
 
     public List<Course> getAvailableCourses() {
-        return getAllCourses().stream()
+        return catalog.current().getCourses().stream()
                 .filter(Course::isAvailable)
                 .collect(Collectors.toList());
     }
 
+    public Page<Course> getAvailableCourses(int limit, String cursor) {
+        return catalog.current().page(limit, cursor, Course::isAvailable);
+    }
+
+    /**
+     * Substring search over code, name, instructor, department and description, answered
+     * from the catalog's trigram index; best matches come first.
+     */
     public List<Course> searchCourses(String searchTerm) {
-        return getAllCourses().stream()
-                .filter(course -> 
-                    course.getCourseName().toLowerCase().contains(searchTerm.toLowerCase()) ||
-                    course.getCourseCode().toLowerCase().contains(searchTerm.toLowerCase()) ||
-                    course.getInstructor().toLowerCase().contains(searchTerm.toLowerCase()) ||
-                    course.getDepartment().toLowerCase().contains(searchTerm.toLowerCase())
-                )
-                .collect(Collectors.toList());
+        return catalog.search(searchTerm);
+    }
+
+    public List<Course> searchCourses(String searchTerm, int limit) {
+        return catalog.search(searchTerm, limit);
+    }
+
+    public Page<Course> searchCourses(String searchTerm, int limit, String cursor) {
+        return catalog.search(searchTerm, limit, cursor);
     }
 
+    /**
+     * Type-ahead completions of course codes, names and instructors, courses with the most
+     * free seats first.
+     */
+    public List<CourseAutocomplete.Suggestion> autocomplete(String prefix, int limit) {
+        return autocomplete(prefix, limit, CourseAutocomplete.Ranking.AVAILABLE_SEATS);
+    }
+
+    public List<CourseAutocomplete.Suggestion> autocomplete(String prefix, int limit,
+                                                            CourseAutocomplete.Ranking ranking) {
+        return catalog.complete(prefix, limit, ranking);
+    }
+
+    /**
+     * Filters the catalog by department, semester, year, credits and open seats from the
+     * catalog's bitmap index, with course counts for every facet value.
+     */
+    public CourseFacetIndex.Result filterCourses(CourseFacetIndex.Query query) {
+        return catalog.filter(query);
+    }
+
+    /**
+     * Writes the course if it is still at the version it was read with. Throws
+     * ConditionalCheckFailedException when another writer got there first, including seat
+     * and waitlist updates; use {@link #updateCourse(String, Consumer)} to retry on conflict.
+     */
     public Course updateCourse(Course course) {
+        checkPrerequisites(course);
         course.setUpdatedAt(Instant.now().toString());
-        courseTable.putItem(course);
+        try {
+            putVersioned(course);
+        } finally {
+            courseCache.invalidate(course.getCourseId());
+        }
+        catalog.onCourseChanged(copyOf(course));
         return course;
     }
 
+    /**
+     * Applies the mutation to the latest stored course, re-reading and re-applying it if a
+     * concurrent write wins. Returns the updated course, or null if it does not exist.
+     */
+    public Course updateCourse(String courseId, Consumer<Course> mutation) {
+        Key key = Key.builder().partitionValue(courseId).build();
+        return OptimisticLocking.update(
+                () -> courseTable.getItem(r -> r.key(key).consistentRead(true)),
+                mutation,
+                this::updateCourse);
+    }
+
+    // The versioned-record extension conditions the put on the version read and stores the next one
+    private void putVersioned(Course course) {
+        courseTable.putItem(course);
+        course.setVersion(OptimisticLocking.nextVersion(course.getVersion()));
+    }
+
     public void deleteCourse(String courseId) {
         Key key = Key.builder().partitionValue(courseId).build();
         courseTable.deleteItem(key);
+        courseCache.invalidate(courseId);
+        catalog.onCourseDeleted(courseId);
     }
 
-    public boolean incrementEnrollment(String courseId) {
-        Course course = findById(courseId);
-        if (course != null && course.isAvailable()) {
-            course.setEnrolled(course.getEnrolled() + 1);
-            updateCourse(course);
-            return true;
+    // Rejects a write that would put the course on a prerequisite cycle; unchanged prerequisites skip the walk
+    private void checkPrerequisites(Course course) {
+        CourseCatalog.Snapshot snapshot = catalog.current();
+        Course stored = snapshot.getCourse(course.getCourseId());
+        if (stored == null || !Objects.equals(stored.getPrerequisites(), course.getPrerequisites())
+                || !Objects.equals(stored.getCourseCode(), course.getCourseCode())) {
+            PrerequisiteGraph.checkAcyclic(snapshot.getCourses(), course);
+        }
+    }
+
+    /**
+     * Returns the prerequisite graph compiled for the catalog snapshot's prerequisites
+     * version; seat-count changes do not trigger a recompile.
+     */
+    public PrerequisiteGraph getPrerequisiteGraph() {
+        CourseCatalog.Snapshot snapshot = catalog.current();
+        PrerequisiteGraph graph = prerequisiteGraph;
+        if (graph == null || graph.getVersion() != snapshot.getPrerequisitesVersion()) {
+            graph = PrerequisiteGraph.compile(snapshot.getCourses(), snapshot.getPrerequisitesVersion());
+            prerequisiteGraph = graph;
+        }
+        return graph;
+    }
+
+    private List<Course> scanAllCourses() {
+        return courseTable.scan(ScanEnhancedRequest.builder().build())
+                .items()
+                .stream()
+                .collect(Collectors.toList());
+    }
+
+    // Every seat change bumps updatedAt, so the index is sharded and each shard is queried in turn
+    private List<Course> findChangedSince(String updatedAt) {
+        List<Course> changed = new ArrayList<>();
+        for (int shard = 0; shard < Course.CATALOG_SHARDS; shard++) {
+            String partition = Course.catalogShard(shard);
+            courseTable.index("updated-index")
+                    .query(r -> r.queryConditional(QueryConditional.sortGreaterThanOrEqualTo(Key.builder()
+                            .partitionValue(partition)
+                            .sortValue(updatedAt)
+                            .build())))
+                    .stream()
+                    .forEach(page -> changed.addAll(page.items()));
         }
-        return false;
+        return changed;
     }
 
+    // Snapshot entries must not be shared with callers who may keep editing their copy
+    private Course copyOf(Course course) {
+        return courseTable.tableSchema().mapToItem(courseTable.tableSchema().itemToMap(course, true));
+    }
+
+    /**
+     * Reserves a seat with a single conditional UpdateItem. Returns false when the
+     * course does not exist or is already full; no prior read is needed.
+     */
+    public boolean incrementEnrollment(String courseId) {
+        return adjustEnrollment(courseId, 1, "attribute_exists(courseId) AND #enrolled < #capacity",
+                Map.of("#capacity", "capacity"), Map.of());
+    }
+
+    /**
+     * Releases a seat with a single conditional UpdateItem. Returns false when the
+     * course does not exist or has no enrolled students.
+     */
     public boolean decrementEnrollment(String courseId) {
-        Course course = findById(courseId);
-        if (course != null && course.getEnrolled() > 0) {
-            course.setEnrolled(course.getEnrolled() - 1);
-            updateCourse(course);
+        return adjustEnrollment(courseId, -1, "attribute_exists(courseId) AND #enrolled > :zero",
+                Map.of(), Map.of(":zero", AttributeValue.builder().n("0").build()));
+    }
+
+    /**
+     * Reserves up to {@code requested} seats in one conditional UpdateItem, using the given
+     * course as the expected state and re-reading it only if a concurrent writer got there
+     * first. Returns the number of seats granted; 0 means the course is full or missing.
+     */
+    public int reserveSeats(Course expected, int requested) {
+        Course course = expected;
+        for (int attempt = 0; attempt < MAX_RESERVE_ATTEMPTS && course != null; attempt++) {
+            int granted = Math.min(requested, course.getCapacity() - course.getEnrolled());
+            if (granted <= 0) {
+                return 0;
+            }
+            boolean reserved = adjustEnrollment(course.getCourseId(), granted,
+                    "attribute_exists(courseId) AND #capacity = :capacity AND #enrolled <= :limit",
+                    Map.of("#capacity", "capacity"),
+                    Map.of(":capacity", AttributeValue.builder().n(course.getCapacity().toString()).build(),
+                           ":limit", AttributeValue.builder().n(Integer.toString(course.getCapacity() - granted)).build()));
+            if (reserved) {
+                return granted;
+            }
+            Key key = Key.builder().partitionValue(course.getCourseId()).build();
+            course = courseTable.getItem(r -> r.key(key).consistentRead(true));
+        }
+        return 0;
+    }
+
+    public boolean releaseSeats(String courseId, int count) {
+        return adjustEnrollment(courseId, -count, "attribute_exists(courseId) AND #enrolled >= :count",
+                Map.of(), Map.of(":count", AttributeValue.builder().n(Integer.toString(count)).build()));
+    }
+
+    private boolean adjustEnrollment(String courseId, int delta, String condition,
+                                     Map<String, String> conditionNames,
+                                     Map<String, AttributeValue> conditionValues) {
+        // "capacity" is a DynamoDB reserved word, so every attribute goes through a placeholder
+        Map<String, String> names = new HashMap<>(conditionNames);
+        names.put("#enrolled", "enrolled");
+        names.put("#updatedAt", "updatedAt");
+        names.put("#catalogPartition", "catalogPartition");
+        names.put("#version", "version");
+        Map<String, AttributeValue> values = new HashMap<>(conditionValues);
+        values.put(":delta", AttributeValue.builder().n(Integer.toString(delta)).build());
+        values.put(":now", AttributeValue.builder().s(Instant.now().toString()).build());
+        values.put(":one", AttributeValue.builder().n("1").build());
+        values.put(":partition", AttributeValue.builder().s(Course.catalogPartitionFor(courseId)).build());
+
+        try {
+            UpdateItemResponse response = dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                    .tableName(TABLE_NAME)
+                    .key(Map.of("courseId", AttributeValue.builder().s(courseId).build()))
+                    .updateExpression("ADD #enrolled :delta, #version :one SET #updatedAt = :now, #catalogPartition = :partition")
+                    .conditionExpression(condition)
+                    .expressionAttributeNames(names)
+                    .expressionAttributeValues(values)
+                    .returnValues(ReturnValue.ALL_NEW)
+                    .build());
+            // The write returns the authoritative counters, so a cached copy is refreshed in place
+            // unless a response from a later write already landed there
+            courseCache.updateIfPresent(courseId, cached -> newerOf(cached, response.attributes()));
+            onSeatsCommitted(courseTable.tableSchema().mapToItem(response.attributes()), delta);
             return true;
+        } catch (ConditionalCheckFailedException e) {
+            courseCache.invalidate(courseId);
+            return false;
+        }
+    }
+
+    private void onSeatsCommitted(Course course, int delta) {
+        // Listings pick up plain seat counts on the next poll; only a course filling up or
+        // reopening changes what the catalog indexes, so only that is applied in full
+        boolean wasAvailable = course.getEnrolled() - delta < course.getCapacity();
+        if (wasAvailable != course.isAvailable()) {
+            catalog.onCourseChanged(course);
+        } else {
+            catalog.onSeatsChanged(course);
+        }
+    }
+
+    private static Map<String, AttributeValue> newerOf(Map<String, AttributeValue> cached,
+                                                       Map<String, AttributeValue> written) {
+        AttributeValue cachedVersion = cached.get("version");
+        AttributeValue writtenVersion = written.get("version");
+        if (cachedVersion != null && writtenVersion != null
+                && Long.parseLong(cachedVersion.n()) > Long.parseLong(writtenVersion.n())) {
+            return cached;
         }
-        return false;
+        return written;
     }
 }
\ No newline at end of file
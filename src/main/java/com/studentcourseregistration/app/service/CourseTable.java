@@ -0,0 +1,222 @@
+package com.studentcourseregistration.app.service;
+
+import com.studentcourseregistration.app.model.Course;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * Immutable set of courses, listed in course code order and looked up by id. Both views are
+ * split into small blocks that successive tables share, so putting or removing one course
+ * copies a single block of each plus the arrays that point at the blocks, instead of
+ * copying and re-sorting every course.
+ */
+final class CourseTable {
+    // Ties on code are broken by id, so every course has a unique position for page cursors
+    static final Comparator<Course> ORDER =
+            Comparator.comparing(Course::getCourseCode, Comparator.nullsLast(Comparator.<String>naturalOrder()))
+                    .thenComparing(Course::getCourseId);
+    private static final int BLOCK_SIZE = 64;
+
+    // Non-empty sorted runs; starts[i] is the list position of blocks[i][0] and starts[blocks.length] the size
+    private final Course[][] blocks;
+    private final int[] starts;
+    private final Map<String, Course>[] buckets;
+    private final List<Course> list = new Listing();
+
+    private CourseTable(Course[][] blocks, Map<String, Course>[] buckets) {
+        this.blocks = blocks;
+        this.buckets = buckets;
+        this.starts = new int[blocks.length + 1];
+        for (int i = 0; i < blocks.length; i++) {
+            starts[i + 1] = starts[i] + blocks[i].length;
+        }
+    }
+
+    static CourseTable of(Collection<Course> courses) {
+        // About one bucket per block, so a change copies similar amounts of both
+        Map<String, Course>[] buckets = newBuckets(Integer.highestOneBit(Math.max(16, courses.size() / BLOCK_SIZE)));
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new HashMap<>();
+        }
+        for (Course course : courses) {
+            buckets[bucketOf(course.getCourseId(), buckets.length)].put(course.getCourseId(), course);
+        }
+        List<Course> sorted = new ArrayList<>(courses.size());
+        for (Map<String, Course> bucket : buckets) {
+            sorted.addAll(bucket.values());
+        }
+        sorted.sort(ORDER);
+        Course[][] blocks = new Course[(sorted.size() + BLOCK_SIZE - 1) / BLOCK_SIZE][];
+        for (int i = 0; i < blocks.length; i++) {
+            blocks[i] = sorted.subList(i * BLOCK_SIZE, Math.min(sorted.size(), (i + 1) * BLOCK_SIZE))
+                    .toArray(new Course[0]);
+        }
+        return new CourseTable(blocks, buckets);
+    }
+
+    /**
+     * Applies the updates, keyed by course id, where a null course removes the id. Large
+     * batches are cheaper to apply by rebuilding the table once.
+     */
+    CourseTable apply(Map<String, Course> updates) {
+        if (updates.isEmpty()) {
+            return this;
+        }
+        if (updates.size() * BLOCK_SIZE > size()) {
+            Map<String, Course> all = new HashMap<>();
+            for (Map<String, Course> bucket : buckets) {
+                all.putAll(bucket);
+            }
+            for (Map.Entry<String, Course> update : updates.entrySet()) {
+                if (update.getValue() == null) {
+                    all.remove(update.getKey());
+                } else {
+                    all.put(update.getKey(), update.getValue());
+                }
+            }
+            return of(all.values());
+        }
+        CourseTable table = this;
+        for (Map.Entry<String, Course> update : updates.entrySet()) {
+            table = table.remove(update.getKey());
+            if (update.getValue() != null) {
+                table = table.insert(update.getValue());
+            }
+        }
+        return table;
+    }
+
+    Course get(String courseId) {
+        return buckets[bucketOf(courseId, buckets.length)].get(courseId);
+    }
+
+    int size() {
+        return starts[blocks.length];
+    }
+
+    /**
+     * Read-only list view in course code order.
+     */
+    List<Course> list() {
+        return list;
+    }
+
+    private CourseTable remove(String courseId) {
+        Course previous = get(courseId);
+        if (previous == null) {
+            return this;
+        }
+        int[] position = locate(previous);
+        Course[] block = blocks[position[0]];
+        Course[][] nextBlocks;
+        if (block.length == 1) {
+            nextBlocks = new Course[blocks.length - 1][];
+            System.arraycopy(blocks, 0, nextBlocks, 0, position[0]);
+            System.arraycopy(blocks, position[0] + 1, nextBlocks, position[0], blocks.length - position[0] - 1);
+        } else {
+            Course[] nextBlock = new Course[block.length - 1];
+            System.arraycopy(block, 0, nextBlock, 0, position[1]);
+            System.arraycopy(block, position[1] + 1, nextBlock, position[1], block.length - position[1] - 1);
+            nextBlocks = blocks.clone();
+            nextBlocks[position[0]] = nextBlock;
+        }
+        Map<String, Course>[] nextBuckets = buckets.clone();
+        int bucket = bucketOf(courseId, buckets.length);
+        nextBuckets[bucket] = new HashMap<>(buckets[bucket]);
+        nextBuckets[bucket].remove(courseId);
+        return new CourseTable(nextBlocks, nextBuckets);
+    }
+
+    // Callers remove the course's previous entry first, so the id is never present here
+    private CourseTable insert(Course course) {
+        Course[][] nextBlocks;
+        if (blocks.length == 0) {
+            nextBlocks = new Course[][] {{course}};
+        } else {
+            int index = blockFor(course);
+            Course[] block = blocks[index];
+            int at = -Arrays.binarySearch(block, course, ORDER) - 1;
+            Course[] grown = new Course[block.length + 1];
+            System.arraycopy(block, 0, grown, 0, at);
+            grown[at] = course;
+            System.arraycopy(block, at, grown, at + 1, block.length - at);
+            if (grown.length <= 2 * BLOCK_SIZE) {
+                nextBlocks = blocks.clone();
+                nextBlocks[index] = grown;
+            } else {
+                nextBlocks = new Course[blocks.length + 1][];
+                System.arraycopy(blocks, 0, nextBlocks, 0, index);
+                nextBlocks[index] = Arrays.copyOfRange(grown, 0, BLOCK_SIZE);
+                nextBlocks[index + 1] = Arrays.copyOfRange(grown, BLOCK_SIZE, grown.length);
+                System.arraycopy(blocks, index + 1, nextBlocks, index + 2, blocks.length - index - 1);
+            }
+        }
+        Map<String, Course>[] nextBuckets = buckets.clone();
+        int bucket = bucketOf(course.getCourseId(), buckets.length);
+        nextBuckets[bucket] = new HashMap<>(buckets[bucket]);
+        nextBuckets[bucket].put(course.getCourseId(), course);
+        return new CourseTable(nextBlocks, nextBuckets);
+    }
+
+    // {block, offset} of the stored course
+    private int[] locate(Course course) {
+        int index = blockFor(course);
+        int offset = Arrays.binarySearch(blocks[index], course, ORDER);
+        if (offset >= 0 && blocks[index][offset] == course) {
+            return new int[] {index, offset};
+        }
+        throw new IllegalStateException("Course " + course.getCourseId() + " is indexed by id but not by code");
+    }
+
+    // The last block whose first course does not sort after the given one, or the first block
+    private int blockFor(Course course) {
+        int low = 1;
+        int high = blocks.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ORDER.compare(blocks[mid][0], course) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low - 1;
+    }
+
+    private static int bucketOf(String courseId, int bucketCount) {
+        int hash = courseId.hashCode();
+        return (hash ^ (hash >>> 16)) & (bucketCount - 1);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Map<String, Course>[] newBuckets(int count) {
+        return new Map[count];
+    }
+
+    private final class Listing extends AbstractList<Course> implements RandomAccess {
+        @Override
+        public Course get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size());
+            }
+            int block = Arrays.binarySearch(starts, 0, blocks.length, index);
+            if (block < 0) {
+                block = -block - 2;
+            }
+            return blocks[block][index - starts[block]];
+        }
+
+        @Override
+        public int size() {
+            return CourseTable.this.size();
+        }
+    }
+}
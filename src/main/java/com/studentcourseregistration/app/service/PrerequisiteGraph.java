@@ -0,0 +1,327 @@
+package com.studentcourseregistration.app.service;
+
+import com.studentcourseregistration.app.model.Course;
+import com.studentcourseregistration.app.model.Registration;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * The catalog's prerequisite DAG compiled for one catalog version. Every course code gets a
+ * dense index, and each course stores the transitive closure of its prerequisites as a
+ * bitset. A completed course therefore satisfies everything below it, and a registration
+ * check is a containment test of the course's direct prerequisites in the student's
+ * satisfied set.
+ *
+ * Prerequisites are course codes; codes missing from the catalog still get an index and can
+ * only be satisfied by a completed course with that code.
+ *
+ * Writes reject cycles ({@link #checkAcyclic}), but another node can still store one
+ * concurrently. Compiling therefore tolerates cycles: courses on a cycle can never have
+ * their prerequisites met, and every other course is checked as usual.
+ */
+public final class PrerequisiteGraph {
+    // Grades that do not count as completing a course
+    private static final Set<String> NON_PASSING_GRADES = Set.of("F", "W", "I", "NP");
+
+    private final long version;
+    private final Map<String, Integer> indexById;
+    private final BitSet[] direct;
+    private final BitSet[] closure;
+    private final BitSet cyclic;
+
+    private PrerequisiteGraph(long version, Map<String, Integer> indexById, BitSet[] direct, BitSet[] closure,
+                              BitSet cyclic) {
+        this.version = version;
+        this.indexById = indexById;
+        this.direct = direct;
+        this.closure = closure;
+        this.cyclic = cyclic;
+    }
+
+    /**
+     * Compiles the graph. Courses on a prerequisite cycle are marked rather than rejected.
+     */
+    public static PrerequisiteGraph compile(Collection<Course> courses, long version) {
+        Map<String, Integer> indexByCode = new HashMap<>();
+        Map<String, Integer> indexById = new HashMap<>();
+        List<String> codes = new ArrayList<>();
+        for (Course course : courses) {
+            if (course.getCourseCode() != null) {
+                indexById.put(course.getCourseId(), indexOf(course.getCourseCode(), indexByCode, codes));
+            }
+        }
+
+        List<BitSet> edges = new ArrayList<>();
+        for (Course course : courses) {
+            if (course.getCourseCode() == null || course.getPrerequisites() == null) {
+                continue;
+            }
+            int index = indexByCode.get(course.getCourseCode());
+            for (String prerequisite : course.getPrerequisites()) {
+                int target = indexOf(prerequisite, indexByCode, codes);
+                while (edges.size() <= Math.max(index, target)) {
+                    edges.add(new BitSet());
+                }
+                edges.get(index).set(target);
+            }
+        }
+
+        int size = codes.size();
+        BitSet[] direct = new BitSet[size];
+        for (int i = 0; i < size; i++) {
+            direct[i] = i < edges.size() ? edges.get(i) : new BitSet();
+        }
+        BitSet cyclic = cyclicNodes(direct);
+        BitSet[] closure = new BitSet[size];
+        byte[] state = new byte[size];
+        int[] cursor = new int[size];
+        for (int i = 0; i < size; i++) {
+            close(i, direct, closure, state, cursor);
+        }
+        return new PrerequisiteGraph(version, indexById, direct, closure, cyclic);
+    }
+
+    /**
+     * Throws IllegalArgumentException naming the cycle if storing {@code changed} would make
+     * it (transitively) its own prerequisite. {@code catalog} is the current catalog; an
+     * entry with the same id as {@code changed} is replaced by it.
+     */
+    public static void checkAcyclic(Collection<Course> catalog, Course changed) {
+        if (changed.getCourseCode() == null || changed.getPrerequisites() == null
+                || changed.getPrerequisites().isEmpty()) {
+            return;
+        }
+        Map<String, List<String>> prerequisitesByCode = new HashMap<>();
+        for (Course course : catalog) {
+            if (course.getCourseCode() != null && course.getPrerequisites() != null
+                    && !Objects.equals(course.getCourseId(), changed.getCourseId())) {
+                prerequisitesByCode.put(course.getCourseCode(), course.getPrerequisites());
+            }
+        }
+        prerequisitesByCode.put(changed.getCourseCode(), changed.getPrerequisites());
+
+        List<String> path = new ArrayList<>();
+        if (reaches(changed.getCourseCode(), changed.getCourseCode(), prerequisitesByCode, path)) {
+            throw new IllegalArgumentException("Prerequisite cycle: " + changed.getCourseCode() + " -> "
+                    + String.join(" -> ", path));
+        }
+    }
+
+    // Depth-first search for a prerequisite path from code to target; path collects it when found.
+    // The search keeps its own stack, one iterator per course on the path, so a long
+    // prerequisite chain cannot overflow the thread's stack.
+    private static boolean reaches(String code, String target, Map<String, List<String>> prerequisitesByCode,
+                                   List<String> path) {
+        Set<String> visited = new HashSet<>();
+        Deque<Iterator<String>> pending = new ArrayDeque<>();
+        pending.push(prerequisitesByCode.getOrDefault(code, List.of()).iterator());
+        while (!pending.isEmpty()) {
+            Iterator<String> prerequisites = pending.peek();
+            if (!prerequisites.hasNext()) {
+                // Every iterator but the first belongs to the course at the end of the path
+                pending.pop();
+                if (!path.isEmpty()) {
+                    path.remove(path.size() - 1);
+                }
+                continue;
+            }
+            String prerequisite = prerequisites.next();
+            path.add(prerequisite);
+            if (prerequisite.equals(target)) {
+                return true;
+            }
+            if (visited.add(prerequisite)) {
+                pending.push(prerequisitesByCode.getOrDefault(prerequisite, List.of()).iterator());
+            } else {
+                path.remove(path.size() - 1);
+            }
+        }
+        return false;
+    }
+
+    private static int indexOf(String code, Map<String, Integer> indexByCode, List<String> codes) {
+        return indexByCode.computeIfAbsent(code, c -> {
+            codes.add(c);
+            return codes.size() - 1;
+        });
+    }
+
+    // Depth-first post-order: a node's closure is built from its finished prerequisites. An edge
+    // back into an unfinished node lies on a cycle and is skipped, so closures of cyclic nodes
+    // may be incomplete; those nodes are unsatisfiable anyway. The search keeps its own stack,
+    // with cursor holding each open node's next edge, so chain length is not bounded by the
+    // thread's stack.
+    private static void close(int root, BitSet[] direct, BitSet[] closure, byte[] state, int[] cursor) {
+        if (state[root] != 0) {
+            return;
+        }
+        Deque<Integer> path = new ArrayDeque<>();
+        open(root, direct, state, cursor, path);
+        while (!path.isEmpty()) {
+            int node = path.peek();
+            int next = cursor[node];
+            if (next >= 0) {
+                cursor[node] = direct[node].nextSetBit(next + 1);
+                if (state[next] == 0) {
+                    open(next, direct, state, cursor, path);
+                }
+                continue;
+            }
+            BitSet reachable = new BitSet();
+            for (int prerequisite = direct[node].nextSetBit(0); prerequisite >= 0;
+                    prerequisite = direct[node].nextSetBit(prerequisite + 1)) {
+                reachable.set(prerequisite);
+                if (closure[prerequisite] != null) {
+                    reachable.or(closure[prerequisite]);
+                }
+            }
+            closure[node] = reachable;
+            state[node] = 2;
+            path.pop();
+        }
+    }
+
+    private static void open(int node, BitSet[] direct, byte[] state, int[] cursor, Deque<Integer> path) {
+        state[node] = 1;
+        cursor[node] = direct[node].nextSetBit(0);
+        path.push(node);
+    }
+
+    // Tarjan's strongly connected components; nodes in a component of two or more, or with a
+    // self-loop, lie on a cycle
+    private static BitSet cyclicNodes(BitSet[] direct) {
+        int size = direct.length;
+        int[] order = new int[size];
+        int[] low = new int[size];
+        Arrays.fill(order, -1);
+        Deque<Integer> stack = new ArrayDeque<>();
+        BitSet onStack = new BitSet(size);
+        BitSet cyclic = new BitSet(size);
+        int[] cursor = new int[size];
+        int counter = 0;
+        // Tarjan's recursion unrolled onto path, with cursor holding each open node's next edge
+        Deque<Integer> path = new ArrayDeque<>();
+        for (int i = 0; i < size; i++) {
+            if (order[i] >= 0) {
+                continue;
+            }
+            order[i] = low[i] = counter++;
+            enter(i, direct, cursor, stack, onStack, path);
+            while (!path.isEmpty()) {
+                int node = path.peek();
+                int next = cursor[node];
+                if (next >= 0) {
+                    cursor[node] = direct[node].nextSetBit(next + 1);
+                    if (order[next] < 0) {
+                        order[next] = low[next] = counter++;
+                        enter(next, direct, cursor, stack, onStack, path);
+                    } else if (onStack.get(next)) {
+                        low[node] = Math.min(low[node], order[next]);
+                    }
+                    continue;
+                }
+                path.pop();
+                if (!path.isEmpty()) {
+                    int parent = path.peek();
+                    low[parent] = Math.min(low[parent], low[node]);
+                }
+                if (low[node] == order[node]) {
+                    markIfCyclic(node, direct, stack, onStack, cyclic);
+                }
+            }
+        }
+        return cyclic;
+    }
+
+    private static void enter(int node, BitSet[] direct, int[] cursor, Deque<Integer> stack, BitSet onStack,
+                              Deque<Integer> path) {
+        cursor[node] = direct[node].nextSetBit(0);
+        stack.push(node);
+        onStack.set(node);
+        path.push(node);
+    }
+
+    // Pops the component rooted at node off the Tarjan stack
+    private static void markIfCyclic(int node, BitSet[] direct, Deque<Integer> stack, BitSet onStack,
+                                     BitSet cyclic) {
+        List<Integer> component = new ArrayList<>();
+        int member;
+        do {
+            member = stack.pop();
+            onStack.clear(member);
+            component.add(member);
+        } while (member != node);
+        if (component.size() > 1 || direct[node].get(node)) {
+            component.forEach(cyclic::set);
+        }
+    }
+
+    /**
+     * True when the registration counts as a completed course: graded with a passing grade.
+     */
+    public static boolean isCompleted(Registration registration) {
+        String grade = registration.getGrade();
+        return grade != null && !grade.isBlank() && !NON_PASSING_GRADES.contains(grade.trim().toUpperCase());
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public boolean hasPrerequisites(String courseId) {
+        Integer index = indexById.get(courseId);
+        return index != null && !direct[index].isEmpty();
+    }
+
+    /**
+     * Returns the set of course indexes satisfied by the completed courses and everything they imply.
+     */
+    public BitSet satisfiedBy(Collection<String> completedCourseIds) {
+        BitSet satisfied = new BitSet(direct.length);
+        for (String courseId : completedCourseIds) {
+            Integer index = indexById.get(courseId);
+            if (index != null) {
+                satisfied.set(index);
+                satisfied.or(closure[index]);
+            }
+        }
+        return satisfied;
+    }
+
+    /**
+     * True when the course is its own prerequisite, directly or transitively.
+     */
+    public boolean isCyclic(String courseId) {
+        Integer index = indexById.get(courseId);
+        return index != null && cyclic.get(index);
+    }
+
+    public boolean isSatisfied(String courseId, BitSet satisfied) {
+        Integer index = indexById.get(courseId);
+        if (index == null) {
+            return true;
+        }
+        if (cyclic.get(index)) {
+            return false;
+        }
+        BitSet required = direct[index];
+        for (int bit = required.nextSetBit(0); bit >= 0; bit = required.nextSetBit(bit + 1)) {
+            if (!satisfied.get(bit)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
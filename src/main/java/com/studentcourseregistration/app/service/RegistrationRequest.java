@@ -0,0 +1,45 @@
+package com.studentcourseregistration.app.service;
+
+import java.util.Objects;
+
+/**
+ * A (student, course) pair submitted to a bulk registration.
+ */
+public class RegistrationRequest {
+    private final String studentId;
+    private final String courseId;
+
+    public RegistrationRequest(String studentId, String courseId) {
+        this.studentId = studentId;
+        this.courseId = courseId;
+    }
+
+    public String getStudentId() {
+        return studentId;
+    }
+
+    public String getCourseId() {
+        return courseId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        RegistrationRequest that = (RegistrationRequest) o;
+        return Objects.equals(studentId, that.studentId) && Objects.equals(courseId, that.courseId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(studentId, courseId);
+    }
+
+    @Override
+    public String toString() {
+        return "RegistrationRequest{" +
+                "studentId='" + studentId + '\'' +
+                ", courseId='" + courseId + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,71 @@
+package com.studentcourseregistration.app.service;
+
+import com.studentcourseregistration.app.model.Registration;
+
+/**
+ * Outcome of a registration attempt: either the created registration or a typed failure reason.
+ */
+public class RegistrationResult {
+
+    public enum FailureReason {
+        STUDENT_NOT_FOUND("Student not found"),
+        COURSE_NOT_FOUND("Course not found"),
+        DUPLICATE("Student is already registered for this course"),
+        COURSE_FULL("Course is full"),
+        SCHEDULE_CONFLICT("Schedule conflict detected"),
+        PREREQUISITES_NOT_MET("Prerequisites not met");
+
+        private final String message;
+
+        FailureReason(String message) {
+            this.message = message;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    private final Registration registration;
+    private final FailureReason failureReason;
+
+    private RegistrationResult(Registration registration, FailureReason failureReason) {
+        this.registration = registration;
+        this.failureReason = failureReason;
+    }
+
+    public static RegistrationResult success(Registration registration) {
+        return new RegistrationResult(registration, null);
+    }
+
+    public static RegistrationResult failure(FailureReason failureReason) {
+        return new RegistrationResult(null, failureReason);
+    }
+
+    public boolean isSuccess() {
+        return failureReason == null;
+    }
+
+    public Registration getRegistration() {
+        return registration;
+    }
+
+    public FailureReason getFailureReason() {
+        return failureReason;
+    }
+
+    // Preserves the exception-based API of registerStudentForCourse
+    public Registration orElseThrow() {
+        if (!isSuccess()) {
+            throw new IllegalArgumentException(failureReason.getMessage());
+        }
+        return registration;
+    }
+
+    @Override
+    public String toString() {
+        return isSuccess()
+                ? "RegistrationResult{registration=" + registration + '}'
+                : "RegistrationResult{failureReason=" + failureReason + '}';
+    }
+}
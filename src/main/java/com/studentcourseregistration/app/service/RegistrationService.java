@@ -2,87 +2,660 @@ package com.studentcourseregistration.app.service;
 
 import com.studentcourseregistration.app.config.DynamoDbConfig;
 import com.studentcourseregistration.app.model.Course;
+import com.studentcourseregistration.app.model.Enrollment;
 import com.studentcourseregistration.app.model.Registration;
 import com.studentcourseregistration.app.model.Student;
+import com.studentcourseregistration.app.repository.DynamoDbAsyncRegistrationRepository;
+import com.studentcourseregistration.app.repository.DynamoDbAsyncStudentRepository;
+import com.studentcourseregistration.app.repository.DynamoDbBatchSupport;
+import com.studentcourseregistration.app.repository.DynamoDbPaging;
+import com.studentcourseregistration.app.repository.OptimisticLocking;
+import com.studentcourseregistration.app.repository.Page;
+import com.studentcourseregistration.app.service.RegistrationResult.FailureReason;
+import com.studentcourseregistration.app.util.LruCache;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Expression;
 import software.amazon.awssdk.enhanced.dynamodb.Key;
 import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
 import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.CancellationReason;
+import software.amazon.awssdk.services.dynamodb.model.ConditionCheck;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.Delete;
+import software.amazon.awssdk.services.dynamodb.model.Put;
+import software.amazon.awssdk.services.dynamodb.model.PutRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValue;
+import software.amazon.awssdk.services.dynamodb.model.Select;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+import software.amazon.awssdk.services.dynamodb.model.Update;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 public class RegistrationService {
+    private static final String REGISTRATIONS_TABLE = "Registrations";
+    private static final String COURSES_TABLE = "Courses";
+    private static final String ENROLLMENTS_TABLE = "Enrollments";
+    private static final String STUDENTS_TABLE = "Students";
+    private static final TableSchema<Registration> REGISTRATION_SCHEMA = TableSchema.fromBean(Registration.class);
+    private static final TableSchema<Enrollment> ENROLLMENT_SCHEMA = TableSchema.fromBean(Enrollment.class);
+    private static final TableSchema<Student> STUDENT_SCHEMA = TableSchema.fromBean(Student.class);
+    private static final TableSchema<Course> COURSE_SCHEMA = TableSchema.fromBean(Course.class);
+
+    // Positions of the items in the registration transaction, used to map cancellation reasons
+    private static final int COURSE_ITEM = 1;
+    private static final int ENROLLMENT_ITEM = 2;
+
+    // Positions in the waitlist, drop and promotion transactions
+    private static final int COURSE_CHECK_ITEM = 0;
+    private static final int DROPPED_ITEM = 0;
+    private static final int RELEASED_MARKER_ITEM = 1;
+    private static final int PROMOTED_ITEM = 2;
+    private static final int PROMOTED_HEAD_ITEM = 1;
+
+    private static final int MAX_PROMOTION_ATTEMPTS = 5;
+    // Each eligibility check costs a history query and a batch get, and passed-over entries
+    // stay at the head of the line, so one call evaluates at most this many
+    private static final int MAX_WAITLIST_CHECKS = 10;
+    private static final int WAITLIST_PAGE_SIZE = 5;
+
+    // Timetables are bounded in number and age, since other nodes may register the same student
+    private static final int TIMETABLE_CACHE_SIZE = 10_000;
+    private static final Duration TIMETABLE_TTL = Duration.ofMinutes(5);
+
     private final DynamoDbTable<Registration> registrationTable;
+    private final DynamoDbTable<Enrollment> enrollmentTable;
+    private final DynamoDbClient dynamoDbClient;
+    private final DynamoDbAsyncStudentRepository asyncStudentRepository;
+    private final DynamoDbAsyncRegistrationRepository asyncRegistrationRepository;
     private final CourseService courseService;
     private final StudentService studentService;
+    private final LruCache<String, StudentTimetable> timetables =
+            new LruCache<>(TIMETABLE_CACHE_SIZE, TIMETABLE_TTL);
 
     public RegistrationService() {
+        this(new CourseService(), new StudentService());
+    }
+
+    /**
+     * Shares the given services, so seat changes made here reach the same course catalog
+     * that serves listings.
+     */
+    public RegistrationService(CourseService courseService, StudentService studentService) {
         DynamoDbEnhancedClient enhancedClient = DynamoDbConfig.getEnhancedClient();
-        this.registrationTable = enhancedClient.table("Registrations", TableSchema.fromBean(Registration.class));
-        this.courseService = new CourseService();
-        this.studentService = new StudentService();
+        this.registrationTable = enhancedClient.table(REGISTRATIONS_TABLE, REGISTRATION_SCHEMA);
+        this.enrollmentTable = enhancedClient.table(ENROLLMENTS_TABLE, ENROLLMENT_SCHEMA);
+        this.dynamoDbClient = DynamoDbConfig.getDynamoDbClient();
+        this.asyncStudentRepository = new DynamoDbAsyncStudentRepository();
+        this.asyncRegistrationRepository = new DynamoDbAsyncRegistrationRepository();
+        this.courseService = courseService;
+        this.studentService = studentService;
     }
 
     public Registration registerStudentForCourse(String studentId, String courseId) {
-        // Validate student exists
-        Student student = studentService.findById(studentId);
-        if (student == null) {
-            throw new IllegalArgumentException("Student not found");
-        }
+        return tryRegisterStudentForCourse(studentId, courseId).orElseThrow();
+    }
 
-        // Validate course exists
-        Course course = courseService.findById(courseId);
-        if (course == null) {
-            throw new IllegalArgumentException("Course not found");
+    /**
+     * Registers a student with a single TransactWriteItems call that inserts the
+     * registration, reserves a seat under the capacity condition and claims the
+     * (student, course) enrollment marker. Failures are reported as a typed reason.
+     */
+    public RegistrationResult tryRegisterStudentForCourse(String studentId, String courseId) {
+        // Fails fast on duplicates; the transaction below still enforces uniqueness
+        Validation validation = validate(studentId, courseId);
+        if (validation.failure != null) {
+            return RegistrationResult.failure(validation.failure);
         }
+        Course course = validation.course;
 
-        // Check if student is already registered for this course
-        if (isStudentRegisteredForCourse(studentId, courseId)) {
-            throw new IllegalArgumentException("Student is already registered for this course");
+        // Create registration
+        Registration registration = new Registration();
+        registration.setRegistrationId(UUID.randomUUID().toString());
+        registration.setStudentId(studentId);
+        registration.setCourseId(courseId);
+        registration.setStatus("ENROLLED");
+        registration.setVersion(1L);
+
+        Enrollment enrollment = new Enrollment();
+        enrollment.setEnrollmentKey(Enrollment.keyFor(studentId, courseId));
+        enrollment.setRegistrationId(registration.getRegistrationId());
+        enrollment.setStudentId(studentId);
+        enrollment.setCourseId(courseId);
+
+        // Duplicate and capacity checks are conditions of the same transaction
+        try {
+            dynamoDbClient.transactWriteItems(TransactWriteItemsRequest.builder()
+                    .transactItems(
+                        TransactWriteItem.builder().put(Put.builder()
+                                .tableName(REGISTRATIONS_TABLE)
+                                .item(REGISTRATION_SCHEMA.itemToMap(registration, true))
+                                .conditionExpression("attribute_not_exists(registrationId)")
+                                .build()).build(),
+                        TransactWriteItem.builder().update(Update.builder()
+                                .tableName(COURSES_TABLE)
+                                .key(Map.of("courseId", stringValue(courseId)))
+                                .updateExpression("ADD #enrolled :one, #version :one SET #updatedAt = :now")
+                                .conditionExpression("attribute_exists(courseId) AND #enrolled < #capacity")
+                                .expressionAttributeNames(Map.of(
+                                        "#enrolled", "enrolled",
+                                        "#capacity", "capacity",
+                                        "#updatedAt", "updatedAt",
+                                        "#version", "version"))
+                                .expressionAttributeValues(Map.of(
+                                        ":one", AttributeValue.builder().n("1").build(),
+                                        ":now", stringValue(Instant.now().toString())))
+                                .build()).build(),
+                        TransactWriteItem.builder().put(Put.builder()
+                                .tableName(ENROLLMENTS_TABLE)
+                                .item(ENROLLMENT_SCHEMA.itemToMap(enrollment, true))
+                                .conditionExpression("attribute_not_exists(enrollmentKey)")
+                                .build()).build())
+                    .build());
+        } catch (TransactionCanceledException e) {
+            List<CancellationReason> reasons = e.cancellationReasons();
+            if (isConditionFailure(reasons, ENROLLMENT_ITEM)) {
+                return RegistrationResult.failure(FailureReason.DUPLICATE);
+            }
+            if (isConditionFailure(reasons, COURSE_ITEM)) {
+                return RegistrationResult.failure(FailureReason.COURSE_FULL);
+            }
+            throw e;
         }
 
-        // Check course capacity
-        if (!course.isAvailable()) {
-            throw new IllegalArgumentException("Course is full");
+        courseService.onEnrollmentCommitted(courseId, 1);
+        timetables.updateIfPresent(studentId, timetable -> timetable.withCourse(course));
+        return RegistrationResult.success(registration);
+    }
+
+    private static boolean isConditionFailure(List<CancellationReason> reasons, int itemIndex) {
+        return reasons != null && reasons.size() > itemIndex
+                && "ConditionalCheckFailed".equals(reasons.get(itemIndex).code());
+    }
+
+    /**
+     * Puts the student at the end of the course's waitlist. Waitlisted students hold the
+     * enrollment marker, so they cannot also register or queue twice. If a seat is free
+     * the student is registered instead; check the returned registration's status.
+     */
+    public RegistrationResult joinWaitlist(String studentId, String courseId) {
+        Validation validation = validate(studentId, courseId);
+        if (validation.failure != null) {
+            return RegistrationResult.failure(validation.failure);
         }
+        Course course = validation.course;
 
-        // Check for schedule conflicts
-        if (hasScheduleConflict(studentId, course)) {
-            throw new IllegalArgumentException("Schedule conflict detected");
+        if (course.isAvailable()) {
+            RegistrationResult registered = tryRegisterStudentForCourse(studentId, courseId);
+            if (registered.getFailureReason() != FailureReason.COURSE_FULL) {
+                return registered;
+            }
         }
 
-        // Create registration
         Registration registration = new Registration();
         registration.setRegistrationId(UUID.randomUUID().toString());
         registration.setStudentId(studentId);
         registration.setCourseId(courseId);
-        registration.setStatus("ENROLLED");
+        registration.setStatus("WAITLISTED");
+        registration.setVersion(1L);
+        registration.setWaitlistCourseId(courseId);
+        registration.setWaitlistPosition(nextWaitlistPosition(courseId));
 
-        // Save registration and update course enrollment
-        registrationTable.putItem(registration);
-        courseService.incrementEnrollment(courseId);
+        Enrollment enrollment = new Enrollment();
+        enrollment.setEnrollmentKey(Enrollment.keyFor(studentId, courseId));
+        enrollment.setRegistrationId(registration.getRegistrationId());
+        enrollment.setStudentId(studentId);
+        enrollment.setCourseId(courseId);
+
+        // The course must still be full when the entry lands, otherwise the seat is taken directly
+        try {
+            dynamoDbClient.transactWriteItems(TransactWriteItemsRequest.builder()
+                    .transactItems(
+                        TransactWriteItem.builder().conditionCheck(ConditionCheck.builder()
+                                .tableName(COURSES_TABLE)
+                                .key(Map.of("courseId", stringValue(courseId)))
+                                .conditionExpression("#enrolled >= #capacity")
+                                .expressionAttributeNames(Map.of(
+                                        "#enrolled", "enrolled",
+                                        "#capacity", "capacity"))
+                                .build()).build(),
+                        TransactWriteItem.builder().put(Put.builder()
+                                .tableName(REGISTRATIONS_TABLE)
+                                .item(REGISTRATION_SCHEMA.itemToMap(registration, true))
+                                .conditionExpression("attribute_not_exists(registrationId)")
+                                .build()).build(),
+                        TransactWriteItem.builder().put(Put.builder()
+                                .tableName(ENROLLMENTS_TABLE)
+                                .item(ENROLLMENT_SCHEMA.itemToMap(enrollment, true))
+                                .conditionExpression("attribute_not_exists(enrollmentKey)")
+                                .build()).build())
+                    .build());
+        } catch (TransactionCanceledException e) {
+            List<CancellationReason> reasons = e.cancellationReasons();
+            if (isConditionFailure(reasons, ENROLLMENT_ITEM)) {
+                return RegistrationResult.failure(FailureReason.DUPLICATE);
+            }
+            if (isConditionFailure(reasons, COURSE_CHECK_ITEM)) {
+                return tryRegisterStudentForCourse(studentId, courseId);
+            }
+            throw e;
+        }
+        return RegistrationResult.success(registration);
+    }
 
-        return registration;
+    // Positions come from a counter on the course item, so FIFO order holds across nodes
+    private long nextWaitlistPosition(String courseId) {
+        try {
+            return Long.parseLong(dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                    .tableName(COURSES_TABLE)
+                    .key(Map.of("courseId", stringValue(courseId)))
+                    .updateExpression("ADD #waitlistSequence :one, #version :one")
+                    .conditionExpression("attribute_exists(courseId)")
+                    .expressionAttributeNames(Map.of("#waitlistSequence", "waitlistSequence", "#version", "version"))
+                    .expressionAttributeValues(Map.of(":one", AttributeValue.builder().n("1").build()))
+                    .returnValues(ReturnValue.UPDATED_NEW)
+                    .build())
+                    .attributes().get("waitlistSequence").n());
+        } catch (ConditionalCheckFailedException e) {
+            throw new IllegalArgumentException(FailureReason.COURSE_NOT_FOUND.getMessage(), e);
+        }
     }
 
+    /**
+     * Drops an enrollment or leaves the waitlist. A dropped seat goes to the head of the
+     * course's waitlist in the same transaction that releases it, so no other registrant
+     * can take it in between; if that head was promoted or left concurrently, the next
+     * entry is tried. Entries whose student has since taken a clashing course or lacks a
+     * prerequisite are passed over and stay waitlisted. When nobody eligible is found within
+     * {@link #MAX_WAITLIST_CHECKS} entries the seat is returned to the course, and a follow-up
+     * promotion carries on from the entries this drop already passed over.
+     */
     public boolean dropCourse(String studentId, String courseId) {
-        Registration registration = findActiveRegistration(studentId, courseId);
+        Enrollment enrollment = findEnrollment(studentId, courseId);
+        if (enrollment == null) {
+            return false;
+        }
+        Registration registration = registrationTable.getItem(r -> r
+                .key(Key.builder().partitionValue(enrollment.getRegistrationId()).build())
+                .consistentRead(true));
         if (registration == null) {
             return false;
         }
+        if ("WAITLISTED".equals(registration.getStatus())) {
+            return transactOrFalse(leaveItem(registration.getRegistrationId(), "WAITLISTED"),
+                    releaseMarkerItem(enrollment));
+        }
+
+        String now = Instant.now().toString();
+        Course course = courseService.findById(courseId);
+        Set<String> skipped = new HashSet<>();
+        // Only lost races count as attempts; ineligible entries count against the check budget
+        int checks = 0;
+        for (int attempt = 0; course != null && attempt < MAX_PROMOTION_ATTEMPTS
+                && checks < MAX_WAITLIST_CHECKS; ) {
+            Registration head = nextWaitlisted(courseId, skipped);
+            if (head == null) {
+                break;
+            }
+            checks++;
+            if (!canPromote(head, course)) {
+                skipped.add(head.getRegistrationId());
+                continue;
+            }
+            try {
+                dynamoDbClient.transactWriteItems(TransactWriteItemsRequest.builder()
+                        .transactItems(
+                            leaveItem(registration.getRegistrationId(), "ENROLLED"),
+                            releaseMarkerItem(enrollment),
+                            promoteItem(head.getRegistrationId(), now))
+                        .build());
+            } catch (TransactionCanceledException e) {
+                if (isConditionFailure(e.cancellationReasons(), PROMOTED_ITEM)
+                        && !isConditionFailure(e.cancellationReasons(), DROPPED_ITEM)
+                        && !isConditionFailure(e.cancellationReasons(), RELEASED_MARKER_ITEM)) {
+                    // Someone else promoted or removed this entry; the index may still list it
+                    skipped.add(head.getRegistrationId());
+                    attempt++;
+                    continue;
+                }
+                // Already dropped by a concurrent request
+                return false;
+            }
+            timetables.updateIfPresent(studentId, timetable -> timetable.withoutCourse(courseId));
+            timetables.invalidate(head.getStudentId());
+            return true;
+        }
 
-        registration.setStatus("DROPPED");
-        registration.setDroppedAt(Instant.now().toString());
-        registrationTable.putItem(registration);
+        if (!transactOrFalse(leaveItem(registration.getRegistrationId(), "ENROLLED"),
+                releaseMarkerItem(enrollment))) {
+            // Already dropped by a concurrent request
+            return false;
+        }
         courseService.decrementEnrollment(courseId);
+        timetables.updateIfPresent(studentId, timetable -> timetable.withoutCourse(courseId));
 
+        // Covers an entry that joined while the seat was being released, and the rest of the
+        // line when this drop ran out of checks
+        promoteFromWaitlist(courseId, skipped);
         return true;
     }
 
+    /**
+     * Moves the earliest eligible waitlist entry into a free seat, reserving the seat under
+     * the capacity condition in the same transaction. Entries that now clash with the
+     * student's schedule or miss a prerequisite stay waitlisted. Returns false when the
+     * course is full or nobody eligible waits within {@link #MAX_WAITLIST_CHECKS} entries.
+     */
+    public boolean promoteFromWaitlist(String courseId) {
+        return promoteFromWaitlist(courseId, new HashSet<>());
+    }
+
+    // Entries in skipped were already passed over by the caller and are not checked again
+    private boolean promoteFromWaitlist(String courseId, Set<String> skipped) {
+        String now = Instant.now().toString();
+        Course course = courseService.findById(courseId);
+        if (course == null) {
+            return false;
+        }
+        int checks = 0;
+        for (int attempt = 0; attempt < MAX_PROMOTION_ATTEMPTS && checks < MAX_WAITLIST_CHECKS; ) {
+            Registration head = nextWaitlisted(courseId, skipped);
+            if (head == null) {
+                return false;
+            }
+            checks++;
+            if (!canPromote(head, course)) {
+                skipped.add(head.getRegistrationId());
+                continue;
+            }
+            try {
+                dynamoDbClient.transactWriteItems(TransactWriteItemsRequest.builder()
+                        .transactItems(
+                            TransactWriteItem.builder().update(Update.builder()
+                                    .tableName(COURSES_TABLE)
+                                    .key(Map.of("courseId", stringValue(courseId)))
+                                    .updateExpression("ADD #enrolled :one, #version :one SET #updatedAt = :now")
+                                    .conditionExpression("attribute_exists(courseId) AND #enrolled < #capacity")
+                                    .expressionAttributeNames(Map.of(
+                                            "#enrolled", "enrolled",
+                                            "#capacity", "capacity",
+                                            "#updatedAt", "updatedAt",
+                                            "#version", "version"))
+                                    .expressionAttributeValues(Map.of(
+                                            ":one", AttributeValue.builder().n("1").build(),
+                                            ":now", stringValue(now)))
+                                    .build()).build(),
+                            promoteItem(head.getRegistrationId(), now))
+                        .build());
+            } catch (TransactionCanceledException e) {
+                if (isConditionFailure(e.cancellationReasons(), PROMOTED_HEAD_ITEM)
+                        && !isConditionFailure(e.cancellationReasons(), COURSE_CHECK_ITEM)) {
+                    skipped.add(head.getRegistrationId());
+                    attempt++;
+                    continue;
+                }
+                return false;
+            }
+            courseService.onEnrollmentCommitted(courseId, 1);
+            timetables.invalidate(head.getStudentId());
+            return true;
+        }
+        return false;
+    }
+
+    // The student may have taken a clashing course or lost a prerequisite while waiting, so the
+    // checks are redone against fresh reads rather than the cached timetable
+    private boolean canPromote(Registration head, Course course) {
+        PrerequisiteGraph graph = courseService.getPrerequisiteGraph();
+        if (graph.hasPrerequisites(course.getCourseId()) && !graph.isSatisfied(course.getCourseId(),
+                graph.satisfiedBy(getCompletedCourseIds(head.getStudentId())))) {
+            return false;
+        }
+        return !StudentTimetable.of(getStudentCourses(head.getStudentId())).conflictsWith(course);
+    }
+
+    // Earliest waitlist entry not already known to be stale; the index is read page by page
+    private Registration nextWaitlisted(String courseId, Set<String> skipped) {
+        return registrationTable.index("waitlist-index")
+                .query(r -> r
+                        .queryConditional(QueryConditional.keyEqualTo(Key.builder().partitionValue(courseId).build()))
+                        .limit(WAITLIST_PAGE_SIZE))
+                .stream()
+                .flatMap(page -> page.items().stream())
+                .filter(reg -> !skipped.contains(reg.getRegistrationId()))
+                .findFirst()
+                .orElse(null);
+    }
+
+    private boolean transactOrFalse(TransactWriteItem... items) {
+        try {
+            dynamoDbClient.transactWriteItems(TransactWriteItemsRequest.builder().transactItems(items).build());
+            return true;
+        } catch (TransactionCanceledException e) {
+            return false;
+        }
+    }
+
+    private static TransactWriteItem leaveItem(String registrationId, String expectedStatus) {
+        return TransactWriteItem.builder().update(Update.builder()
+                .tableName(REGISTRATIONS_TABLE)
+                .key(Map.of("registrationId", stringValue(registrationId)))
+                .updateExpression("SET #status = :dropped, droppedAt = :now REMOVE waitlistCourseId, waitlistPosition ADD #version :one")
+                .conditionExpression("#status = :expected")
+                .expressionAttributeNames(Map.of("#status", "status", "#version", "version"))
+                .expressionAttributeValues(Map.of(
+                        ":dropped", stringValue("DROPPED"),
+                        ":expected", stringValue(expectedStatus),
+                        ":one", AttributeValue.builder().n("1").build(),
+                        ":now", stringValue(Instant.now().toString())))
+                .build()).build();
+    }
+
+    private static TransactWriteItem releaseMarkerItem(Enrollment enrollment) {
+        return TransactWriteItem.builder().delete(Delete.builder()
+                .tableName(ENROLLMENTS_TABLE)
+                .key(Map.of("enrollmentKey", stringValue(enrollment.getEnrollmentKey())))
+                .conditionExpression("registrationId = :registrationId")
+                .expressionAttributeValues(Map.of(
+                        ":registrationId", stringValue(enrollment.getRegistrationId())))
+                .build()).build();
+    }
+
+    // The promoted student keeps the marker written when they joined the waitlist
+    private static TransactWriteItem promoteItem(String registrationId, String now) {
+        return TransactWriteItem.builder().update(Update.builder()
+                .tableName(REGISTRATIONS_TABLE)
+                .key(Map.of("registrationId", stringValue(registrationId)))
+                .updateExpression("SET #status = :enrolled, registeredAt = :now REMOVE waitlistCourseId, waitlistPosition ADD #version :one")
+                .conditionExpression("#status = :waitlisted")
+                .expressionAttributeNames(Map.of("#status", "status", "#version", "version"))
+                .expressionAttributeValues(Map.of(
+                        ":enrolled", stringValue("ENROLLED"),
+                        ":waitlisted", stringValue("WAITLISTED"),
+                        ":one", AttributeValue.builder().n("1").build(),
+                        ":now", stringValue(now)))
+                .build()).build();
+    }
+
+    /**
+     * Registers many (student, course) pairs at once. Students, courses and enrollment
+     * markers are loaded with BatchGetItem, seats are reserved with one conditional update
+     * per course, and registrations plus markers are written in BatchWriteItem calls of up
+     * to 25 items, each registration in the same call as its marker. Results are returned
+     * in request order. If a call fails, the pairs that did not land in full are removed and
+     * their seats released before the failure is rethrown; every other pair stays written.
+     *
+     * BatchWriteItem cannot carry conditions, so duplicates are detected from the marker
+     * read; a single registration racing the batch for the same pair is not excluded.
+     */
+    public List<RegistrationResult> registerBatch(List<RegistrationRequest> requests) {
+        RegistrationResult[] results = new RegistrationResult[requests.size()];
+
+        Map<String, Student> students = batchLoad(STUDENTS_TABLE, "studentId", STUDENT_SCHEMA,
+                requests.stream().map(RegistrationRequest::getStudentId).collect(Collectors.toList()),
+                Student::getStudentId);
+        Map<String, Course> courses = batchLoad(COURSES_TABLE, "courseId", COURSE_SCHEMA,
+                requests.stream().map(RegistrationRequest::getCourseId).collect(Collectors.toList()),
+                Course::getCourseId);
+        Map<String, Enrollment> enrollments = batchLoad(ENROLLMENTS_TABLE, "enrollmentKey", ENROLLMENT_SCHEMA,
+                requests.stream()
+                        .map(request -> Enrollment.keyFor(request.getStudentId(), request.getCourseId()))
+                        .collect(Collectors.toList()),
+                Enrollment::getEnrollmentKey);
+
+        // Validate every pair, collecting the surviving candidates per course in request order
+        PrerequisiteGraph prerequisites = courseService.getPrerequisiteGraph();
+        Map<String, BitSet> satisfiedByStudent = new HashMap<>();
+        Set<RegistrationRequest> seen = new HashSet<>();
+        Map<String, StudentTimetable> timetablesByStudent = new HashMap<>();
+        Map<String, List<Integer>> candidatesByCourse = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            RegistrationRequest request = requests.get(i);
+            Course course = courses.get(request.getCourseId());
+            if (!students.containsKey(request.getStudentId())) {
+                results[i] = RegistrationResult.failure(FailureReason.STUDENT_NOT_FOUND);
+            } else if (course == null) {
+                results[i] = RegistrationResult.failure(FailureReason.COURSE_NOT_FOUND);
+            } else if (!seen.add(request)
+                    || enrollments.containsKey(Enrollment.keyFor(request.getStudentId(), request.getCourseId()))) {
+                results[i] = RegistrationResult.failure(FailureReason.DUPLICATE);
+            } else if (prerequisites.hasPrerequisites(course.getCourseId())
+                    && !prerequisites.isSatisfied(course.getCourseId(), satisfiedByStudent.computeIfAbsent(
+                            request.getStudentId(), id -> prerequisites.satisfiedBy(getCompletedCourseIds(id))))) {
+                results[i] = RegistrationResult.failure(FailureReason.PREREQUISITES_NOT_MET);
+            } else {
+                // Courses accepted earlier in this batch count towards the student's schedule
+                StudentTimetable timetable = timetablesByStudent.computeIfAbsent(
+                        request.getStudentId(), this::getStudentTimetable);
+                if (timetable.conflictsWith(course)) {
+                    results[i] = RegistrationResult.failure(FailureReason.SCHEDULE_CONFLICT);
+                } else {
+                    timetablesByStudent.put(request.getStudentId(), timetable.withCourse(course));
+                    candidatesByCourse.computeIfAbsent(course.getCourseId(), id -> new ArrayList<>()).add(i);
+                }
+            }
+        }
+
+        // One counter update per course; candidates beyond the granted seats are full
+        List<Registration> toWrite = new ArrayList<>();
+        List<Map<String, List<WriteRequest>>> writeGroups = new ArrayList<>();
+        candidatesByCourse.forEach((courseId, candidates) -> {
+            int granted = courseService.reserveSeats(courses.get(courseId), candidates.size());
+            for (int n = 0; n < candidates.size(); n++) {
+                int index = candidates.get(n);
+                if (n >= granted) {
+                    results[index] = RegistrationResult.failure(FailureReason.COURSE_FULL);
+                    continue;
+                }
+                RegistrationRequest request = requests.get(index);
+                Registration registration = new Registration();
+                registration.setRegistrationId(UUID.randomUUID().toString());
+                registration.setStudentId(request.getStudentId());
+                registration.setCourseId(courseId);
+                registration.setStatus("ENROLLED");
+                registration.setVersion(1L);
+
+                Enrollment enrollment = new Enrollment();
+                enrollment.setEnrollmentKey(Enrollment.keyFor(request.getStudentId(), courseId));
+                enrollment.setRegistrationId(registration.getRegistrationId());
+                enrollment.setStudentId(request.getStudentId());
+                enrollment.setCourseId(courseId);
+
+                // A registration and its marker always go out in the same BatchWriteItem call
+                toWrite.add(registration);
+                writeGroups.add(Map.of(
+                        REGISTRATIONS_TABLE, List.of(putRequest(REGISTRATION_SCHEMA.itemToMap(registration, true))),
+                        ENROLLMENTS_TABLE, List.of(putRequest(ENROLLMENT_SCHEMA.itemToMap(enrollment, true)))));
+                results[index] = RegistrationResult.success(registration);
+            }
+        });
+
+        Set<Registration> unwritten = new HashSet<>();
+        try {
+            DynamoDbBatchSupport.batchWriteGroups(dynamoDbClient, writeGroups);
+        } catch (DynamoDbBatchSupport.PartialWriteException e) {
+            BitSet groups = e.getUnwrittenGroups();
+            for (int group = groups.nextSetBit(0); group >= 0; group = groups.nextSetBit(group + 1)) {
+                unwritten.add(toWrite.get(group));
+            }
+            try {
+                undoBatchRegistrations(unwritten);
+            } catch (RuntimeException cleanup) {
+                e.addSuppressed(cleanup);
+            }
+            throw e;
+        } finally {
+            for (Registration registration : toWrite) {
+                if (!unwritten.contains(registration)) {
+                    Course course = courses.get(registration.getCourseId());
+                    timetables.updateIfPresent(registration.getStudentId(),
+                            timetable -> timetable.withCourse(course));
+                }
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    // Pairs from a failed batch call may have landed in part: removes whichever item did and
+    // gives the seat back. Pairs written by earlier calls keep their seats.
+    private void undoBatchRegistrations(Collection<Registration> registrations) {
+        Map<String, Integer> seatsByCourse = new HashMap<>();
+        for (Registration registration : registrations) {
+            registrationTable.deleteItem(Key.builder().partitionValue(registration.getRegistrationId()).build());
+            try {
+                // Only our own marker; a concurrent single registration may own the pair by now
+                enrollmentTable.deleteItem(r -> r
+                        .key(Key.builder()
+                                .partitionValue(Enrollment.keyFor(registration.getStudentId(), registration.getCourseId()))
+                                .build())
+                        .conditionExpression(Expression.builder()
+                                .expression("registrationId = :registrationId")
+                                .expressionValues(Map.of(":registrationId", stringValue(registration.getRegistrationId())))
+                                .build()));
+            } catch (ConditionalCheckFailedException e) {
+                // Marker was never written, or belongs to another registration
+            }
+            seatsByCourse.merge(registration.getCourseId(), 1, Integer::sum);
+        }
+        seatsByCourse.forEach(courseService::releaseSeats);
+    }
+
+    private <T> Map<String, T> batchLoad(String tableName, String keyName, TableSchema<T> schema,
+                                         List<String> ids, Function<T, String> idOf) {
+        return DynamoDbBatchSupport.batchGetByIds(dynamoDbClient, tableName, keyName, schema, idOf, ids, true)
+                .stream()
+                .collect(Collectors.toMap(idOf, item -> item));
+    }
+
+    private static WriteRequest putRequest(Map<String, AttributeValue> item) {
+        return WriteRequest.builder().putRequest(PutRequest.builder().item(item).build()).build();
+    }
+
     public List<Registration> getStudentRegistrations(String studentId) {
         try {
             return registrationTable.index("student-index")
@@ -109,49 +682,212 @@ public class RegistrationService {
         }
     }
 
-    public List<Course> getStudentCourses(String studentId) {
-        return getStudentRegistrations(studentId).stream()
-                .map(reg -> courseService.findById(reg.getCourseId()))
-                .filter(course -> course != null)
-                .collect(Collectors.toList());
+    /**
+     * One page of the course's enrolled registrations, read from course-index.
+     */
+    public Page<Registration> getCourseRegistrations(String courseId, int limit, String cursor) {
+        Expression enrolled = Expression.builder()
+                .expression("#status = :enrolled")
+                .expressionNames(Map.of("#status", "status"))
+                .expressionValues(Map.of(":enrolled", stringValue("ENROLLED")))
+                .build();
+        return DynamoDbPaging.query(registrationTable, "course-index",
+                QueryConditional.keyEqualTo(Key.builder().partitionValue(courseId).build()), enrolled, limit, cursor);
+    }
+
+    public List<Registration> getStudentWaitlist(String studentId) {
+        try {
+            return registrationTable.index("student-index")
+                    .query(QueryConditional.keyEqualTo(Key.builder().partitionValue(studentId).build()))
+                    .stream()
+                    .flatMap(page -> page.items().stream())
+                    .filter(reg -> "WAITLISTED".equals(reg.getStatus()))
+                    .collect(Collectors.toList());
+        } catch (Exception e) {
+            return List.of();
+        }
     }
 
-    private boolean isStudentRegisteredForCourse(String studentId, String courseId) {
-        return findActiveRegistration(studentId, courseId) != null;
+    /**
+     * Returns the course's waitlist in FIFO order.
+     */
+    public List<Registration> getCourseWaitlist(String courseId) {
+        return registrationTable.index("waitlist-index")
+                .query(QueryConditional.keyEqualTo(Key.builder().partitionValue(courseId).build()))
+                .stream()
+                .flatMap(page -> page.items().stream())
+                .collect(Collectors.toList());
     }
 
-    private Registration findActiveRegistration(String studentId, String courseId) {
-        return getStudentRegistrations(studentId).stream()
-                .filter(reg -> reg.getCourseId().equals(courseId))
+    /**
+     * Returns the student's 1-based place in the course's waitlist, or 0 if not waitlisted.
+     */
+    public int getWaitlistPosition(String studentId, String courseId) {
+        Registration registration = getStudentWaitlist(studentId).stream()
+                .filter(reg -> courseId.equals(reg.getCourseId()))
                 .findFirst()
                 .orElse(null);
+        if (registration == null) {
+            return 0;
+        }
+        int ahead = dynamoDbClient.queryPaginator(QueryRequest.builder()
+                        .tableName(REGISTRATIONS_TABLE)
+                        .indexName("waitlist-index")
+                        .keyConditionExpression("waitlistCourseId = :courseId AND waitlistPosition < :position")
+                        .expressionAttributeValues(Map.of(
+                                ":courseId", stringValue(courseId),
+                                ":position", AttributeValue.builder()
+                                        .n(registration.getWaitlistPosition().toString()).build()))
+                        .select(Select.COUNT)
+                        .build())
+                .stream()
+                .mapToInt(QueryResponse::count)
+                .sum();
+        return ahead + 1;
     }
 
-    private boolean hasScheduleConflict(String studentId, Course newCourse) {
-        List<Course> studentCourses = getStudentCourses(studentId);
-        
-        // Simple schedule conflict check - in a real system, you'd parse the schedule strings
-        // and check for actual time overlaps
-        for (Course existingCourse : studentCourses) {
-            if (existingCourse.getSchedule() != null && newCourse.getSchedule() != null) {
-                // This is a simplified check - you'd want more sophisticated schedule parsing
-                if (existingCourse.getSchedule().equals(newCourse.getSchedule())) {
-                    return true;
-                }
+    public List<Course> getStudentCourses(String studentId) {
+        return courseService.findAllByIds(getStudentRegistrations(studentId).stream()
+                .map(Registration::getCourseId)
+                .collect(Collectors.toList()));
+    }
+
+    public List<Student> getCourseRoster(String courseId) {
+        return studentService.findAllByIds(getCourseRegistrations(courseId).stream()
+                .map(Registration::getStudentId)
+                .collect(Collectors.toList()));
+    }
+
+    public Page<Student> getCourseRoster(String courseId, int limit, String cursor) {
+        Page<Registration> registrations = getCourseRegistrations(courseId, limit, cursor);
+        return registrations.withItems(studentService.findAllByIds(registrations.getItems().stream()
+                .map(Registration::getStudentId)
+                .collect(Collectors.toList())));
+    }
+
+    /**
+     * Runs the checks shared by registration and the waitlist. Their reads do not depend on
+     * each other, so they are issued together on the async client: the student, the course,
+     * the (student, course) enrollment marker and, only when prerequisites or an uncached
+     * timetable need it, the student's registration history. The checks then wait for the
+     * slowest read instead of the sum of all of them.
+     */
+    private Validation validate(String studentId, String courseId) {
+        PrerequisiteGraph graph = courseService.getPrerequisiteGraph();
+        boolean checkPrerequisites = graph.hasPrerequisites(courseId);
+        StudentTimetable timetable = timetables.getIfPresent(studentId);
+
+        CompletableFuture<Optional<Student>> student = asyncStudentRepository.findById(studentId);
+        CompletableFuture<Course> course = courseService.findByIdAsync(courseId);
+        CompletableFuture<Optional<Enrollment>> enrollment =
+                asyncRegistrationRepository.findEnrollment(studentId, courseId);
+        CompletableFuture<List<Registration>> history = checkPrerequisites || timetable == null
+                ? asyncRegistrationRepository.findByStudentId(studentId)
+                : CompletableFuture.completedFuture(List.of());
+        await(CompletableFuture.allOf(student, course, enrollment, history));
+
+        if (student.join().isEmpty()) {
+            return Validation.failed(FailureReason.STUDENT_NOT_FOUND);
+        }
+        if (course.join() == null) {
+            return Validation.failed(FailureReason.COURSE_NOT_FOUND);
+        }
+        if (enrollment.join().isPresent()) {
+            return Validation.failed(FailureReason.DUPLICATE);
+        }
+        if (checkPrerequisites && !graph.isSatisfied(courseId, graph.satisfiedBy(completedCourseIds(history.join())))) {
+            return Validation.failed(FailureReason.PREREQUISITES_NOT_MET);
+        }
+        if (timetable == null) {
+            timetable = timetables.get(studentId, id -> StudentTimetable.of(courseService.findAllByIds(
+                    history.join().stream()
+                            .filter(reg -> "ENROLLED".equals(reg.getStatus()))
+                            .map(Registration::getCourseId)
+                            .collect(Collectors.toList()))));
+        }
+        if (timetable.conflictsWith(course.join())) {
+            return Validation.failed(FailureReason.SCHEDULE_CONFLICT);
+        }
+        return new Validation(course.join(), null);
+    }
+
+    // Rethrows a failed read as itself rather than wrapped in CompletionException
+    private static void await(CompletableFuture<?> reads) {
+        try {
+            reads.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
             }
+            throw e;
         }
-        return false;
     }
 
+    // Point read on the (student, course) marker; cost does not grow with the student's history
+    private Enrollment findEnrollment(String studentId, String courseId) {
+        Key key = Key.builder().partitionValue(Enrollment.keyFor(studentId, courseId)).build();
+        return enrollmentTable.getItem(r -> r.key(key).consistentRead(true));
+    }
+
+    private List<String> getCompletedCourseIds(String studentId) {
+        return completedCourseIds(registrationTable.index("student-index")
+                .query(QueryConditional.keyEqualTo(Key.builder().partitionValue(studentId).build()))
+                .stream()
+                .flatMap(page -> page.items().stream())
+                .collect(Collectors.toList()));
+    }
+
+    private static List<String> completedCourseIds(List<Registration> history) {
+        return history.stream()
+                .filter(PrerequisiteGraph::isCompleted)
+                .map(Registration::getCourseId)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the student's cached timetable (occupied time slots and credit load),
+     * loading it from the student's active registrations on a miss.
+     */
+    public StudentTimetable getStudentTimetable(String studentId) {
+        return timetables.get(studentId, id -> StudentTimetable.of(getStudentCourses(id)));
+    }
+
+    public int getStudentCreditLoad(String studentId) {
+        return getStudentTimetable(studentId).getTotalCredits();
+    }
+
+    private static AttributeValue stringValue(String value) {
+        return AttributeValue.builder().s(value).build();
+    }
+
+    /**
+     * Sets the grade on the latest stored registration. The write is conditioned on the
+     * version read, so a concurrent drop or promotion is re-read rather than overwritten.
+     */
     public Registration updateGrade(String registrationId, String grade) {
         Key key = Key.builder().partitionValue(registrationId).build();
-        Registration registration = registrationTable.getItem(key);
-        
-        if (registration != null) {
-            registration.setGrade(grade);
-            registrationTable.putItem(registration);
+        return OptimisticLocking.update(
+                () -> registrationTable.getItem(r -> r.key(key).consistentRead(true)),
+                registration -> registration.setGrade(grade),
+                registration -> {
+                    registrationTable.putItem(registration);
+                    registration.setVersion(OptimisticLocking.nextVersion(registration.getVersion()));
+                    return registration;
+                });
+    }
+
+    // The validated course, or why validation failed
+    private static final class Validation {
+        private final Course course;
+        private final FailureReason failure;
+
+        private Validation(Course course, FailureReason failure) {
+            this.course = course;
+            this.failure = failure;
+        }
+
+        private static Validation failed(FailureReason failure) {
+            return new Validation(null, failure);
         }
-        
-        return registration;
     }
-}
\ No newline at end of file
+}
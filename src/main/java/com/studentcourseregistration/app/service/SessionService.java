@@ -0,0 +1,228 @@
+package com.studentcourseregistration.app.service;
+
+import com.studentcourseregistration.app.config.DynamoDbConfig;
+import com.studentcourseregistration.app.model.Session;
+import com.studentcourseregistration.app.model.Student;
+import com.studentcourseregistration.app.util.LruCache;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Issues opaque session tokens after one password check, so later requests resolve the
+ * token to its student with a map lookup instead of running BCrypt again. Sessions expire
+ * after an idle timeout that restarts on every use, and never outlive the maximum lifetime.
+ *
+ * The local store is a bounded LRU; the least recently used session is dropped when it is
+ * full. A shared service also keeps sessions in the Sessions table, so any node can resolve
+ * a token and an evicted session is reloaded. Shared sessions are re-read at most every
+ * {@link #REVALIDATE_INTERVAL}, which bounds how long a logout takes to reach other nodes.
+ */
+public class SessionService {
+    public static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofMinutes(30);
+    public static final Duration DEFAULT_MAX_LIFETIME = Duration.ofHours(12);
+    public static final int DEFAULT_MAX_SESSIONS = 10_000;
+    public static final Duration REVALIDATE_INTERVAL = Duration.ofSeconds(30);
+
+    private static final String TABLE_NAME = "Sessions";
+    private static final int TOKEN_BYTES = 32;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final BiFunction<String, String, Student> authenticator;
+    private final Function<String, Student> studentLoader;
+    private final Duration idleTimeout;
+    private final Duration maxLifetime;
+    private final LruCache<String, LocalSession> sessions;
+    // Null when sessions live only in this process
+    private final DynamoDbTable<Session> sessionTable;
+    private final DynamoDbClient dynamoDbClient;
+
+    /**
+     * A process-local session store with the default limits.
+     *
+     * @param authenticator returns the student for valid credentials, or null
+     * @param studentLoader loads a student by id, for sessions read back from the table
+     */
+    public SessionService(BiFunction<String, String, Student> authenticator,
+                          Function<String, Student> studentLoader) {
+        this(authenticator, studentLoader, DEFAULT_IDLE_TIMEOUT, DEFAULT_MAX_LIFETIME, DEFAULT_MAX_SESSIONS, false);
+    }
+
+    public SessionService(BiFunction<String, String, Student> authenticator,
+                          Function<String, Student> studentLoader,
+                          Duration idleTimeout, Duration maxLifetime, int maxSessions, boolean shared) {
+        if (idleTimeout.isNegative() || idleTimeout.isZero() || maxLifetime.compareTo(idleTimeout) < 0) {
+            throw new IllegalArgumentException("Idle timeout must be positive and no longer than the maximum lifetime");
+        }
+        if (maxSessions <= 0) {
+            throw new IllegalArgumentException("Maximum sessions must be positive");
+        }
+        this.authenticator = authenticator;
+        this.studentLoader = studentLoader;
+        this.idleTimeout = idleTimeout;
+        this.maxLifetime = maxLifetime;
+        this.sessions = new LruCache<>(maxSessions, idleTimeout);
+        if (shared) {
+            this.sessionTable = DynamoDbConfig.getEnhancedClient().table(TABLE_NAME, TableSchema.fromBean(Session.class));
+            this.dynamoDbClient = DynamoDbConfig.getDynamoDbClient();
+        } else {
+            this.sessionTable = null;
+            this.dynamoDbClient = null;
+        }
+    }
+
+    /**
+     * Checks the credentials and starts a session. Returns the session token, or null if the
+     * credentials are wrong.
+     */
+    public String login(String username, String password) {
+        Student student = authenticator.apply(username, password);
+        if (student == null) {
+            return null;
+        }
+        String token = newToken();
+        long now = System.currentTimeMillis();
+        LocalSession session = new LocalSession(student, now + maxLifetime.toMillis());
+        if (sessionTable != null) {
+            Session item = new Session();
+            item.setSessionKey(hash(token));
+            item.setStudentId(student.getStudentId());
+            item.setExpiresAt(session.nextExpiresAt(now));
+            item.setMaxExpiresAt(session.maxExpiresAtMillis / 1000);
+            sessionTable.putItem(item);
+            session.sharedExpiresAt = item.getExpiresAt();
+        }
+        sessions.put(token, session);
+        return token;
+    }
+
+    /**
+     * Returns the student the token belongs to and extends the session, or null if the
+     * token is unknown, expired or logged out.
+     */
+    public Student resolve(String token) {
+        if (token == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        LocalSession session = sessions.getIfPresent(token);
+        if (sessionTable != null && (session == null
+                || System.nanoTime() - session.validatedAt >= REVALIDATE_INTERVAL.toNanos())) {
+            if (session != null) {
+                sessions.invalidate(token);
+            }
+            // The cache drops the reloaded session if a logout lands while it is in flight
+            session = sessions.get(token, key -> loadShared(key, now));
+        }
+        // Unknown tokens cost no write; the table's TTL removes expired items
+        if (session == null || now >= session.maxExpiresAtMillis) {
+            sessions.invalidate(token);
+            return null;
+        }
+        if (sessionTable != null && !touchShared(token, session, now)) {
+            sessions.invalidate(token);
+            return null;
+        }
+        // Restarts the idle timeout, but never brings back a session logged out meanwhile
+        if (!sessions.touch(token)) {
+            return null;
+        }
+        return session.student;
+    }
+
+    public void logout(String token) {
+        if (token == null) {
+            return;
+        }
+        sessions.invalidate(token);
+        if (sessionTable != null) {
+            sessionTable.deleteItem(Key.builder().partitionValue(hash(token)).build());
+        }
+    }
+
+    private LocalSession loadShared(String token, long now) {
+        Key key = Key.builder().partitionValue(hash(token)).build();
+        Session item = sessionTable.getItem(r -> r.key(key).consistentRead(true));
+        // The table's TTL deletes expired items lazily, so expiry is checked here too
+        if (item == null || item.getExpiresAt() == null || item.getExpiresAt() * 1000 <= now) {
+            return null;
+        }
+        Student student = studentLoader.apply(item.getStudentId());
+        if (student == null) {
+            return null;
+        }
+        LocalSession session = new LocalSession(student, item.getMaxExpiresAt() * 1000);
+        session.sharedExpiresAt = item.getExpiresAt();
+        return session;
+    }
+
+    // Writes the extended expiry only once half the idle timeout has been used up, so an
+    // active session costs one write per half timeout rather than one per request
+    private boolean touchShared(String token, LocalSession session, long now) {
+        long remainingSeconds = session.sharedExpiresAt - now / 1000;
+        if (remainingSeconds > idleTimeout.toSeconds() / 2) {
+            return true;
+        }
+        long expiresAt = session.nextExpiresAt(now);
+        try {
+            dynamoDbClient.updateItem(r -> r
+                    .tableName(TABLE_NAME)
+                    .key(Map.of("sessionKey", AttributeValue.builder().s(hash(token)).build()))
+                    .updateExpression("SET expiresAt = :expiresAt")
+                    .conditionExpression("attribute_exists(sessionKey)")
+                    .expressionAttributeValues(Map.of(
+                            ":expiresAt", AttributeValue.builder().n(Long.toString(expiresAt)).build())));
+        } catch (ConditionalCheckFailedException e) {
+            // Logged out on another node
+            return false;
+        }
+        session.sharedExpiresAt = expiresAt;
+        return true;
+    }
+
+    private static String newToken() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private final class LocalSession {
+        private final Student student;
+        private final long maxExpiresAtMillis;
+        private final long validatedAt = System.nanoTime();
+        private volatile long sharedExpiresAt;
+
+        private LocalSession(Student student, long maxExpiresAtMillis) {
+            this.student = student;
+            this.maxExpiresAtMillis = maxExpiresAtMillis;
+        }
+
+        // Epoch seconds of a full idle timeout from now, capped by the maximum lifetime
+        private long nextExpiresAt(long now) {
+            return Math.min(now + idleTimeout.toMillis(), maxExpiresAtMillis) / 1000;
+        }
+    }
+}
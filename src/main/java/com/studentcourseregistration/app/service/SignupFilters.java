@@ -0,0 +1,168 @@
+package com.studentcourseregistration.app.service;
+
+import com.studentcourseregistration.app.config.DynamoDbConfig;
+import com.studentcourseregistration.app.model.Student;
+import com.studentcourseregistration.app.util.BloomFilter;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bloom filters over the stored usernames and emails, shared by every StudentService in the
+ * process. A negative answer lets a signup skip the index lookups for a value. The filters
+ * are filled by a Students scan on a background thread and swapped in when it completes;
+ * until the first scan lands every value might be present, so callers never wait on a scan.
+ *
+ * Values are never removed, since one created elsewhere after the scan was never added
+ * here. A released value stays a false positive until the filters are rebuilt, which
+ * happens after {@link #REBUILD_INTERVAL} or {@link #REBUILD_AFTER_RELEASES} releases.
+ */
+final class SignupFilters {
+    static final Duration REBUILD_INTERVAL = Duration.ofHours(1);
+    static final int REBUILD_AFTER_RELEASES = 1_000;
+
+    private static final int EXPECTED_STUDENTS = 100_000;
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    // Idle threads exit, so the loader costs nothing between rebuilds
+    private static final ExecutorService LOADER = newLoader();
+
+    private static final class Holder {
+        private static final SignupFilters INSTANCE = new SignupFilters();
+    }
+
+    private volatile Filters current;
+    // Values added while a rebuild scans, replayed into its result; non-null while one runs
+    private List<String> pendingUsernames;
+    private List<String> pendingEmails;
+
+    private SignupFilters() {
+    }
+
+    static SignupFilters shared() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Starts a background rebuild when the filters are missing or due one; never blocks.
+     */
+    void warm() {
+        Filters filters = current;
+        if (filters != null && filters.releases.get() < REBUILD_AFTER_RELEASES
+                && System.nanoTime() - filters.loadedAt < REBUILD_INTERVAL.toNanos()) {
+            return;
+        }
+        synchronized (this) {
+            if (pendingUsernames != null) {
+                return;
+            }
+            pendingUsernames = new ArrayList<>();
+            pendingEmails = new ArrayList<>();
+        }
+        try {
+            LOADER.execute(this::rebuild);
+        } catch (RuntimeException e) {
+            finishRebuild();
+            throw e;
+        }
+    }
+
+    boolean mightContainUsername(String username) {
+        warm();
+        Filters filters = current;
+        return filters == null || filters.usernames.mightContain(username);
+    }
+
+    boolean mightContainEmail(String email) {
+        warm();
+        Filters filters = current;
+        return filters == null || filters.emails.mightContain(email);
+    }
+
+    /**
+     * Records values this process just claimed; either may be null.
+     */
+    synchronized void add(String username, String email) {
+        Filters filters = current;
+        if (username != null) {
+            if (filters != null) {
+                filters.usernames.add(username);
+            }
+            if (pendingUsernames != null) {
+                pendingUsernames.add(username);
+            }
+        }
+        if (email != null) {
+            if (filters != null) {
+                filters.emails.add(email);
+            }
+            if (pendingEmails != null) {
+                pendingEmails.add(email);
+            }
+        }
+    }
+
+    /**
+     * Counts a released username or email towards the next rebuild.
+     */
+    void released() {
+        Filters filters = current;
+        if (filters != null) {
+            filters.releases.incrementAndGet();
+        }
+    }
+
+    private void rebuild() {
+        try {
+            Filters loaded = new Filters();
+            DynamoDbConfig.getEnhancedClient().table("Students", TableSchema.fromBean(Student.class))
+                    .scan(r -> r.attributesToProject("username", "email")).items().forEach(student -> {
+                        if (student.getUsername() != null) {
+                            loaded.usernames.add(student.getUsername());
+                        }
+                        if (student.getEmail() != null) {
+                            loaded.emails.add(student.getEmail());
+                        }
+                    });
+            synchronized (this) {
+                pendingUsernames.forEach(loaded.usernames::add);
+                pendingEmails.forEach(loaded.emails::add);
+                current = loaded;
+            }
+        } catch (RuntimeException e) {
+            // Keep the filters we have; the next warm() tries again
+        } finally {
+            finishRebuild();
+        }
+    }
+
+    private synchronized void finishRebuild() {
+        pendingUsernames = null;
+        pendingEmails = null;
+    }
+
+    private static ExecutorService newLoader() {
+        AtomicInteger count = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 30L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "signup-filter-loader-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static final class Filters {
+        private final BloomFilter usernames = new BloomFilter(EXPECTED_STUDENTS, FALSE_POSITIVE_RATE);
+        private final BloomFilter emails = new BloomFilter(EXPECTED_STUDENTS, FALSE_POSITIVE_RATE);
+        private final long loadedAt = System.nanoTime();
+        private final AtomicInteger releases = new AtomicInteger();
+    }
+}
@@ -1,18 +1,26 @@
 package com.studentcourseregistration.app.service;
 
 import com.studentcourseregistration.app.model.Course;
+import com.studentcourseregistration.app.model.CourseSummary;
+import com.studentcourseregistration.app.repository.CourseFilter;
 import com.studentcourseregistration.app.repository.InMemoryCourseRepository;
+import com.studentcourseregistration.app.repository.Page;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
 public class SimpleCourseService {
     private final InMemoryCourseRepository repository;
+    private final CourseCatalog catalog;
+    private volatile PrerequisiteGraph prerequisiteGraph;
 
     public SimpleCourseService() {
         this.repository = new InMemoryCourseRepository();
+        // The repository's instances are edited in place, so the catalog only ever gets copies
+        this.catalog = new CourseCatalog(() -> repository.findAll().stream().map(Course::new).collect(Collectors.toList()));
     }
 
     public Course createCourse(String courseCode, String courseName, String description,
@@ -33,8 +41,10 @@ public class SimpleCourseService {
         course.setLocation(location);
         course.setCapacity(capacity);
         course.setPrerequisites(prerequisites);
+        checkPrerequisites(course);
 
         repository.save(course);
+        catalog.onCourseChanged(new Course(course));
         return course;
     }
 
@@ -42,6 +52,10 @@ public class SimpleCourseService {
         return repository.findById(courseId).orElse(null);
     }
 
+    public List<Course> findAllByIds(Collection<String> courseIds) {
+        return repository.findAllByIds(courseIds);
+    }
+
     public Course findByCourseCode(String courseCode) {
         return repository.findByCourseCode(courseCode).orElse(null);
     }
@@ -50,51 +64,146 @@ public class SimpleCourseService {
         return repository.findByDepartment(department);
     }
 
+    public Page<Course> findByDepartment(String department, int limit, String cursor) {
+        return repository.findByDepartment(department, limit, cursor);
+    }
+
     public List<Course> getAllCourses() {
-        return repository.findAll();
+        return catalog.current().getCourses();
+    }
+
+    /**
+     * One page of the catalog in course code order.
+     */
+    public Page<Course> getAllCourses(int limit, String cursor) {
+        return catalog.current().page(limit, cursor, course -> true);
+    }
+
+    /**
+     * Listing summaries of the matching courses in course code order.
+     */
+    public Page<CourseSummary> findCourseSummaries(CourseFilter filter, int limit, String cursor) {
+        Page<Course> page = catalog.current().page(limit, cursor, filter::matches);
+        return page.withItems(page.getItems().stream().map(CourseSummary::of).collect(Collectors.toList()));
     }
 
     public List<Course> getAvailableCourses() {
-        return getAllCourses().stream()
+        return catalog.current().getCourses().stream()
                 .filter(Course::isAvailable)
                 .collect(Collectors.toList());
     }
 
+    public Page<Course> getAvailableCourses(int limit, String cursor) {
+        return catalog.current().page(limit, cursor, Course::isAvailable);
+    }
+
+    /**
+     * Substring search over code, name, instructor, department and description, answered
+     * from the catalog's trigram index; best matches come first.
+     */
     public List<Course> searchCourses(String searchTerm) {
-        return repository.searchCourses(searchTerm);
+        return catalog.search(searchTerm);
+    }
+
+    public List<Course> searchCourses(String searchTerm, int limit) {
+        return catalog.search(searchTerm, limit);
+    }
+
+    public Page<Course> searchCourses(String searchTerm, int limit, String cursor) {
+        return catalog.search(searchTerm, limit, cursor);
+    }
+
+    /**
+     * Type-ahead completions of course codes, names and instructors, courses with the most
+     * free seats first.
+     */
+    public List<CourseAutocomplete.Suggestion> autocomplete(String prefix, int limit) {
+        return autocomplete(prefix, limit, CourseAutocomplete.Ranking.AVAILABLE_SEATS);
+    }
+
+    public List<CourseAutocomplete.Suggestion> autocomplete(String prefix, int limit,
+                                                            CourseAutocomplete.Ranking ranking) {
+        return catalog.complete(prefix, limit, ranking);
+    }
+
+    /**
+     * Filters the catalog by department, semester, year, credits and open seats from the
+     * catalog's bitmap index, with course counts for every facet value.
+     */
+    public CourseFacetIndex.Result filterCourses(CourseFacetIndex.Query query) {
+        return catalog.filter(query);
     }
 
     public Course updateCourse(Course course) {
+        checkPrerequisites(course);
         course.setUpdatedAt(Instant.now().toString());
         repository.save(course);
+        // Copied under the course lock, so a concurrent seat change cannot be half-seen
+        synchronized (course) {
+            catalog.onCourseChanged(new Course(course));
+        }
         return course;
     }
 
     public void deleteCourse(String courseId) {
         repository.delete(courseId);
+        catalog.onCourseDeleted(courseId);
+    }
+
+    private void checkPrerequisites(Course course) {
+        PrerequisiteGraph.checkAcyclic(catalog.current().getCourses(), course);
+    }
+
+    /**
+     * Returns the prerequisite graph compiled for the catalog snapshot's prerequisites version.
+     */
+    public PrerequisiteGraph getPrerequisiteGraph() {
+        CourseCatalog.Snapshot snapshot = catalog.current();
+        PrerequisiteGraph graph = prerequisiteGraph;
+        if (graph == null || graph.getVersion() != snapshot.getPrerequisitesVersion()) {
+            graph = PrerequisiteGraph.compile(snapshot.getCourses(), snapshot.getPrerequisitesVersion());
+            prerequisiteGraph = graph;
+        }
+        return graph;
     }
 
     public boolean incrementEnrollment(String courseId) {
         Course course = findById(courseId);
-        if (course != null && course.isAvailable()) {
+        if (course == null) {
+            return false;
+        }
+        // Check-and-increment under the course lock so concurrent registrants cannot oversell.
+        // Nothing polls this store, so every seat change reaches the catalog as it happens,
+        // in order under the same lock.
+        synchronized (course) {
+            if (!course.isAvailable()) {
+                return false;
+            }
             course.setEnrolled(course.getEnrolled() + 1);
-            updateCourse(course);
-            return true;
+            course.setUpdatedAt(Instant.now().toString());
+            catalog.onCourseChanged(new Course(course));
         }
-        return false;
+        return true;
     }
 
     public boolean decrementEnrollment(String courseId) {
         Course course = findById(courseId);
-        if (course != null && course.getEnrolled() > 0) {
+        if (course == null) {
+            return false;
+        }
+        synchronized (course) {
+            if (course.getEnrolled() <= 0) {
+                return false;
+            }
             course.setEnrolled(course.getEnrolled() - 1);
-            updateCourse(course);
-            return true;
+            course.setUpdatedAt(Instant.now().toString());
+            catalog.onCourseChanged(new Course(course));
         }
-        return false;
+        return true;
     }
 
     public void clearAll() {
         repository.clear();
+        catalog.rebuild();
     }
 }
\ No newline at end of file
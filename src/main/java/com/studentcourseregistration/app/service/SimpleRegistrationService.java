@@ -4,16 +4,25 @@ import com.studentcourseregistration.app.model.Course;
 import com.studentcourseregistration.app.model.Registration;
 import com.studentcourseregistration.app.model.Student;
 import com.studentcourseregistration.app.repository.InMemoryRegistrationRepository;
+import com.studentcourseregistration.app.repository.Page;
+import com.studentcourseregistration.app.service.RegistrationResult.FailureReason;
+import com.studentcourseregistration.app.util.LruCache;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
 public class SimpleRegistrationService {
+    private static final int TIMETABLE_CACHE_SIZE = 10_000;
+    private static final Duration TIMETABLE_TTL = Duration.ofMinutes(5);
+
     private final InMemoryRegistrationRepository repository;
     private final SimpleCourseService courseService;
     private final SimpleStudentService studentService;
+    private final LruCache<String, StudentTimetable> timetables =
+            new LruCache<>(TIMETABLE_CACHE_SIZE, TIMETABLE_TTL);
 
     public SimpleRegistrationService(SimpleCourseService courseService, SimpleStudentService studentService) {
         this.repository = new InMemoryRegistrationRepository();
@@ -22,31 +31,39 @@ public class SimpleRegistrationService {
     }
 
     public Registration registerStudentForCourse(String studentId, String courseId) {
+        return tryRegisterStudentForCourse(studentId, courseId).orElseThrow();
+    }
+
+    public RegistrationResult tryRegisterStudentForCourse(String studentId, String courseId) {
         // Validate student exists
         Student student = studentService.findById(studentId);
         if (student == null) {
-            throw new IllegalArgumentException("Student not found");
+            return RegistrationResult.failure(FailureReason.STUDENT_NOT_FOUND);
         }
 
         // Validate course exists
         Course course = courseService.findById(courseId);
         if (course == null) {
-            throw new IllegalArgumentException("Course not found");
+            return RegistrationResult.failure(FailureReason.COURSE_NOT_FOUND);
         }
 
-        // Check if student is already registered for this course
-        if (repository.findActiveRegistration(studentId, courseId).isPresent()) {
-            throw new IllegalArgumentException("Student is already registered for this course");
+        // Check if student is already registered or waitlisted for this course
+        if (holdsCourse(studentId, courseId)) {
+            return RegistrationResult.failure(FailureReason.DUPLICATE);
         }
 
-        // Check course capacity
-        if (!course.isAvailable()) {
-            throw new IllegalArgumentException("Course is full");
+        if (!meetsPrerequisites(studentId, courseId)) {
+            return RegistrationResult.failure(FailureReason.PREREQUISITES_NOT_MET);
         }
 
         // Check for schedule conflicts
         if (hasScheduleConflict(studentId, course)) {
-            throw new IllegalArgumentException("Schedule conflict detected");
+            return RegistrationResult.failure(FailureReason.SCHEDULE_CONFLICT);
+        }
+
+        // Reserve a seat; the capacity check is part of the conditional update
+        if (!courseService.incrementEnrollment(courseId)) {
+            return RegistrationResult.failure(FailureReason.COURSE_FULL);
         }
 
         // Create registration
@@ -56,23 +73,103 @@ public class SimpleRegistrationService {
         registration.setCourseId(courseId);
         registration.setStatus("ENROLLED");
 
-        // Save registration and update course enrollment
-        repository.save(registration);
-        courseService.incrementEnrollment(courseId);
+        // Save registration, releasing the reserved seat if a concurrent request won the race
+        boolean saved;
+        try {
+            saved = repository.saveIfAbsent(registration);
+        } catch (RuntimeException e) {
+            courseService.decrementEnrollment(courseId);
+            throw e;
+        }
+        if (!saved) {
+            courseService.decrementEnrollment(courseId);
+            return RegistrationResult.failure(FailureReason.DUPLICATE);
+        }
 
-        return registration;
+        timetables.updateIfPresent(studentId, timetable -> timetable.withCourse(course));
+        return RegistrationResult.success(registration);
+    }
+
+    // Per-pair registration is already O(1) against the indexed in-memory store
+    public List<RegistrationResult> registerBatch(List<RegistrationRequest> requests) {
+        return requests.stream()
+                .map(request -> tryRegisterStudentForCourse(request.getStudentId(), request.getCourseId()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Puts the student at the end of the course's waitlist, or registers them directly if a
+     * seat is free. Check the returned registration's status.
+     */
+    public RegistrationResult joinWaitlist(String studentId, String courseId) {
+        Student student = studentService.findById(studentId);
+        if (student == null) {
+            return RegistrationResult.failure(FailureReason.STUDENT_NOT_FOUND);
+        }
+
+        Course course = courseService.findById(courseId);
+        if (course == null) {
+            return RegistrationResult.failure(FailureReason.COURSE_NOT_FOUND);
+        }
+
+        if (holdsCourse(studentId, courseId)) {
+            return RegistrationResult.failure(FailureReason.DUPLICATE);
+        }
+
+        if (!meetsPrerequisites(studentId, courseId)) {
+            return RegistrationResult.failure(FailureReason.PREREQUISITES_NOT_MET);
+        }
+
+        if (hasScheduleConflict(studentId, course)) {
+            return RegistrationResult.failure(FailureReason.SCHEDULE_CONFLICT);
+        }
+
+        Registration registration = new Registration();
+        registration.setRegistrationId(UUID.randomUUID().toString());
+        registration.setStudentId(studentId);
+        registration.setCourseId(courseId);
+
+        // Decided under the course lock, so a concurrent drop either promotes this entry or frees a seat seen here
+        synchronized (course) {
+            if (course.isAvailable()) {
+                return tryRegisterStudentForCourse(studentId, courseId);
+            }
+            if (!repository.saveWaitlisted(registration)) {
+                return RegistrationResult.failure(FailureReason.DUPLICATE);
+            }
+        }
+        return RegistrationResult.success(registration);
     }
 
+    /**
+     * Drops an enrollment or leaves the waitlist. A dropped seat passes to the head of the
+     * waitlist without ever being released; only an empty waitlist returns it to the course.
+     * Entries whose student has since taken a clashing course or lacks a prerequisite are
+     * passed over and stay waitlisted.
+     */
     public boolean dropCourse(String studentId, String courseId) {
-        Registration registration = repository.findActiveRegistration(studentId, courseId).orElse(null);
+        String now = Instant.now().toString();
+        Registration registration = repository
+                .dropActiveRegistration(studentId, courseId, now)
+                .orElse(null);
         if (registration == null) {
-            return false;
+            return repository.leaveWaitlist(studentId, courseId, now).isPresent();
         }
 
-        registration.setStatus("DROPPED");
-        registration.setDroppedAt(Instant.now().toString());
-        repository.save(registration);
-        courseService.decrementEnrollment(courseId);
+        Course course = courseService.findById(courseId);
+        Registration promoted = null;
+        if (course != null) {
+            synchronized (course) {
+                promoted = repository.promoteNextWaitlisted(courseId, head -> canPromote(head, course)).orElse(null);
+                if (promoted == null) {
+                    courseService.decrementEnrollment(courseId);
+                }
+            }
+        }
+        timetables.updateIfPresent(studentId, timetable -> timetable.withoutCourse(courseId));
+        if (promoted != null) {
+            timetables.invalidate(promoted.getStudentId());
+        }
 
         return true;
     }
@@ -85,27 +182,91 @@ public class SimpleRegistrationService {
         return repository.findActiveByCourseId(courseId);
     }
 
+    public Page<Registration> getCourseRegistrations(String courseId, int limit, String cursor) {
+        return repository.findActiveByCourseId(courseId, limit, cursor);
+    }
+
+    public List<Registration> getStudentWaitlist(String studentId) {
+        return repository.findWaitlistedByStudentId(studentId);
+    }
+
+    /**
+     * Returns the course's waitlist in FIFO order.
+     */
+    public List<Registration> getCourseWaitlist(String courseId) {
+        return repository.findWaitlistByCourseId(courseId);
+    }
+
+    /**
+     * Returns the student's 1-based place in the course's waitlist, or 0 if not waitlisted.
+     */
+    public int getWaitlistPosition(String studentId, String courseId) {
+        List<Registration> waitlist = getCourseWaitlist(courseId);
+        for (int i = 0; i < waitlist.size(); i++) {
+            if (studentId.equals(waitlist.get(i).getStudentId())) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
     public List<Course> getStudentCourses(String studentId) {
-        return getStudentRegistrations(studentId).stream()
-                .map(reg -> courseService.findById(reg.getCourseId()))
-                .filter(course -> course != null)
+        return courseService.findAllByIds(getStudentRegistrations(studentId).stream()
+                .map(Registration::getCourseId)
+                .collect(Collectors.toList()));
+    }
+
+    public List<Student> getCourseRoster(String courseId) {
+        return studentService.findAllByIds(getCourseRegistrations(courseId).stream()
+                .map(Registration::getStudentId)
+                .collect(Collectors.toList()));
+    }
+
+    public Page<Student> getCourseRoster(String courseId, int limit, String cursor) {
+        Page<Registration> registrations = getCourseRegistrations(courseId, limit, cursor);
+        return registrations.withItems(studentService.findAllByIds(registrations.getItems().stream()
+                .map(Registration::getStudentId)
+                .collect(Collectors.toList())));
+    }
+
+    private boolean holdsCourse(String studentId, String courseId) {
+        return repository.findActiveRegistration(studentId, courseId).isPresent()
+                || repository.findWaitlistedRegistration(studentId, courseId).isPresent();
+    }
+
+    // Courses without prerequisites, the common case, skip the registration history lookup
+    private boolean meetsPrerequisites(String studentId, String courseId) {
+        PrerequisiteGraph graph = courseService.getPrerequisiteGraph();
+        if (!graph.hasPrerequisites(courseId)) {
+            return true;
+        }
+        List<String> completed = repository.findByStudentId(studentId).stream()
+                .filter(PrerequisiteGraph::isCompleted)
+                .map(Registration::getCourseId)
                 .collect(Collectors.toList());
+        return graph.isSatisfied(courseId, graph.satisfiedBy(completed));
+    }
+
+    // Re-checked at promotion, since the student's courses may have changed while waiting
+    private boolean canPromote(Registration head, Course course) {
+        return meetsPrerequisites(head.getStudentId(), course.getCourseId())
+                && !hasScheduleConflict(head.getStudentId(), course);
     }
 
     private boolean hasScheduleConflict(String studentId, Course newCourse) {
-        List<Course> studentCourses = getStudentCourses(studentId);
-        
-        // Simple schedule conflict check - in a real system, you'd parse the schedule strings
-        // and check for actual time overlaps
-        for (Course existingCourse : studentCourses) {
-            if (existingCourse.getSchedule() != null && newCourse.getSchedule() != null) {
-                // This is a simplified check - you'd want more sophisticated schedule parsing
-                if (existingCourse.getSchedule().equals(newCourse.getSchedule())) {
-                    return true;
-                }
-            }
-        }
-        return false;
+        return getStudentTimetable(studentId).conflictsWith(newCourse);
+    }
+
+    /**
+     * Returns the student's cached timetable (occupied time slots and credit load),
+     * loading it from the student's active registrations on a miss.
+     */
+    public StudentTimetable getStudentTimetable(String studentId) {
+        return timetables.get(studentId, id -> StudentTimetable.of(getStudentCourses(id)));
+    }
+
+    public int getStudentCreditLoad(String studentId) {
+        return getStudentTimetable(studentId).getTotalCredits();
     }
 
     public Registration updateGrade(String registrationId, String grade) {
@@ -121,5 +282,6 @@ public class SimpleRegistrationService {
 
     public void clearAll() {
         repository.clear();
+        timetables.clear();
     }
 }
\ No newline at end of file
@@ -2,16 +2,24 @@ package com.studentcourseregistration.app.service;
 
 import com.studentcourseregistration.app.model.Student;
 import com.studentcourseregistration.app.repository.InMemoryStudentRepository;
-import org.mindrot.jbcrypt.BCrypt;
+import com.studentcourseregistration.app.util.PasswordHasher;
 
 import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 public class SimpleStudentService {
     private final InMemoryStudentRepository repository;
+    private final PasswordHasher passwordHasher;
 
     public SimpleStudentService() {
+        this(PasswordHasher.getDefault());
+    }
+
+    public SimpleStudentService(PasswordHasher passwordHasher) {
         this.repository = new InMemoryStudentRepository();
+        this.passwordHasher = passwordHasher;
     }
 
     public Student createStudent(String firstName, String lastName, String email, 
@@ -30,7 +38,7 @@ public class SimpleStudentService {
         student.setLastName(lastName);
         student.setEmail(email);
         student.setUsername(username);
-        student.setPasswordHash(BCrypt.hashpw(password, BCrypt.gensalt()));
+        student.setPasswordHash(PasswordHasher.await(passwordHasher.hash(password)));
         student.setMajor(major);
         student.setYear(year);
         student.setGpa(0.0);
@@ -43,6 +51,10 @@ public class SimpleStudentService {
         return repository.findById(studentId).orElse(null);
     }
 
+    public List<Student> findAllByIds(Collection<String> studentIds) {
+        return repository.findAllByIds(studentIds);
+    }
+
     public Student findByUsername(String username) {
         return repository.findByUsername(username).orElse(null);
     }
@@ -52,11 +64,29 @@ public class SimpleStudentService {
     }
 
     public boolean authenticate(String username, String password) {
+        return verifyCredentials(username, password) != null;
+    }
+
+    /**
+     * Returns the student when the password matches, or null. This runs BCrypt; callers that
+     * need the student on every request should hold a session from {@link SessionService}.
+     * A hash made with an outdated cost is replaced while the password is at hand.
+     */
+    public Student verifyCredentials(String username, String password) {
         Student student = findByUsername(username);
-        if (student == null) {
-            return false;
+        if (student == null
+                || !PasswordHasher.await(passwordHasher.verify(password, student.getPasswordHash()))) {
+            return null;
         }
-        return BCrypt.checkpw(password, student.getPasswordHash());
+        if (passwordHasher.needsRehash(student.getPasswordHash())) {
+            try {
+                student.setPasswordHash(PasswordHasher.await(passwordHasher.hash(password)));
+                updateStudent(student);
+            } catch (PasswordHasher.OverloadedException e) {
+                // Keep the old hash; the next login tries again
+            }
+        }
+        return student;
     }
 
     public Student updateStudent(Student student) {
@@ -2,31 +2,73 @@ package com.studentcourseregistration.app.service;
 
 import com.studentcourseregistration.app.config.DynamoDbConfig;
 import com.studentcourseregistration.app.model.Student;
-import org.mindrot.jbcrypt.BCrypt;
+import com.studentcourseregistration.app.model.UniqueConstraint;
+import com.studentcourseregistration.app.repository.DynamoDbBatchSupport;
+import com.studentcourseregistration.app.repository.OptimisticLocking;
+import com.studentcourseregistration.app.util.PasswordHasher;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
 import software.amazon.awssdk.enhanced.dynamodb.Key;
 import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
 import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.CancellationReason;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.Delete;
+import software.amazon.awssdk.services.dynamodb.model.Put;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 public class StudentService {
+    private static final String STUDENTS_TABLE = "Students";
+    private static final String CONSTRAINTS_TABLE = "UniqueConstraints";
+    private static final TableSchema<UniqueConstraint> CONSTRAINT_SCHEMA = TableSchema.fromBean(UniqueConstraint.class);
+
+    // Positions of the items in the create-student transaction
+    private static final int USERNAME_ITEM = 1;
+    private static final int EMAIL_ITEM = 2;
+
     private final DynamoDbTable<Student> studentTable;
+    private final DynamoDbClient dynamoDbClient;
+    private final PasswordHasher passwordHasher;
+    private final SignupFilters signupFilters = SignupFilters.shared();
 
     public StudentService() {
+        this(PasswordHasher.getDefault());
+    }
+
+    public StudentService(PasswordHasher passwordHasher) {
+        this.passwordHasher = passwordHasher;
         DynamoDbEnhancedClient enhancedClient = DynamoDbConfig.getEnhancedClient();
-        this.studentTable = enhancedClient.table("Students", TableSchema.fromBean(Student.class));
+        this.studentTable = enhancedClient.table(STUDENTS_TABLE, TableSchema.fromBean(Student.class));
+        this.dynamoDbClient = DynamoDbConfig.getDynamoDbClient();
+        signupFilters.warm();
     }
 
+    /**
+     * Creates a student. Usernames and emails are claimed by marker items written in the same
+     * transaction as the student, so concurrent signups cannot take the same value. The index
+     * lookups before the write only matter for students stored without markers, and are
+     * skipped when the Bloom filters say the value has never been seen.
+     */
     public Student createStudent(String firstName, String lastName, String email, 
                                String username, String password, String major, Integer year) {
-        // Check if username or email already exists
-        if (findByUsername(username) != null) {
+        if (signupFilters.mightContainUsername(username) && findByUsername(username) != null) {
             throw new IllegalArgumentException("Username already exists");
         }
-        if (findByEmail(email) != null) {
+        if (signupFilters.mightContainEmail(email) && findByEmail(email) != null) {
             throw new IllegalArgumentException("Email already exists");
         }
 
@@ -36,20 +78,77 @@ public class StudentService {
         student.setLastName(lastName);
         student.setEmail(email);
         student.setUsername(username);
-        student.setPasswordHash(BCrypt.hashpw(password, BCrypt.gensalt()));
+        student.setPasswordHash(PasswordHasher.await(passwordHasher.hash(password)));
         student.setMajor(major);
         student.setYear(year);
         student.setGpa(0.0);
+        // Written through the low-level client, so the first version is set here
+        student.setVersion(1L);
 
-        studentTable.putItem(student);
+        try {
+            dynamoDbClient.transactWriteItems(TransactWriteItemsRequest.builder()
+                    .transactItems(
+                        TransactWriteItem.builder().put(Put.builder()
+                                .tableName(STUDENTS_TABLE)
+                                .item(studentTable.tableSchema().itemToMap(student, true))
+                                .conditionExpression("attribute_not_exists(studentId)")
+                                .build()).build(),
+                        claimItem(UniqueConstraint.usernameKey(username), student.getStudentId()),
+                        claimItem(UniqueConstraint.emailKey(email), student.getStudentId()))
+                    .build());
+        } catch (TransactionCanceledException e) {
+            if (isConditionFailure(e.cancellationReasons(), USERNAME_ITEM)) {
+                throw new IllegalArgumentException("Username already exists");
+            }
+            if (isConditionFailure(e.cancellationReasons(), EMAIL_ITEM)) {
+                throw new IllegalArgumentException("Email already exists");
+            }
+            throw e;
+        }
+        signupFilters.add(username, email);
         return student;
     }
 
+    private static TransactWriteItem claimItem(String constraintKey, String studentId) {
+        UniqueConstraint constraint = new UniqueConstraint();
+        constraint.setConstraintKey(constraintKey);
+        constraint.setStudentId(studentId);
+        return TransactWriteItem.builder().put(Put.builder()
+                .tableName(CONSTRAINTS_TABLE)
+                .item(CONSTRAINT_SCHEMA.itemToMap(constraint, true))
+                .conditionExpression("attribute_not_exists(constraintKey)")
+                .build()).build();
+    }
+
+    private static TransactWriteItem releaseItem(String constraintKey, String studentId) {
+        return TransactWriteItem.builder().delete(Delete.builder()
+                .tableName(CONSTRAINTS_TABLE)
+                .key(Map.of("constraintKey", AttributeValue.builder().s(constraintKey).build()))
+                // Only release a claim this student holds; markerless students have none
+                .conditionExpression("attribute_not_exists(constraintKey) OR studentId = :studentId")
+                .expressionAttributeValues(Map.of(":studentId", AttributeValue.builder().s(studentId).build()))
+                .build()).build();
+    }
+
+    private static boolean isConditionFailure(List<CancellationReason> reasons, int itemIndex) {
+        return reasons != null && reasons.size() > itemIndex
+                && "ConditionalCheckFailed".equals(reasons.get(itemIndex).code());
+    }
+
     public Student findById(String studentId) {
         Key key = Key.builder().partitionValue(studentId).build();
         return studentTable.getItem(key);
     }
 
+    /**
+     * Loads several students with BatchGetItem instead of one GetItem per id.
+     * Results follow the order of the ids; missing ids are skipped.
+     */
+    public List<Student> findAllByIds(Collection<String> studentIds) {
+        return DynamoDbBatchSupport.batchGetByIds(dynamoDbClient, "Students", "studentId",
+                studentTable.tableSchema(), Student::getStudentId, studentIds, false);
+    }
+
     public Student findByUsername(String username) {
         try {
             return studentTable.index("username-index")
@@ -77,21 +176,171 @@ public class StudentService {
     }
 
     public boolean authenticate(String username, String password) {
+        return verifyCredentials(username, password) != null;
+    }
+
+    /**
+     * Returns the student when the password matches, or null. This runs BCrypt; callers that
+     * need the student on every request should hold a session from {@link SessionService}.
+     * A hash made with an outdated cost is replaced while the password is at hand.
+     */
+    public Student verifyCredentials(String username, String password) {
         Student student = findByUsername(username);
-        if (student == null) {
-            return false;
+        if (student == null
+                || !PasswordHasher.await(passwordHasher.verify(password, student.getPasswordHash()))) {
+            return null;
+        }
+        if (passwordHasher.needsRehash(student.getPasswordHash())) {
+            try {
+                String verifiedHash = student.getPasswordHash();
+                String newHash = PasswordHasher.await(passwordHasher.hash(password));
+                // Leave a password changed since the check alone
+                Student updated = updateStudent(student.getStudentId(), s -> {
+                    if (verifiedHash.equals(s.getPasswordHash())) {
+                        s.setPasswordHash(newHash);
+                    }
+                });
+                return updated != null ? updated : student;
+            } catch (PasswordHasher.OverloadedException e) {
+                // Keep the old hash; the next login tries again
+            }
         }
-        return BCrypt.checkpw(password, student.getPasswordHash());
+        return student;
     }
 
+    /**
+     * Writes the student if it is still at the version it was read with. Throws
+     * ConditionalCheckFailedException when another writer got there first; use
+     * {@link #updateStudent(String, Consumer)} to retry on conflict. A changed username or
+     * email moves its claim in the same transaction as the write.
+     */
     public Student updateStudent(Student student) {
+        Student stored = studentTable.getItem(r -> r.key(keyOf(student.getStudentId())).consistentRead(true));
+        if (stored == null) {
+            throw ConditionalCheckFailedException.builder()
+                    .message("Student " + student.getStudentId() + " no longer exists").build();
+        }
+        return writeStudent(student, stored.getUsername(), stored.getEmail());
+    }
+
+    /**
+     * Applies the mutation to the latest stored student, re-reading and re-applying it if a
+     * concurrent write wins. Returns the updated student, or null if it does not exist.
+     */
+    public Student updateStudent(String studentId, Consumer<Student> mutation) {
+        // The username and email as read, before the mutation runs on the same copy
+        String[] claimed = new String[2];
+        return OptimisticLocking.update(
+                () -> {
+                    Student stored = studentTable.getItem(r -> r.key(keyOf(studentId)).consistentRead(true));
+                    if (stored != null) {
+                        claimed[0] = stored.getUsername();
+                        claimed[1] = stored.getEmail();
+                    }
+                    return stored;
+                },
+                mutation,
+                student -> writeStudent(student, claimed[0], claimed[1]));
+    }
+
+    private Student writeStudent(Student student, String storedUsername, String storedEmail) {
         student.setUpdatedAt(Instant.now().toString());
-        studentTable.putItem(student);
+        boolean usernameChanged = !Objects.equals(storedUsername, student.getUsername());
+        boolean emailChanged = !Objects.equals(storedEmail, student.getEmail());
+        if (!usernameChanged && !emailChanged) {
+            studentTable.putItem(student);
+            student.setVersion(OptimisticLocking.nextVersion(student.getVersion()));
+            return student;
+        }
+        checkAvailable(student, usernameChanged, emailChanged);
+
+        Long expectedVersion = student.getVersion();
+        Map<String, AttributeValue> item = new HashMap<>(studentTable.tableSchema().itemToMap(student, true));
+        item.put("version", AttributeValue.builder().n(Long.toString(OptimisticLocking.nextVersion(expectedVersion))).build());
+        List<TransactWriteItem> items = new ArrayList<>();
+        items.add(TransactWriteItem.builder().put(Put.builder()
+                .tableName(STUDENTS_TABLE)
+                .item(item)
+                .conditionExpression("#version = :expected")
+                .expressionAttributeNames(Map.of("#version", "version"))
+                .expressionAttributeValues(Map.of(":expected",
+                        AttributeValue.builder().n(String.valueOf(expectedVersion)).build()))
+                .build()).build());
+        int usernameItem = -1;
+        int emailItem = -1;
+        if (usernameChanged) {
+            usernameItem = items.size();
+            items.add(claimItem(UniqueConstraint.usernameKey(student.getUsername()), student.getStudentId()));
+            if (storedUsername != null) {
+                items.add(releaseItem(UniqueConstraint.usernameKey(storedUsername), student.getStudentId()));
+            }
+        }
+        if (emailChanged) {
+            emailItem = items.size();
+            items.add(claimItem(UniqueConstraint.emailKey(student.getEmail()), student.getStudentId()));
+            if (storedEmail != null) {
+                items.add(releaseItem(UniqueConstraint.emailKey(storedEmail), student.getStudentId()));
+            }
+        }
+
+        try {
+            dynamoDbClient.transactWriteItems(TransactWriteItemsRequest.builder().transactItems(items).build());
+        } catch (TransactionCanceledException e) {
+            if (isConditionFailure(e.cancellationReasons(), 0)) {
+                throw ConditionalCheckFailedException.builder()
+                        .message("Student " + student.getStudentId() + " was changed concurrently").build();
+            }
+            if (usernameItem >= 0 && isConditionFailure(e.cancellationReasons(), usernameItem)) {
+                throw new IllegalArgumentException("Username already exists");
+            }
+            if (emailItem >= 0 && isConditionFailure(e.cancellationReasons(), emailItem)) {
+                throw new IllegalArgumentException("Email already exists");
+            }
+            throw e;
+        }
+        student.setVersion(OptimisticLocking.nextVersion(expectedVersion));
+        signupFilters.add(usernameChanged ? student.getUsername() : null, emailChanged ? student.getEmail() : null);
+        signupFilters.released();
         return student;
     }
 
+    // Covers students stored without markers, whose values a claim alone cannot see
+    private void checkAvailable(Student student, boolean usernameChanged, boolean emailChanged) {
+        if (usernameChanged && signupFilters.mightContainUsername(student.getUsername())) {
+            Student owner = findByUsername(student.getUsername());
+            if (owner != null && !owner.getStudentId().equals(student.getStudentId())) {
+                throw new IllegalArgumentException("Username already exists");
+            }
+        }
+        if (emailChanged && signupFilters.mightContainEmail(student.getEmail())) {
+            Student owner = findByEmail(student.getEmail());
+            if (owner != null && !owner.getStudentId().equals(student.getStudentId())) {
+                throw new IllegalArgumentException("Email already exists");
+            }
+        }
+    }
+
+    private static Key keyOf(String studentId) {
+        return Key.builder().partitionValue(studentId).build();
+    }
+
+    /**
+     * Deletes the student together with its username and email claims, freeing both values.
+     */
     public void deleteStudent(String studentId) {
-        Key key = Key.builder().partitionValue(studentId).build();
-        studentTable.deleteItem(key);
+        Student student = findById(studentId);
+        if (student == null) {
+            return;
+        }
+        dynamoDbClient.transactWriteItems(TransactWriteItemsRequest.builder()
+                .transactItems(
+                    TransactWriteItem.builder().delete(Delete.builder()
+                            .tableName(STUDENTS_TABLE)
+                            .key(Map.of("studentId", AttributeValue.builder().s(studentId).build()))
+                            .build()).build(),
+                    releaseItem(UniqueConstraint.usernameKey(student.getUsername()), studentId),
+                    releaseItem(UniqueConstraint.emailKey(student.getEmail()), studentId))
+                .build());
+        signupFilters.released();
     }
 }
\ No newline at end of file
@@ -0,0 +1,97 @@
+package com.studentcourseregistration.app.service;
+
+import com.studentcourseregistration.app.model.Course;
+import com.studentcourseregistration.app.util.WeeklySchedule;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Immutable summary of a student's active courses: the union of their weekly
+ * time-slot masks and the total credit load. Conflict and credit checks run
+ * against this summary without fetching any course.
+ */
+public final class StudentTimetable {
+    public static final StudentTimetable EMPTY = new StudentTimetable(Map.of(), WeeklySchedule.EMPTY, 0);
+
+    private final Map<String, Slot> slotsByCourse;
+    private final WeeklySchedule occupied;
+    private final int totalCredits;
+
+    private StudentTimetable(Map<String, Slot> slotsByCourse, WeeklySchedule occupied, int totalCredits) {
+        this.slotsByCourse = slotsByCourse;
+        this.occupied = occupied;
+        this.totalCredits = totalCredits;
+    }
+
+    public static StudentTimetable of(Collection<Course> courses) {
+        StudentTimetable timetable = EMPTY;
+        for (Course course : courses) {
+            timetable = timetable.withCourse(course);
+        }
+        return timetable;
+    }
+
+    public boolean conflictsWith(Course course) {
+        // The same course again is a duplicate, which is reported separately
+        if (slotsByCourse.containsKey(course.getCourseId()) || course.getSchedule() == null) {
+            return false;
+        }
+        Optional<WeeklySchedule> mask = WeeklySchedule.of(course.getSchedule());
+        if (mask.isPresent() && occupied.overlaps(mask.get())) {
+            return true;
+        }
+        // Schedules that cannot be parsed keep the exact-match rule
+        return slotsByCourse.values().stream()
+                .anyMatch(slot -> WeeklySchedule.conflicts(slot.schedule, course.getSchedule())
+                        && (mask.isEmpty() || WeeklySchedule.of(slot.schedule).isEmpty()));
+    }
+
+    public StudentTimetable withCourse(Course course) {
+        if (slotsByCourse.containsKey(course.getCourseId())) {
+            return this;
+        }
+        Map<String, Slot> slots = new HashMap<>(slotsByCourse);
+        Slot slot = new Slot(course.getSchedule(), course.getCredits() != null ? course.getCredits() : 0);
+        slots.put(course.getCourseId(), slot);
+        WeeklySchedule mask = WeeklySchedule.of(course.getSchedule()).orElse(WeeklySchedule.EMPTY);
+        return new StudentTimetable(Map.copyOf(slots), occupied.union(mask), totalCredits + slot.credits);
+    }
+
+    public StudentTimetable withoutCourse(String courseId) {
+        if (!slotsByCourse.containsKey(courseId)) {
+            return this;
+        }
+        Map<String, Slot> slots = new HashMap<>(slotsByCourse);
+        slots.remove(courseId);
+        // Masks cannot be un-ORed, so the occupied slots are rebuilt from the remaining courses
+        WeeklySchedule mask = WeeklySchedule.EMPTY;
+        int credits = 0;
+        for (Slot slot : slots.values()) {
+            mask = mask.union(WeeklySchedule.of(slot.schedule).orElse(WeeklySchedule.EMPTY));
+            credits += slot.credits;
+        }
+        return new StudentTimetable(Map.copyOf(slots), mask, credits);
+    }
+
+    public Set<String> getCourseIds() {
+        return slotsByCourse.keySet();
+    }
+
+    public int getTotalCredits() {
+        return totalCredits;
+    }
+
+    private static final class Slot {
+        private final String schedule;
+        private final int credits;
+
+        private Slot(String schedule, int credits) {
+            this.schedule = schedule;
+            this.credits = credits;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.studentcourseregistration.app.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+
+/**
+ * Bloom filter over strings. {@link #mightContain} never returns false for a value that was
+ * added; it may return true for values never added, at roughly the configured
+ * false-positive rate. Values cannot be removed, so owners rebuild the filter to drop them.
+ */
+public class BloomFilter {
+    private final BitSet bits;
+    private final int bitCount;
+    private final int hashFunctions;
+    private int size;
+
+    public BloomFilter(int expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Expected insertions must be positive and the rate in (0, 1)");
+        }
+        double optimalBits = -expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        this.bitCount = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(64, Math.ceil(optimalBits)));
+        this.bits = new BitSet(bitCount);
+        this.hashFunctions = Math.max(1, (int) Math.round(bitCount / (double) expectedInsertions * Math.log(2)));
+    }
+
+    public synchronized void add(String value) {
+        long hash = hash(value);
+        for (int i = 0; i < hashFunctions; i++) {
+            bits.set(slot(hash, i));
+        }
+        size++;
+    }
+
+    public synchronized boolean mightContain(String value) {
+        long hash = hash(value);
+        for (int i = 0; i < hashFunctions; i++) {
+            if (!bits.get(slot(hash, i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    // Double hashing: slot i = h1 + i * h2, from the two halves of one 64-bit hash
+    private int slot(long hash, int i) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        return Math.floorMod(h1 + i * (h2 | 1), bitCount);
+    }
+
+    // 64-bit FNV-1a over UTF-8 bytes, finished with a MurmurHash3 mix
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
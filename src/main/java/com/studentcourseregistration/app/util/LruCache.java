@@ -0,0 +1,272 @@
+package com.studentcourseregistration.app.util;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Bounded, thread-safe cache with least-recently-used eviction and a time-to-live
+ * per entry. All operations take the cache lock; loaders passed to
+ * {@link #get(Object, Function)} run outside it, and their result is dropped if the
+ * key was updated or invalidated while the load was in flight. Hit, miss, eviction and
+ * expiry counts are kept for {@link #stats()}.
+ */
+public class LruCache<K, V> {
+    private static final int WRITE_STRIPES = 64;
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LinkedHashMap<K, Entry<V>> entries;
+    private final long[] writeVersions = new long[WRITE_STRIPES];
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+
+    public LruCache(int maxSize, Duration ttl) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > LruCache.this.maxSize) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached value, or null if it is absent or expired.
+     */
+    public synchronized V getIfPresent(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        if (entry.isExpired()) {
+            entries.remove(key);
+            expirations++;
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.value;
+    }
+
+    /**
+     * Read-through lookup. Null results from the loader are not cached.
+     */
+    public V get(K key, Function<K, V> loader) {
+        long version;
+        synchronized (this) {
+            V value = getIfPresent(key);
+            if (value != null) {
+                return value;
+            }
+            version = writeVersions[stripe(key)];
+        }
+        V value = loader.apply(key);
+        if (value != null) {
+            synchronized (this) {
+                // A concurrent update or invalidation makes the loaded value stale
+                if (writeVersions[stripe(key)] == version) {
+                    put(key, value);
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Read-through lookup with a non-blocking loader. A hit completes immediately; a loaded
+     * value is cached under the same staleness check as {@link #get(Object, Function)}.
+     */
+    public CompletableFuture<V> getAsync(K key, Function<K, CompletableFuture<V>> loader) {
+        long version;
+        synchronized (this) {
+            V value = getIfPresent(key);
+            if (value != null) {
+                return CompletableFuture.completedFuture(value);
+            }
+            version = writeVersions[stripe(key)];
+        }
+        return loader.apply(key).thenApply(value -> {
+            if (value != null) {
+                synchronized (this) {
+                    if (writeVersions[stripe(key)] == version) {
+                        put(key, value);
+                    }
+                }
+            }
+            return value;
+        });
+    }
+
+    /**
+     * Bulk read-through lookup: cached keys are served from memory and the rest are passed
+     * to the loader in one call. Keys the loader does not return are absent from the result.
+     */
+    public Map<K, V> getAll(Collection<K> keys, Function<List<K>, Map<K, V>> loader) {
+        Map<K, V> result = new HashMap<>();
+        Map<K, Long> missing = new LinkedHashMap<>();
+        synchronized (this) {
+            for (K key : keys) {
+                if (result.containsKey(key) || missing.containsKey(key)) {
+                    continue;
+                }
+                V value = getIfPresent(key);
+                if (value != null) {
+                    result.put(key, value);
+                } else {
+                    missing.put(key, writeVersions[stripe(key)]);
+                }
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+        Map<K, V> loaded = loader.apply(new ArrayList<>(missing.keySet()));
+        synchronized (this) {
+            loaded.forEach((key, value) -> {
+                Long version = missing.get(key);
+                if (value != null && version != null && writeVersions[stripe(key)] == version) {
+                    put(key, value);
+                }
+            });
+        }
+        result.putAll(loaded);
+        return result;
+    }
+
+    public synchronized void put(K key, V value) {
+        entries.put(key, new Entry<>(value, System.nanoTime() + ttlNanos));
+    }
+
+    /**
+     * Replaces a live entry with {@code update.apply(current)}; absent or expired entries
+     * are left absent so the next read reloads them.
+     */
+    public synchronized void updateIfPresent(K key, UnaryOperator<V> update) {
+        writeVersions[stripe(key)]++;
+        Entry<V> entry = entries.get(key);
+        if (entry == null || entry.isExpired()) {
+            entries.remove(key);
+            return;
+        }
+        entries.put(key, new Entry<>(update.apply(entry.value), entry.expiresAt));
+    }
+
+    /**
+     * Restarts the TTL of a live entry. Returns false, and inserts nothing, if the key is
+     * absent or expired.
+     */
+    public synchronized boolean touch(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null || entry.isExpired()) {
+            entries.remove(key);
+            return false;
+        }
+        entries.put(key, new Entry<>(entry.value, System.nanoTime() + ttlNanos));
+        return true;
+    }
+
+    public synchronized void invalidate(K key) {
+        writeVersions[stripe(key)]++;
+        entries.remove(key);
+    }
+
+    public synchronized void clear() {
+        for (int i = 0; i < WRITE_STRIPES; i++) {
+            writeVersions[i]++;
+        }
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(hits, misses, evictions, expirations, entries.size());
+    }
+
+    private static int stripe(Object key) {
+        return Math.floorMod(key.hashCode(), WRITE_STRIPES);
+    }
+
+    /**
+     * Point-in-time counters. Evictions are size-based removals; expirations are entries
+     * found past their TTL on read.
+     */
+    public static final class Stats {
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final long expirations;
+        private final int size;
+
+        private Stats(long hits, long misses, long evictions, long expirations, int size) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.expirations = expirations;
+            this.size = size;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public long getEvictions() {
+            return evictions;
+        }
+
+        public long getExpirations() {
+            return expirations;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public double getHitRate() {
+            long requests = hits + misses;
+            return requests == 0 ? 0.0 : (double) hits / requests;
+        }
+
+        @Override
+        public String toString() {
+            return "Stats{hits=" + hits + ", misses=" + misses + ", evictions=" + evictions
+                    + ", expirations=" + expirations + ", size=" + size + '}';
+        }
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+
+        private Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired() {
+            return System.nanoTime() - expiresAt > 0;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.studentcourseregistration.app.util;
+
+import com.studentcourseregistration.app.model.Registration;
+import com.studentcourseregistration.app.model.Student;
+import com.studentcourseregistration.app.model.UniqueConstraint;
+import com.studentcourseregistration.app.repository.DynamoDbRegistrationRepository;
+import com.studentcourseregistration.app.repository.DynamoDbStudentRepository;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * One-time migration for tables written before marker items existed: claims the
+ * UniqueConstraints markers of every stored student and the Enrollments marker of every
+ * ENROLLED or WAITLISTED registration. Registration relies on the markers for duplicate
+ * checks, and drops look registrations up through them. Safe to re-run; markers already in
+ * place are left alone, and a value claimed by a different owner is reported, not
+ * overwritten.
+ */
+public class MarkerBackfill {
+
+    public static void main(String[] args) {
+        System.out.println("=".repeat(60));
+        System.out.println("Backfilling Marker Items");
+        System.out.println("=".repeat(60));
+        System.out.println();
+
+        try {
+            backfillUniqueConstraints(new DynamoDbStudentRepository());
+            backfillEnrollments(new DynamoDbRegistrationRepository());
+        } catch (Exception e) {
+            System.err.println("✗ Error backfilling markers: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Returns the number of usernames and emails claimed by a different student.
+     */
+    public static long backfillUniqueConstraints(DynamoDbStudentRepository studentRepo) {
+        System.out.println("Claiming usernames and emails...");
+        long students = 0;
+        long conflicts = 0;
+        for (Iterator<Student> it = studentRepo.streamAll().iterator(); it.hasNext(); ) {
+            Student student = it.next();
+            students++;
+            List<String> keys = new ArrayList<>();
+            if (student.getUsername() != null) {
+                keys.add(UniqueConstraint.usernameKey(student.getUsername()));
+            }
+            if (student.getEmail() != null) {
+                keys.add(UniqueConstraint.emailKey(student.getEmail()));
+            }
+            for (String key : keys) {
+                if (!studentRepo.claimUniqueConstraint(key, student.getStudentId())) {
+                    conflicts++;
+                    System.out.println("  ✗ " + key + " of student " + student.getStudentId()
+                            + " is claimed by another student");
+                }
+            }
+        }
+        System.out.println("  Checked " + students + " students, " + conflicts + " conflicts");
+        System.out.println();
+        return conflicts;
+    }
+
+    /**
+     * Returns the number of (student, course) pairs held by more than one active registration.
+     */
+    public static long backfillEnrollments(DynamoDbRegistrationRepository registrationRepo) {
+        System.out.println("Claiming enrollment markers...");
+        long registrations = 0;
+        long conflicts = 0;
+        for (Iterator<Registration> it = registrationRepo.streamAll().iterator(); it.hasNext(); ) {
+            Registration registration = it.next();
+            if (!"ENROLLED".equals(registration.getStatus()) && !"WAITLISTED".equals(registration.getStatus())) {
+                continue;
+            }
+            registrations++;
+            if (!registrationRepo.claimEnrollment(registration)) {
+                conflicts++;
+                System.out.println("  ✗ Student " + registration.getStudentId() + " -> Course "
+                        + registration.getCourseId() + " is held by another registration than "
+                        + registration.getRegistrationId());
+            }
+        }
+        System.out.println("  Checked " + registrations + " active registrations, " + conflicts + " conflicts");
+        System.out.println();
+        return conflicts;
+    }
+}
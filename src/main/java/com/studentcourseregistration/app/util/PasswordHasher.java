@@ -0,0 +1,231 @@
+package com.studentcourseregistration.app.util;
+
+import org.mindrot.jbcrypt.BCrypt;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Runs BCrypt on a dedicated, bounded pool so password work cannot take over the threads
+ * serving other requests. When every worker is busy and the queue is full, new work fails
+ * fast with {@link OverloadedException} instead of queueing without limit; callers should
+ * retry after the suggested delay.
+ *
+ * The work factor, pool size and queue capacity come from the BCRYPT_COST, BCRYPT_THREADS
+ * and BCRYPT_QUEUE environment variables, or the bcrypt.cost, bcrypt.threads and
+ * bcrypt.queue system properties, which take precedence.
+ */
+public class PasswordHasher {
+    public static final int DEFAULT_COST = 10;
+    private static final int MIN_COST = 4;
+    private static final int MAX_COST = 31;
+    private static final int QUEUE_PER_THREAD = 32;
+
+    private final int cost;
+    private final int queueCapacity;
+    private final ThreadPoolExecutor executor;
+    private final AtomicLong rejected = new AtomicLong();
+
+    public PasswordHasher(int cost, int threads, int queueCapacity) {
+        if (cost < MIN_COST || cost > MAX_COST) {
+            throw new IllegalArgumentException("BCrypt cost must be between " + MIN_COST + " and " + MAX_COST);
+        }
+        if (threads <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("Threads and queue capacity must be positive");
+        }
+        this.cost = cost;
+        this.queueCapacity = queueCapacity;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), daemonThreads(), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * The process-wide hasher, configured from the environment on first use.
+     */
+    public static PasswordHasher getDefault() {
+        return Holder.INSTANCE;
+    }
+
+    private static final class Holder {
+        private static final PasswordHasher INSTANCE = fromEnvironment();
+    }
+
+    private static PasswordHasher fromEnvironment() {
+        int threads = setting("bcrypt.threads", "BCRYPT_THREADS", Runtime.getRuntime().availableProcessors());
+        return new PasswordHasher(
+                setting("bcrypt.cost", "BCRYPT_COST", DEFAULT_COST),
+                threads,
+                setting("bcrypt.queue", "BCRYPT_QUEUE", threads * QUEUE_PER_THREAD));
+    }
+
+    private static int setting(String property, String env, int defaultValue) {
+        String value = System.getProperty(property, System.getenv(env));
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(property + " must be an integer: " + value, e);
+        }
+    }
+
+    public CompletableFuture<String> hash(String password) {
+        return submit(() -> BCrypt.hashpw(password, BCrypt.gensalt(cost)));
+    }
+
+    /**
+     * Completes with whether the password matches the hash; malformed hashes never match.
+     */
+    public CompletableFuture<Boolean> verify(String password, String hash) {
+        if (hash == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return submit(() -> {
+            try {
+                return BCrypt.checkpw(password, hash);
+            } catch (IllegalArgumentException e) {
+                return false;
+            }
+        });
+    }
+
+    /**
+     * True when the hash was made with a different work factor than the configured one,
+     * so it should be replaced the next time the password is known.
+     */
+    public boolean needsRehash(String hash) {
+        // BCrypt hashes look like $2a$10$...: the two digits after the version are the cost
+        if (hash == null || hash.length() < 7 || hash.charAt(0) != '$' || hash.charAt(6) != '$') {
+            return true;
+        }
+        try {
+            return Integer.parseInt(hash.substring(4, 6)) != cost;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    public int getCost() {
+        return cost;
+    }
+
+    /**
+     * Waits for a hashing result on the calling thread, rethrowing the task's own exception
+     * (such as {@link OverloadedException}) rather than a CompletionException.
+     */
+    public static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(executor.getQueue().size(), queueCapacity, executor.getActiveCount(),
+                executor.getCompletedTaskCount(), rejected.get());
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            return CompletableFuture.failedFuture(new OverloadedException(retryAfter()));
+        }
+    }
+
+    // Roughly how long a full queue takes to drain, at about 1 ms per hash at cost 4,
+    // doubling with each step of cost
+    private Duration retryAfter() {
+        long perHashMillis = 1L << (cost - MIN_COST);
+        long queuedPerThread = Math.max(1, queueCapacity / executor.getMaximumPoolSize());
+        return Duration.ofMillis(Math.max(50, queuedPerThread * perHashMillis));
+    }
+
+    private static ThreadFactory daemonThreads() {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "password-hasher-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * The hasher is saturated. Retryable: the same request may succeed after {@link #getRetryAfter()}.
+     */
+    public static class OverloadedException extends RejectedExecutionException {
+        private static final long serialVersionUID = 1L;
+
+        private final Duration retryAfter;
+
+        public OverloadedException(Duration retryAfter) {
+            super("Password hashing is overloaded; retry after " + retryAfter.toMillis() + " ms");
+            this.retryAfter = retryAfter;
+        }
+
+        public Duration getRetryAfter() {
+            return retryAfter;
+        }
+    }
+
+    /**
+     * Point-in-time pool counters. {@code queued} against {@code queueCapacity} is the
+     * early warning; {@code rejected} counts requests turned away since startup.
+     */
+    public static final class Stats {
+        private final int queued;
+        private final int queueCapacity;
+        private final int active;
+        private final long completed;
+        private final long rejected;
+
+        private Stats(int queued, int queueCapacity, int active, long completed, long rejected) {
+            this.queued = queued;
+            this.queueCapacity = queueCapacity;
+            this.active = active;
+            this.completed = completed;
+            this.rejected = rejected;
+        }
+
+        public int getQueued() {
+            return queued;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public int getActive() {
+            return active;
+        }
+
+        public long getCompleted() {
+            return completed;
+        }
+
+        public long getRejected() {
+            return rejected;
+        }
+
+        @Override
+        public String toString() {
+            return "Stats{queued=" + queued + "/" + queueCapacity + ", active=" + active
+                    + ", completed=" + completed + ", rejected=" + rejected + '}';
+        }
+    }
+}
@@ -6,7 +6,6 @@ import com.studentcourseregistration.app.model.Student;
 import com.studentcourseregistration.app.repository.DynamoDbCourseRepository;
 import com.studentcourseregistration.app.repository.DynamoDbRegistrationRepository;
 import com.studentcourseregistration.app.repository.DynamoDbStudentRepository;
-import org.mindrot.jbcrypt.BCrypt;
 
 import java.time.Instant;
 import java.util.Arrays;
@@ -66,7 +65,10 @@ public class SampleDataLoader {
         );
         
         students.forEach(student -> {
+            // Seed records overwrite a previous run, so they take over the stored version
+            studentRepo.findById(student.getStudentId()).ifPresent(existing -> student.setVersion(existing.getVersion()));
             studentRepo.save(student);
+            studentRepo.saveUniqueConstraints(student);
             System.out.println("  ✓ Added: " + student.getFirstName() + " " + student.getLastName() + 
                 " (" + student.getUsername() + ")");
         });
@@ -122,6 +124,7 @@ public class SampleDataLoader {
         );
         
         courses.forEach(course -> {
+            courseRepo.findById(course.getCourseId()).ifPresent(existing -> course.setVersion(existing.getVersion()));
             courseRepo.save(course);
             System.out.println("  ✓ Added: " + course.getCourseCode() + " - " + course.getCourseName());
         });
@@ -175,6 +178,9 @@ public class SampleDataLoader {
         
         registrations.forEach(registration -> {
             registrationRepo.save(registration);
+            if ("ENROLLED".equals(registration.getStatus())) {
+                registrationRepo.saveEnrollment(registration);
+            }
             
             // Update course enrollment count
             courseRepo.findById(registration.getCourseId()).ifPresent(course -> {
@@ -200,7 +206,7 @@ public class SampleDataLoader {
         student.setLastName(lastName);
         student.setUsername(username);
         student.setEmail(email);
-        student.setPasswordHash(BCrypt.hashpw(password, BCrypt.gensalt()));
+        student.setPasswordHash(PasswordHasher.await(PasswordHasher.getDefault().hash(password)));
         student.setMajor(major);
         student.setYear(year);
         student.setGpa(gpa);
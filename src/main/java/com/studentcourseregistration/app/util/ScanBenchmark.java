@@ -0,0 +1,122 @@
+package com.studentcourseregistration.app.util;
+
+import com.studentcourseregistration.app.config.DynamoDbConfig;
+import com.studentcourseregistration.app.model.Registration;
+import com.studentcourseregistration.app.repository.DynamoDbBatchSupport;
+import com.studentcourseregistration.app.repository.DynamoDbParallelScan;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.PutRequest;
+import software.amazon.awssdk.services.dynamodb.model.ResourceInUseException;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Times a full scan of a registrations-shaped table at different segment counts.
+ * Runs against DynamoDB Local in its own table, which is filled on the first run.
+ *
+ * Usage: ScanBenchmark [registrations, default 1000000] [segment counts, default 1,4,16]
+ */
+public class ScanBenchmark {
+    private static final String TABLE_NAME = "ScanBenchmarkRegistrations";
+    private static final int LOADER_THREADS = 8;
+    private static final int LOAD_CHUNK = 1_000;
+    private static final int RUNS = 3;
+
+    public static void main(String[] args) throws Exception {
+        int registrations = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        String[] segmentCounts = (args.length > 1 ? args[1] : "1,4,16").split(",");
+
+        DynamoDbClient client = DynamoDbConfig.getDynamoDbClient();
+        DynamoDbTable<Registration> table = DynamoDbConfig.getEnhancedClient()
+                .table(TABLE_NAME, TableSchema.fromBean(Registration.class));
+        load(client, table, registrations);
+
+        System.out.printf("%-10s %-12s %-12s %s%n", "segments", "best ms", "mean ms", "items/s");
+        for (String value : segmentCounts) {
+            int segments = Integer.parseInt(value.trim());
+            // One untimed run warms connections and the JIT
+            count(table, segments);
+            long best = Long.MAX_VALUE;
+            long total = 0;
+            long items = 0;
+            for (int run = 0; run < RUNS; run++) {
+                long start = System.nanoTime();
+                items = count(table, segments);
+                long elapsed = System.nanoTime() - start;
+                best = Math.min(best, elapsed);
+                total += elapsed;
+            }
+            System.out.printf("%-10d %-12d %-12d %d%n", segments, best / 1_000_000, total / RUNS / 1_000_000,
+                    items * 1_000_000_000L / best);
+        }
+    }
+
+    private static long count(DynamoDbTable<Registration> table, int segments) {
+        LongAdder items = new LongAdder();
+        DynamoDbParallelScan.forEach(table, segments, registration -> items.increment());
+        return items.sum();
+    }
+
+    // Fills the table with deterministic ids, so reruns overwrite instead of growing it
+    private static void load(DynamoDbClient client, DynamoDbTable<Registration> table, int registrations)
+            throws Exception {
+        try {
+            table.createTable(builder -> builder.provisionedThroughput(b -> b
+                    .readCapacityUnits(1_000L)
+                    .writeCapacityUnits(1_000L)
+                    .build()));
+        } catch (ResourceInUseException e) {
+            Long existing = client.describeTable(r -> r.tableName(TABLE_NAME)).table().itemCount();
+            if (existing != null && existing >= registrations) {
+                System.out.println("Using " + existing + " existing registrations in " + TABLE_NAME);
+                return;
+            }
+        }
+
+        System.out.println("Loading " + registrations + " registrations into " + TABLE_NAME + "...");
+        long start = System.nanoTime();
+        ExecutorService loaders = Executors.newFixedThreadPool(LOADER_THREADS);
+        try {
+            List<Future<?>> chunks = new ArrayList<>();
+            for (int from = 0; from < registrations; from += LOAD_CHUNK) {
+                int first = from;
+                int last = Math.min(from + LOAD_CHUNK, registrations);
+                chunks.add(loaders.submit(() -> {
+                    List<WriteRequest> writes = new ArrayList<>(last - first);
+                    for (int i = first; i < last; i++) {
+                        writes.add(WriteRequest.builder()
+                                .putRequest(PutRequest.builder()
+                                        .item(table.tableSchema().itemToMap(registration(i), true))
+                                        .build())
+                                .build());
+                    }
+                    DynamoDbBatchSupport.batchWrite(client, Map.of(TABLE_NAME, writes));
+                }));
+            }
+            for (Future<?> chunk : chunks) {
+                chunk.get();
+            }
+        } finally {
+            loaders.shutdown();
+        }
+        System.out.println("Loaded in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    private static Registration registration(int i) {
+        Registration registration = new Registration();
+        registration.setRegistrationId(String.format("R%08d", i));
+        registration.setStudentId(String.format("S%06d", i % 50_000));
+        registration.setCourseId(String.format("C%05d", i % 2_000));
+        registration.setVersion(1L);
+        return registration;
+    }
+}
@@ -4,6 +4,10 @@ import com.studentcourseregistration.app.repository.DynamoDbCourseRepository;
 import com.studentcourseregistration.app.repository.DynamoDbRegistrationRepository;
 import com.studentcourseregistration.app.repository.DynamoDbStudentRepository;
 
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
 public class VerifyData {
     
     public static void main(String[] args) {
@@ -19,25 +23,22 @@ public class VerifyData {
             
             // Count students
             System.out.println("Fetching Students...");
-            var students = studentRepo.findAll();
-            System.out.println("  Found " + students.size() + " students");
-            students.forEach(s -> System.out.println("    - " + s.getUsername() + " (" + s.getFirstName() + " " + s.getLastName() + ")"));
+            long students = printAll(studentRepo.streamAll(), s -> s.getUsername() + " (" + s.getFirstName() + " " + s.getLastName() + ")");
+            System.out.println("  Found " + students + " students");
             
             System.out.println();
             
             // Count courses
             System.out.println("Fetching Courses...");
-            var courses = courseRepo.findAll();
-            System.out.println("  Found " + courses.size() + " courses");
-            courses.forEach(c -> System.out.println("    - " + c.getCourseCode() + ": " + c.getCourseName() + " (Enrolled: " + c.getEnrolled() + "/" + c.getCapacity() + ")"));
+            long courses = printAll(courseRepo.streamAll(), c -> c.getCourseCode() + ": " + c.getCourseName() + " (Enrolled: " + c.getEnrolled() + "/" + c.getCapacity() + ")");
+            System.out.println("  Found " + courses + " courses");
             
             System.out.println();
             
             // Count registrations
             System.out.println("Fetching Registrations...");
-            var registrations = registrationRepo.findAll();
-            System.out.println("  Found " + registrations.size() + " registrations");
-            registrations.forEach(r -> System.out.println("    - Student " + r.getStudentId() + " -> Course " + r.getCourseId() + " (" + r.getStatus() + ")"));
+            long registrations = printAll(registrationRepo.streamAll(), r -> "Student " + r.getStudentId() + " -> Course " + r.getCourseId() + " (" + r.getStatus() + ")");
+            System.out.println("  Found " + registrations + " registrations");
             
             System.out.println();
             System.out.println("=".repeat(60));
@@ -98,4 +99,15 @@ public class VerifyData {
             e.printStackTrace();
         }
     }
+    
+    // Prints items as their pages arrive, so a table of any size is listed in constant memory
+    private static <T> long printAll(Stream<T> items, Function<T, String> line) {
+        long count = 0;
+        try (items) {
+            for (Iterator<T> it = items.iterator(); it.hasNext(); count++) {
+                System.out.println("    - " + line.apply(it.next()));
+            }
+        }
+        return count;
+    }
 }
@@ -0,0 +1,211 @@
+package com.studentcourseregistration.app.util;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A course meeting pattern compiled into a weekly bitmask of 5-minute slots
+ * (7 days x 288 slots = 2016 bits in 32 longs). Overlap checks are a bitwise AND
+ * over the words both masks actually occupy.
+ *
+ * Accepted formats: "MWF 09:00-10:00", "TTh 10:30-12:00", "MW 9:30-10:45",
+ * and several segments separated by commas or semicolons ("MW 09:00-10:00, F 13:00-15:00").
+ * Day codes: M, T/Tu, W, Th/R, F, Sa/S, Su/U.
+ */
+public final class WeeklySchedule {
+    public static final int SLOT_MINUTES = 5;
+    public static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+    private static final int WORDS = (7 * SLOTS_PER_DAY + Long.SIZE - 1) / Long.SIZE;
+    private static final int MAX_CACHED = 10_000;
+
+    public static final WeeklySchedule EMPTY = new WeeklySchedule(new long[WORDS]);
+
+    // Parsed masks keyed by the raw schedule string; courses sharing a pattern share a mask
+    private static final Map<String, Optional<WeeklySchedule>> CACHE = new ConcurrentHashMap<>();
+
+    private final long[] words;
+    private final int firstWord;
+    private final int lastWord;
+
+    private WeeklySchedule(long[] words) {
+        this.words = words;
+        int first = WORDS;
+        int last = -1;
+        for (int i = 0; i < WORDS; i++) {
+            if (words[i] != 0) {
+                first = Math.min(first, i);
+                last = i;
+            }
+        }
+        this.firstWord = first;
+        this.lastWord = last;
+    }
+
+    /**
+     * Returns the cached mask for a schedule string, or empty if it cannot be parsed.
+     */
+    public static Optional<WeeklySchedule> of(String schedule) {
+        if (schedule == null) {
+            return Optional.empty();
+        }
+        Optional<WeeklySchedule> cached = CACHE.get(schedule);
+        if (cached != null) {
+            return cached;
+        }
+        Optional<WeeklySchedule> parsed;
+        try {
+            parsed = Optional.of(parse(schedule));
+        } catch (IllegalArgumentException e) {
+            parsed = Optional.empty();
+        }
+        if (CACHE.size() >= MAX_CACHED) {
+            CACHE.clear();
+        }
+        CACHE.put(schedule, parsed);
+        return parsed;
+    }
+
+    /**
+     * True when two schedule strings share at least one time slot. Strings that cannot be
+     * parsed fall back to the previous exact-match rule.
+     */
+    public static boolean conflicts(String first, String second) {
+        if (first == null || second == null) {
+            return false;
+        }
+        Optional<WeeklySchedule> a = of(first);
+        Optional<WeeklySchedule> b = of(second);
+        if (a.isPresent() && b.isPresent()) {
+            return a.get().overlaps(b.get());
+        }
+        return first.equals(second);
+    }
+
+    public static WeeklySchedule parse(String schedule) {
+        long[] words = new long[WORDS];
+        String[] segments = schedule.trim().split("\\s*[,;]\\s*");
+        for (String segment : segments) {
+            String[] parts = segment.trim().split("\\s+");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected '<days> <HH:mm>-<HH:mm>': " + segment);
+            }
+            boolean[] days = parseDays(parts[0]);
+            String[] times = parts[1].split("-");
+            if (times.length != 2) {
+                throw new IllegalArgumentException("Expected a time range: " + parts[1]);
+            }
+            int start = parseMinutes(times[0]);
+            int end = parseMinutes(times[1]);
+            if (end <= start) {
+                throw new IllegalArgumentException("End time must be after start time: " + parts[1]);
+            }
+            // Half-open [start, end): back-to-back meetings do not overlap
+            int firstSlot = start / SLOT_MINUTES;
+            int endSlot = (end + SLOT_MINUTES - 1) / SLOT_MINUTES;
+            for (int day = 0; day < 7; day++) {
+                if (days[day]) {
+                    for (int slot = firstSlot; slot < endSlot; slot++) {
+                        int bit = day * SLOTS_PER_DAY + slot;
+                        words[bit >>> 6] |= 1L << bit;
+                    }
+                }
+            }
+        }
+        return new WeeklySchedule(words);
+    }
+
+    public boolean overlaps(WeeklySchedule other) {
+        int from = Math.max(firstWord, other.firstWord);
+        int to = Math.min(lastWord, other.lastWord);
+        for (int i = from; i <= to; i++) {
+            if ((words[i] & other.words[i]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public WeeklySchedule union(WeeklySchedule other) {
+        long[] merged = new long[WORDS];
+        for (int i = 0; i < WORDS; i++) {
+            merged[i] = words[i] | other.words[i];
+        }
+        return new WeeklySchedule(merged);
+    }
+
+    public boolean isEmpty() {
+        return lastWord < 0;
+    }
+
+    private static boolean[] parseDays(String token) {
+        boolean[] days = new boolean[7];
+        String upper = token.toUpperCase(Locale.ROOT);
+        int i = 0;
+        while (i < upper.length()) {
+            int day;
+            if (upper.startsWith("TH", i)) {
+                day = 3;
+                i += 2;
+            } else if (upper.startsWith("TU", i)) {
+                day = 1;
+                i += 2;
+            } else if (upper.startsWith("SA", i)) {
+                day = 5;
+                i += 2;
+            } else if (upper.startsWith("SU", i)) {
+                day = 6;
+                i += 2;
+            } else {
+                switch (upper.charAt(i)) {
+                    case 'M': day = 0; break;
+                    case 'T': day = 1; break;
+                    case 'W': day = 2; break;
+                    case 'R': day = 3; break;
+                    case 'F': day = 4; break;
+                    case 'S': day = 5; break;
+                    case 'U': day = 6; break;
+                    default:
+                        throw new IllegalArgumentException("Unknown day code in: " + token);
+                }
+                i++;
+            }
+            days[day] = true;
+        }
+        return days;
+    }
+
+    private static int parseMinutes(String time) {
+        String[] hm = time.trim().split(":");
+        if (hm.length != 2) {
+            throw new IllegalArgumentException("Expected HH:mm: " + time);
+        }
+        int hours;
+        int minutes;
+        try {
+            hours = Integer.parseInt(hm[0]);
+            minutes = Integer.parseInt(hm[1]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Expected HH:mm: " + time, e);
+        }
+        int total = hours * 60 + minutes;
+        if (hours < 0 || minutes < 0 || minutes > 59 || total > 24 * 60) {
+            throw new IllegalArgumentException("Time out of range: " + time);
+        }
+        return total;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return Arrays.equals(words, ((WeeklySchedule) o).words);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(words);
+    }
+}
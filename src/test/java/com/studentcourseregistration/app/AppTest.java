@@ -1,14 +1,35 @@
 package com.studentcourseregistration.app;
 
 import com.studentcourseregistration.app.model.Course;
+import com.studentcourseregistration.app.model.CourseSummary;
+import com.studentcourseregistration.app.model.Registration;
 import com.studentcourseregistration.app.model.Student;
+import com.studentcourseregistration.app.repository.CourseFilter;
+import com.studentcourseregistration.app.repository.Page;
+import com.studentcourseregistration.app.service.CourseAutocomplete;
+import com.studentcourseregistration.app.service.CourseFacetIndex;
+import com.studentcourseregistration.app.service.PrerequisiteGraph;
+import com.studentcourseregistration.app.service.RegistrationResult;
+import com.studentcourseregistration.app.service.SessionService;
 import com.studentcourseregistration.app.service.SimpleCourseService;
+import com.studentcourseregistration.app.service.SimpleRegistrationService;
 import com.studentcourseregistration.app.service.SimpleStudentService;
+import com.studentcourseregistration.app.util.PasswordHasher;
+import org.mindrot.jbcrypt.BCrypt;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 
 /**
  * Unit tests for Student Course Registration System
@@ -17,11 +38,13 @@ public class AppTest {
 
     private SimpleStudentService studentService;
     private SimpleCourseService courseService;
+    private SimpleRegistrationService registrationService;
 
     @BeforeEach
     public void setUp() {
         studentService = new SimpleStudentService();
         courseService = new SimpleCourseService();
+        registrationService = new SimpleRegistrationService(courseService, studentService);
         // Clear any existing data before each test
         studentService.clearAll();
         courseService.clearAll();
@@ -70,6 +93,75 @@ public class AppTest {
         assertFalse(studentService.authenticate("nonexistentuser", password));
     }
 
+    @Test
+    public void testLoginRehashesPasswordMadeWithOldCost() {
+        SimpleStudentService students = new SimpleStudentService(new PasswordHasher(4, 1, 8));
+        Student student = students.createStudent(
+            "Rehash", "Test", "rehash@test.com", "rehashuser",
+            "secret", "Mathematics", 1
+        );
+        assertTrue(student.getPasswordHash().startsWith("$2a$04$"));
+
+        student.setPasswordHash(BCrypt.hashpw("secret", BCrypt.gensalt(5)));
+        students.updateStudent(student);
+        assertNull(students.verifyCredentials("rehashuser", "wrong"));
+        assertTrue(student.getPasswordHash().startsWith("$2a$05$"));
+
+        assertNotNull(students.verifyCredentials("rehashuser", "secret"));
+        assertTrue(students.findByUsername("rehashuser").getPasswordHash().startsWith("$2a$04$"));
+        assertTrue(students.authenticate("rehashuser", "secret"));
+    }
+
+    @Test
+    public void testSaturatedPasswordHasherRejectsWithRetryHint() {
+        PasswordHasher hasher = new PasswordHasher(10, 1, 1);
+        List<CompletableFuture<String>> hashes = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            hashes.add(hasher.hash("password" + i));
+        }
+
+        int rejected = 0;
+        for (CompletableFuture<String> hash : hashes) {
+            try {
+                assertTrue(PasswordHasher.await(hash).startsWith("$2a$10$"));
+            } catch (PasswordHasher.OverloadedException e) {
+                assertTrue(e.getRetryAfter().toMillis() > 0);
+                rejected++;
+            }
+        }
+        assertTrue(rejected >= 1);
+        assertEquals(rejected, hasher.stats().getRejected());
+        assertEquals(0, hasher.stats().getQueued());
+    }
+
+    @Test
+    public void testSessionsResolveUntilLogoutOrIdleTimeout() throws Exception {
+        Student student = studentService.createStudent(
+            "Session", "Test", "session@test.com", "sessionuser",
+            "secret", "Mathematics", 1
+        );
+        SessionService sessions = new SessionService(studentService::verifyCredentials, studentService::findById,
+            Duration.ofMillis(300), Duration.ofHours(1), 100, false);
+
+        assertNull(sessions.login("sessionuser", "wrong"));
+        String token = sessions.login("sessionuser", "secret");
+        assertNotNull(token);
+        assertNotEquals(token, sessions.login("sessionuser", "secret"));
+
+        // Each use restarts the idle timeout
+        for (int i = 0; i < 4; i++) {
+            Thread.sleep(150);
+            assertEquals(student.getStudentId(), sessions.resolve(token).getStudentId());
+        }
+        sessions.logout(token);
+        assertNull(sessions.resolve(token));
+
+        String idle = sessions.login("sessionuser", "secret");
+        Thread.sleep(450);
+        assertNull(sessions.resolve(idle));
+        assertNull(sessions.resolve("not-a-token"));
+    }
+
     @Test
     public void testCourseCreation() {
         Course course = courseService.createCourse(
@@ -110,6 +202,278 @@ public class AppTest {
         assertTrue(results.stream().anyMatch(c -> c.getCourseName().contains("Searchable")));
     }
 
+    @Test
+    public void testSearchIndexRanksAndFollowsCourseChanges() {
+        Course algorithms = courseService.createCourse(
+            "ALG300", "Algorithms", "Graph and string algorithms",
+            3, "Computer Science", "Dr. Graph",
+            "Fall", 2024, "MWF 09:00-10:00", "Room 1", 20, List.of()
+        );
+        Course databases = courseService.createCourse(
+            "DB310", "Databases", "Query processing, indexing and algorithms for joins",
+            3, "Computer Science", "Dr. Codd",
+            "Fall", 2024, "MWF 10:00-11:00", "Room 2", 20, List.of()
+        );
+
+        // A name match outranks a description match; matching is case-insensitive
+        List<Course> results = courseService.searchCourses("ALGORITHM");
+        assertEquals(List.of(algorithms.getCourseId(), databases.getCourseId()),
+            results.stream().map(Course::getCourseId).collect(Collectors.toList()));
+        assertEquals(algorithms.getCourseId(), courseService.searchCourses("alg300").get(0).getCourseId());
+        // Sharing every trigram is not enough: "dat" and "ata" occur, "datx" does not
+        assertTrue(courseService.searchCourses("datx").isEmpty());
+        assertEquals(2, courseService.searchCourses("dr").size());
+
+        databases.setInstructor("Dr. Stonebraker");
+        courseService.updateCourse(databases);
+        assertTrue(courseService.searchCourses("codd").isEmpty());
+        assertEquals(1, courseService.searchCourses("stonebraker").size());
+
+        courseService.deleteCourse(algorithms.getCourseId());
+        assertEquals(List.of(databases.getCourseId()),
+            courseService.searchCourses("algorithm").stream().map(Course::getCourseId)
+                .collect(Collectors.toList()));
+        assertTrue(courseService.searchCourses("  ").isEmpty());
+    }
+
+    @Test
+    public void testAutocompleteRanksBySeatsAndFollowsChanges() {
+        Course small = courseService.createCourse(
+            "PROG101", "Intro to Programming", "Basics",
+            3, "Computer Science", "Dr. Fred Brooks",
+            "Fall", 2024, "MWF 09:00-10:00", "Room 1", 10, List.of()
+        );
+        Course large = courseService.createCourse(
+            "PROG201", "Programming Languages", "Semantics",
+            3, "Computer Science", "Dr. Fred Brooks",
+            "Fall", 2024, "MWF 10:00-11:00", "Room 2", 40, List.of()
+        );
+
+        // Matches from any word start; the course with more free seats ranks first
+        List<CourseAutocomplete.Suggestion> suggestions = courseService.autocomplete("prog", 10);
+        assertEquals(large.getCourseId(), suggestions.get(0).getCourseId());
+        assertEquals(List.of("PROG201", "Programming Languages", "Intro to Programming", "PROG101"),
+            suggestions.stream().map(CourseAutocomplete.Suggestion::getText).collect(Collectors.toList()));
+        assertEquals(2, courseService.autocomplete("prog", 2).size());
+
+        // One instructor suggestion for both courses, pointing at the best-ranked one
+        List<CourseAutocomplete.Suggestion> instructors = courseService.autocomplete("brooks", 5);
+        assertEquals(1, instructors.size());
+        assertEquals(CourseAutocomplete.Kind.INSTRUCTOR, instructors.get(0).getKind());
+        assertEquals(large.getCourseId(), instructors.get(0).getCourseId());
+
+        small.setEnrolled(5);
+        courseService.updateCourse(small);
+        assertEquals(small.getCourseId(), courseService.autocomplete("brooks", 1,
+            CourseAutocomplete.Ranking.POPULARITY).get(0).getCourseId());
+
+        small.setCourseName("Intro to Computing");
+        courseService.updateCourse(small);
+        assertEquals(List.of("Intro to Computing"), courseService.autocomplete("in", 5).stream()
+            .map(CourseAutocomplete.Suggestion::getText).collect(Collectors.toList()));
+        courseService.deleteCourse(large.getCourseId());
+        assertEquals(List.of("PROG101"), courseService.autocomplete("prog", 5).stream()
+            .map(CourseAutocomplete.Suggestion::getText).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testAutocompleteRerankingFollowsSeatChangesImmediately() {
+        Course first = courseService.createCourse(
+            "PROG101", "Intro to Programming", "Basics",
+            3, "Computer Science", "Dr. Fred Brooks",
+            "Fall", 2024, "MWF 09:00-10:00", "Room 1", 10, List.of()
+        );
+        Course second = courseService.createCourse(
+            "PROG102", "Program Design", "Design",
+            3, "Computer Science", "Dr. Ada Park",
+            "Fall", 2024, "MWF 10:00-11:00", "Room 2", 10, List.of()
+        );
+        assertTrue(courseService.incrementEnrollment(first.getCourseId()));
+
+        // Short prefixes read the ranked order; longer ones scan, and both agree
+        assertEquals(second.getCourseId(), courseService.autocomplete("pr", 1).get(0).getCourseId());
+        assertEquals(second.getCourseId(), courseService.autocomplete("prog", 1).get(0).getCourseId());
+        assertEquals(first.getCourseId(), courseService.autocomplete("pr", 1,
+            CourseAutocomplete.Ranking.POPULARITY).get(0).getCourseId());
+
+        assertTrue(courseService.incrementEnrollment(second.getCourseId()));
+        assertTrue(courseService.incrementEnrollment(second.getCourseId()));
+        assertEquals(first.getCourseId(), courseService.autocomplete("pr", 1).get(0).getCourseId());
+        assertEquals(first.getCourseId(), courseService.autocomplete("prog", 1).get(0).getCourseId());
+        // Every "pr" match here also matches "prog"
+        assertEquals(courseService.autocomplete("pr", 10).stream()
+                .map(CourseAutocomplete.Suggestion::getText).collect(Collectors.toList()),
+            courseService.autocomplete("prog", 10).stream()
+                .map(CourseAutocomplete.Suggestion::getText).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testFacetFilterCombinesFacetsAndCountsOtherValues() {
+        Course cs3 = courseService.createCourse(
+            "CS301", "Algorithms", "Design", 3, "Computer Science", "Dr. A",
+            "Fall", 2024, "MWF 09:00-10:00", "Room 1", 1, List.of()
+        );
+        courseService.createCourse(
+            "CS302", "Compilers", "Parsing", 4, "Computer Science", "Dr. B",
+            "Fall", 2024, "MWF 10:00-11:00", "Room 2", 30, List.of()
+        );
+        courseService.createCourse(
+            "CS303", "Seminar", "Reading", 1, "Computer Science", "Dr. C",
+            "Fall", 2024, "F 14:00-15:00", "Room 3", 30, List.of()
+        );
+        courseService.createCourse(
+            "MATH301", "Topology", "Spaces", 3, "Mathematics", "Dr. D",
+            "Fall", 2024, "TTh 09:00-10:30", "Room 4", 30, List.of()
+        );
+        courseService.createCourse(
+            "CS304", "Networks", "Protocols", 3, "Computer Science", "Dr. E",
+            "Spring", 2025, "TTh 11:00-12:30", "Room 5", 30, List.of()
+        );
+
+        CourseFacetIndex.Query query = new CourseFacetIndex.Query()
+            .where(CourseFacetIndex.Facet.DEPARTMENT, "Computer Science")
+            .where(CourseFacetIndex.Facet.SEMESTER, "Fall")
+            .where(CourseFacetIndex.Facet.YEAR, "2024")
+            .whereBetween(CourseFacetIndex.Facet.CREDITS, 3, 4)
+            .withOpenSeats();
+        CourseFacetIndex.Result result = courseService.filterCourses(query);
+        assertEquals(List.of("CS301", "CS302"), result.getCourses().stream()
+            .map(Course::getCourseCode).collect(Collectors.toList()));
+        // A facet's counts ignore its own filter, so the alternatives stay visible
+        assertEquals(Map.of("Computer Science", 2, "Mathematics", 1),
+            result.getCounts(CourseFacetIndex.Facet.DEPARTMENT));
+        assertEquals(Map.of("1", 1, "3", 1, "4", 1), result.getCounts(CourseFacetIndex.Facet.CREDITS));
+
+        // Filling the last seat drops the course from open-seat results
+        assertTrue(courseService.incrementEnrollment(cs3.getCourseId()));
+        result = courseService.filterCourses(query);
+        assertEquals(List.of("CS302"), result.getCourses().stream()
+            .map(Course::getCourseCode).collect(Collectors.toList()));
+        assertEquals(Map.of("open", 1, "full", 1), result.getCounts(CourseFacetIndex.Facet.SEATS));
+
+        courseService.decrementEnrollment(cs3.getCourseId());
+        assertEquals(2, courseService.filterCourses(query).getCourses().size());
+    }
+
+    @Test
+    public void testCatalogAndSearchPagesResumeAfterChanges() {
+        for (int i = 1; i <= 5; i++) {
+            courseService.createCourse(
+                "PAGE10" + i, "Paging Seminar " + i, "Paging",
+                3, "History", "Dr. Page", "Fall", 2024, "F 09:00-10:00", "Room " + i, 20, List.of()
+            );
+        }
+
+        Page<Course> first = courseService.getAllCourses(2, null);
+        assertEquals(List.of("PAGE101", "PAGE102"), first.getItems().stream()
+            .map(Course::getCourseCode).collect(Collectors.toList()));
+        assertTrue(first.hasMore());
+
+        // A course inserted before the cursor neither shifts nor repeats the next page
+        courseService.createCourse(
+            "PAGE100", "Paging Seminar 0", "Paging",
+            3, "History", "Dr. Page", "Fall", 2024, "F 09:00-10:00", "Room 0", 20, List.of()
+        );
+        Page<Course> second = courseService.getAllCourses(2, first.getNextCursor());
+        assertEquals(List.of("PAGE103", "PAGE104"), second.getItems().stream()
+            .map(Course::getCourseCode).collect(Collectors.toList()));
+        Page<Course> last = courseService.getAllCourses(2, second.getNextCursor());
+        assertEquals(List.of("PAGE105"), last.getItems().stream()
+            .map(Course::getCourseCode).collect(Collectors.toList()));
+        assertFalse(last.hasMore());
+
+        List<String> searched = new ArrayList<>();
+        String cursor = null;
+        do {
+            Page<Course> page = courseService.searchCourses("paging seminar", 4, cursor);
+            page.getItems().forEach(course -> searched.add(course.getCourseCode()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        assertEquals(courseService.searchCourses("paging seminar").stream()
+            .map(Course::getCourseCode).collect(Collectors.toList()), searched);
+        assertEquals(6, searched.size());
+
+        assertThrows(IllegalArgumentException.class, () -> courseService.getAllCourses(0, null));
+        assertThrows(IllegalArgumentException.class, () -> courseService.getAllCourses(2, "%%%"));
+    }
+
+    @Test
+    public void testCatalogStaysOrderedThroughIncrementalChanges() {
+        List<Course> created = new ArrayList<>();
+        // Enough courses, in shuffled code order, to split and drop catalog blocks
+        for (int i = 0; i < 300; i++) {
+            created.add(courseService.createCourse(
+                String.format("ORD%03d", (i * 7) % 300), "Ordering " + i, "", 3, "History", "Dr. Order",
+                "Fall", 2024, "F 09:00-10:00", "Room " + i, 20, List.of()
+            ));
+        }
+        for (int i = 0; i < 300; i += 3) {
+            courseService.deleteCourse(created.get(i).getCourseId());
+        }
+        Course renamed = created.get(1);
+        renamed.setCourseCode("ORA000");
+        courseService.updateCourse(renamed);
+
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            if (i % 3 != 0) {
+                expected.add(created.get(i).getCourseCode());
+            }
+        }
+        expected.sort(null);
+        List<String> listed = new ArrayList<>();
+        String cursor = null;
+        do {
+            Page<Course> page = courseService.getAllCourses(37, cursor);
+            page.getItems().forEach(course -> listed.add(course.getCourseCode()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        assertEquals(expected, listed);
+        assertEquals(expected, courseService.getAllCourses().stream()
+            .map(Course::getCourseCode).collect(Collectors.toList()));
+        assertEquals("ORA000", courseService.findById(renamed.getCourseId()).getCourseCode());
+
+        // Editing a stored course in place leaves the catalog alone until it is saved
+        Course edited = created.get(2);
+        String code = edited.getCourseCode();
+        edited.setCourseCode("AAA000");
+        assertEquals(code, courseService.getAllCourses().stream()
+            .filter(course -> course.getCourseId().equals(edited.getCourseId()))
+            .findFirst().orElseThrow().getCourseCode());
+        assertEquals(expected, courseService.getAllCourses().stream()
+            .map(Course::getCourseCode).collect(Collectors.toList()));
+
+        // Seat changes still reach the catalog right away
+        assertTrue(courseService.incrementEnrollment(edited.getCourseId()));
+        assertEquals(1, courseService.getAllCourses().stream()
+            .filter(course -> course.getCourseId().equals(edited.getCourseId()))
+            .findFirst().orElseThrow().getEnrolled());
+    }
+
+    @Test
+    public void testCourseSummariesApplyListingFilter() {
+        Course full = courseService.createCourse(
+            "LIST101", "Listing One", "Long description", 3, "History", "Dr. L",
+            "Fall", 2024, "F 09:00-10:00", "Room 1", 1, List.of()
+        );
+        courseService.createCourse(
+            "LIST102", "Listing Two", "Long description", 3, "History", "Dr. L",
+            "Fall", 2024, "F 10:00-11:00", "Room 2", 10, List.of()
+        );
+        courseService.createCourse(
+            "LIST103", "Listing Three", "Long description", 3, "History", "Dr. L",
+            "Spring", 2025, "F 11:00-12:00", "Room 3", 10, List.of()
+        );
+        courseService.incrementEnrollment(full.getCourseId());
+
+        Page<CourseSummary> page = courseService.findCourseSummaries(
+            new CourseFilter().department("History").semester("Fall").year(2024).openSeats(), 10, null);
+        assertEquals(List.of("LIST102"), page.getItems().stream()
+            .map(CourseSummary::getCourseCode).collect(Collectors.toList()));
+        assertEquals(Integer.valueOf(10), page.getItems().get(0).getCapacity());
+        assertFalse(page.hasMore());
+    }
+
     @Test
     public void testDuplicateUsernameValidation() {
         String testUsername = "duplicate" + System.currentTimeMillis();
@@ -148,6 +512,240 @@ public class AppTest {
         });
     }
 
+    @Test
+    public void testDropAndReRegister() {
+        Student student = studentService.createStudent(
+            "Drop", "Test", "drop@test.com", "dropuser",
+            "password", "History", 3
+        );
+        Course course = courseService.createCourse(
+            "DROP101", "Drop Course", "A course to drop",
+            3, "History", "Drop Instructor",
+            "Fall", 2024, "MWF 13:00-14:00", "Room 300", 10, List.of()
+        );
+
+        registrationService.registerStudentForCourse(student.getStudentId(), course.getCourseId());
+        RegistrationResult duplicate = registrationService.tryRegisterStudentForCourse(
+            student.getStudentId(), course.getCourseId());
+        assertEquals(RegistrationResult.FailureReason.DUPLICATE, duplicate.getFailureReason());
+
+        assertTrue(registrationService.dropCourse(student.getStudentId(), course.getCourseId()));
+        assertFalse(registrationService.dropCourse(student.getStudentId(), course.getCourseId()));
+        assertTrue(registrationService.getStudentRegistrations(student.getStudentId()).isEmpty());
+        assertEquals(0, course.getEnrolled());
+
+        registrationService.registerStudentForCourse(student.getStudentId(), course.getCourseId());
+        assertEquals(1, registrationService.getStudentRegistrations(student.getStudentId()).size());
+        assertEquals(1, registrationService.getCourseRegistrations(course.getCourseId()).size());
+        assertEquals(1, course.getEnrolled());
+        assertEquals(List.of(course), registrationService.getStudentCourses(student.getStudentId()));
+        assertEquals(List.of(student), registrationService.getCourseRoster(course.getCourseId()));
+    }
+
+    @Test
+    public void testConcurrentRegistrationDoesNotOversell() throws Exception {
+        int registrants = 32;
+        Course course = courseService.createCourse(
+            "RACE101", "Popular Course", "Everyone wants in",
+            3, "Computer Science", "Busy Instructor",
+            "Fall", 2024, "TTh 09:00-10:30", "Room 400", 5, List.of()
+        );
+
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < registrants; i++) {
+            students.add(studentService.createStudent(
+                "Racer", "No" + i, "racer" + i + "@test.com", "racer" + i,
+                "password", "Computer Science", 1));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(registrants);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<RegistrationResult>> attempts = new ArrayList<>();
+            for (Student student : students) {
+                // Every student races twice, so duplicates and capacity are both contended
+                for (int attempt = 0; attempt < 2; attempt++) {
+                    attempts.add(executor.submit(() -> {
+                        start.await();
+                        return registrationService.tryRegisterStudentForCourse(
+                            student.getStudentId(), course.getCourseId());
+                    }));
+                }
+            }
+            start.countDown();
+
+            int registered = 0;
+            for (Future<RegistrationResult> attempt : attempts) {
+                if (attempt.get().isSuccess()) {
+                    registered++;
+                }
+            }
+
+            assertEquals(5, registered);
+            assertEquals(5, course.getEnrolled());
+            assertEquals(5, registrationService.getCourseRegistrations(course.getCourseId()).size());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testOverlappingScheduleIsRejected() {
+        Student student = studentService.createStudent(
+            "Busy", "Student", "busy@test.com", "busyuser",
+            "password", "Physics", 2
+        );
+        Course morning = courseService.createCourse(
+            "PHYS101", "Physics I", "Mechanics",
+            4, "Physics", "Dr. Morning",
+            "Fall", 2024, "MWF 09:00-10:00", "Room 500", 10, List.of()
+        );
+        Course overlapping = courseService.createCourse(
+            "CHEM101", "Chemistry I", "Atoms",
+            4, "Chemistry", "Dr. Overlap",
+            "Fall", 2024, "MW 09:30-10:30", "Room 501", 10, List.of()
+        );
+
+        registrationService.registerStudentForCourse(student.getStudentId(), morning.getCourseId());
+        RegistrationResult result = registrationService.tryRegisterStudentForCourse(
+            student.getStudentId(), overlapping.getCourseId());
+        assertEquals(RegistrationResult.FailureReason.SCHEDULE_CONFLICT, result.getFailureReason());
+        assertEquals(4, registrationService.getStudentCreditLoad(student.getStudentId()));
+
+        // Dropping frees the slots held in the cached timetable
+        registrationService.dropCourse(student.getStudentId(), morning.getCourseId());
+        assertEquals(0, registrationService.getStudentCreditLoad(student.getStudentId()));
+        registrationService.registerStudentForCourse(student.getStudentId(), overlapping.getCourseId());
+        assertEquals(4, registrationService.getStudentCreditLoad(student.getStudentId()));
+    }
+
+    @Test
+    public void testWaitlistPromotesInOrderOnDrop() {
+        Course course = courseService.createCourse(
+            "WAIT101", "Waitlist Course", "Popular section",
+            3, "Biology", "Dr. Queue",
+            "Fall", 2024, "TTh 14:00-15:30", "Room 600", 1, List.of()
+        );
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            students.add(studentService.createStudent(
+                "Wait", "No" + i, "wait" + i + "@test.com", "wait" + i,
+                "password", "Biology", 1));
+        }
+        String holder = students.get(0).getStudentId();
+        String first = students.get(1).getStudentId();
+        String second = students.get(2).getStudentId();
+
+        registrationService.registerStudentForCourse(holder, course.getCourseId());
+        RegistrationResult waitlisted = registrationService.joinWaitlist(first, course.getCourseId());
+        assertEquals("WAITLISTED", waitlisted.getRegistration().getStatus());
+        registrationService.joinWaitlist(second, course.getCourseId());
+        assertEquals(RegistrationResult.FailureReason.DUPLICATE,
+            registrationService.joinWaitlist(first, course.getCourseId()).getFailureReason());
+        assertEquals(RegistrationResult.FailureReason.DUPLICATE,
+            registrationService.tryRegisterStudentForCourse(first, course.getCourseId()).getFailureReason());
+        assertEquals(2, registrationService.getWaitlistPosition(second, course.getCourseId()));
+
+        // The freed seat goes to the head of the waitlist, never back to the course
+        assertTrue(registrationService.dropCourse(holder, course.getCourseId()));
+        assertEquals(1, course.getEnrolled());
+        assertEquals(List.of(course), registrationService.getStudentCourses(first));
+        assertEquals(1, registrationService.getWaitlistPosition(second, course.getCourseId()));
+
+        // Leaving the waitlist does not touch the seat count
+        assertTrue(registrationService.dropCourse(second, course.getCourseId()));
+        assertTrue(registrationService.getCourseWaitlist(course.getCourseId()).isEmpty());
+        assertTrue(registrationService.dropCourse(first, course.getCourseId()));
+        assertEquals(0, course.getEnrolled());
+    }
+
+    @Test
+    public void testWaitlistPromotionPassesOverStudentsWhoNowClash() {
+        Course course = courseService.createCourse(
+            "WAIT201", "Waitlist Course", "Popular section",
+            3, "Biology", "Dr. Queue", "Fall", 2024, "MW 09:00-10:30", "Room 601", 1, List.of()
+        );
+        Course clashing = courseService.createCourse(
+            "CLASH201", "Clashing Course", "Same slot",
+            3, "Biology", "Dr. Clash", "Fall", 2024, "MW 10:00-11:00", "Room 602", 10, List.of()
+        );
+        List<String> students = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            students.add(studentService.createStudent(
+                "Clash", "No" + i, "clash" + i + "@test.com", "clash" + i,
+                "password", "Biology", 1).getStudentId());
+        }
+        registrationService.registerStudentForCourse(students.get(0), course.getCourseId());
+        registrationService.joinWaitlist(students.get(1), course.getCourseId());
+        registrationService.joinWaitlist(students.get(2), course.getCourseId());
+        // The head takes a course in the same slot while waiting
+        registrationService.registerStudentForCourse(students.get(1), clashing.getCourseId());
+
+        assertTrue(registrationService.dropCourse(students.get(0), course.getCourseId()));
+        assertEquals(List.of(course), registrationService.getStudentCourses(students.get(2)));
+        assertEquals(1, registrationService.getWaitlistPosition(students.get(1), course.getCourseId()));
+        assertEquals(1, course.getEnrolled());
+    }
+
+    @Test
+    public void testPrerequisitesAreEnforced() {
+        Student student = studentService.createStudent(
+            "Prereq", "Student", "prereq@test.com", "prerequser",
+            "password", "Computer Science", 2
+        );
+        Course intro = courseService.createCourse(
+            "CS101", "Intro", "Basics", 3, "Computer Science", "Dr. A",
+            "Fall", 2024, "MWF 08:00-09:00", "Room 700", 10, List.of()
+        );
+        Course structures = courseService.createCourse(
+            "CS201", "Data Structures", "Lists and trees", 3, "Computer Science", "Dr. B",
+            "Fall", 2024, "MWF 10:00-11:00", "Room 701", 10, List.of("CS101")
+        );
+        Course algorithms = courseService.createCourse(
+            "CS301", "Algorithms", "Graphs", 3, "Computer Science", "Dr. C",
+            "Fall", 2024, "MWF 12:00-13:00", "Room 702", 10, List.of("CS201")
+        );
+        Course theory = courseService.createCourse(
+            "CS310", "Theory", "Automata", 3, "Computer Science", "Dr. D",
+            "Fall", 2024, "TTh 12:00-13:30", "Room 703", 10, List.of("CS101", "CS201")
+        );
+
+        assertEquals(RegistrationResult.FailureReason.PREREQUISITES_NOT_MET, registrationService
+            .tryRegisterStudentForCourse(student.getStudentId(), structures.getCourseId()).getFailureReason());
+
+        // A failing grade does not complete a course
+        Registration introRegistration = registrationService.registerStudentForCourse(
+            student.getStudentId(), intro.getCourseId());
+        registrationService.updateGrade(introRegistration.getRegistrationId(), "F");
+        assertFalse(registrationService.tryRegisterStudentForCourse(
+            student.getStudentId(), structures.getCourseId()).isSuccess());
+
+        registrationService.updateGrade(introRegistration.getRegistrationId(), "A");
+        Registration structuresRegistration = registrationService.registerStudentForCourse(
+            student.getStudentId(), structures.getCourseId());
+        assertEquals(RegistrationResult.FailureReason.PREREQUISITES_NOT_MET, registrationService
+            .tryRegisterStudentForCourse(student.getStudentId(), algorithms.getCourseId()).getFailureReason());
+
+        registrationService.updateGrade(structuresRegistration.getRegistrationId(), "B");
+        assertTrue(registrationService.tryRegisterStudentForCourse(
+            student.getStudentId(), algorithms.getCourseId()).isSuccess());
+
+        // Completing CS201 implies CS101 through the closure
+        PrerequisiteGraph graph = courseService.getPrerequisiteGraph();
+        assertTrue(graph.isSatisfied(theory.getCourseId(), graph.satisfiedBy(List.of(structures.getCourseId()))));
+        assertFalse(graph.isSatisfied(theory.getCourseId(), graph.satisfiedBy(List.of(intro.getCourseId()))));
+
+        // Cycles are rejected when a course is written
+        structures.setPrerequisites(List.of("CS101", "CS301"));
+        IllegalArgumentException cycle = assertThrows(IllegalArgumentException.class,
+            () -> courseService.updateCourse(structures));
+        assertTrue(cycle.getMessage().contains("CS201 -> CS301 -> CS201"), cycle.getMessage());
+        structures.setPrerequisites(List.of("CS101"));
+        assertThrows(IllegalArgumentException.class, () -> courseService.createCourse(
+            "CS999", "Self Study", "", 3, "Computer Science", "Staff",
+            "Fall", 2024, "MWF 15:00-16:00", "Room 9", 10, List.of("CS999")));
+    }
+
     @Test
     public void shouldAnswerWithTrue() {
         assertTrue(true);
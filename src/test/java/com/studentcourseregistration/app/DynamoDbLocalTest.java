@@ -0,0 +1,75 @@
+package com.studentcourseregistration.app;
+
+import com.studentcourseregistration.app.config.DynamoDbConfig;
+import com.studentcourseregistration.app.config.DynamoDbTableInitializer;
+import com.studentcourseregistration.app.model.Course;
+import com.studentcourseregistration.app.model.Student;
+import com.studentcourseregistration.app.repository.DynamoDbStudentRepository;
+import com.studentcourseregistration.app.service.CourseService;
+import com.studentcourseregistration.app.service.StudentService;
+import com.studentcourseregistration.app.util.PasswordHasher;
+import org.junit.jupiter.api.BeforeAll;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.util.List;
+
+/**
+ * Base for tests against DynamoDB Local (localhost:8000), skipped when it is not running.
+ * The tables outlive a test run, so fixtures are named with a unique suffix.
+ */
+public abstract class DynamoDbLocalTest {
+
+    protected static final String PASSWORD = "password";
+
+    @BeforeAll
+    public static void requireDynamoDbLocal() {
+        boolean available;
+        try {
+            DynamoDbConfig.getDynamoDbClient().listTables();
+            available = true;
+        } catch (Exception e) {
+            available = false;
+        }
+        assumeTrue(available, "DynamoDB Local is not running on localhost:8000");
+        DynamoDbTableInitializer.initializeTables();
+    }
+
+    protected static String uniqueSuffix() {
+        return Long.toString(System.nanoTime());
+    }
+
+    /**
+     * A student service with a cheap hash cost, so signups do not dominate test time.
+     */
+    protected static StudentService newStudentService() {
+        return new StudentService(new PasswordHasher(4, 1, 16));
+    }
+
+    protected static Course createCourse(CourseService courseService, String code, String schedule,
+                                         int capacity, String... prerequisites) {
+        return courseService.createCourse(
+            code, "Course " + code, "Test course",
+            3, "Test Department", "Test Instructor",
+            "Fall", 2024, schedule, "Room 1", capacity, List.of(prerequisites)
+        );
+    }
+
+    /**
+     * Signs up a student whose username is {@code name} and whose password is {@link #PASSWORD}.
+     */
+    protected static Student createStudent(StudentService studentService, String name) {
+        return studentService.createStudent("Test", name, name + "@test.com", name, PASSWORD, "Physics", 1);
+    }
+
+    /**
+     * Stores a student item directly, without a password or UniqueConstraints markers.
+     */
+    protected static Student saveStudent(DynamoDbStudentRepository studentRepository, String name) {
+        Student student = new Student();
+        student.setStudentId(name);
+        student.setUsername(name);
+        student.setEmail(name + "@test.com");
+        studentRepository.save(student);
+        return student;
+    }
+}
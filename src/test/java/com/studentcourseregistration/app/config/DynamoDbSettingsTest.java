@@ -0,0 +1,47 @@
+package com.studentcourseregistration.app.config;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.retry.RetryMode;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Unit tests for DynamoDbSettings
+ */
+public class DynamoDbSettingsTest {
+
+    @Test
+    public void testDynamoDbSettingsParseOverridesAndRejectBadValues() {
+        DynamoDbSettings defaults = DynamoDbSettings.from(key -> null);
+        assertEquals(DynamoDbSettings.LOCAL_ENDPOINT, defaults.getEndpoint().toString());
+        assertEquals(DynamoDbSettings.HttpClientType.APACHE, defaults.getHttpClient());
+        assertEquals(RetryMode.ADAPTIVE, defaults.getRetryMode());
+        assertEquals(DynamoDbSettings.DEFAULT_MAX_CONNECTIONS, defaults.getMaxConnections());
+        assertNull(defaults.getScanSegments());
+
+        DynamoDbSettings tuned = DynamoDbSettings.from(Map.of(
+                "dynamodb.endpoint", "",
+                "dynamodb.http.client", "sdk-default",
+                "dynamodb.http.max-connections", "400",
+                "dynamodb.api-call-attempt-timeout", "1500",
+                "dynamodb.retry.mode", "Standard",
+                "dynamodb.http.tcp-keep-alive", "false",
+                "dynamodb.scan.segments", "8")::get);
+        assertNull(tuned.getEndpoint());
+        assertEquals(DynamoDbSettings.HttpClientType.SDK_DEFAULT, tuned.getHttpClient());
+        assertEquals(400, tuned.getMaxConnections());
+        assertEquals(Duration.ofMillis(1500), tuned.getApiCallAttemptTimeout());
+        assertEquals(RetryMode.STANDARD, tuned.getRetryMode());
+        assertFalse(tuned.isTcpKeepAlive());
+        assertEquals(8, tuned.getScanSegments());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> DynamoDbSettings.from(Map.of("dynamodb.http.max-connections", "0")::get));
+        assertThrows(IllegalArgumentException.class,
+                () -> DynamoDbSettings.from(Map.of("dynamodb.http.client", "okhttp")::get));
+        assertThrows(IllegalArgumentException.class,
+                () -> DynamoDbSettings.from(Map.of("dynamodb.api-call-timeout", "500")::get));
+    }
+}
@@ -0,0 +1,71 @@
+package com.studentcourseregistration.app.repository;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.PutRequest;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unit tests for DynamoDbBatchSupport
+ */
+public class DynamoDbBatchSupportTest {
+
+    @Test
+    public void testGroupedBatchWriteReportsOnlyGroupsThatDidNotLand() {
+        List<Map<String, List<WriteRequest>>> groups = new ArrayList<>();
+        for (int i = 0; i < 15; i++) {
+            groups.add(Map.of("A", List.of(put("a" + i)), "B", List.of(put("b" + i))));
+        }
+        List<Integer> callSizes = new ArrayList<>();
+        DynamoDbClient client = new DynamoDbClient() {
+            @Override
+            public BatchWriteItemResponse batchWriteItem(BatchWriteItemRequest request) {
+                callSizes.add(request.requestItems().values().stream().mapToInt(List::size).sum());
+                switch (callSizes.size()) {
+                    case 1: // groups 0-11; group 11 comes back unprocessed and is retried
+                        return BatchWriteItemResponse.builder()
+                            .unprocessedItems(Map.of("A", List.of(put("a11")), "B", List.of(put("b11")))).build();
+                    case 3: // groups 12-14; half of group 13 is left over, then the retry fails
+                        return BatchWriteItemResponse.builder()
+                            .unprocessedItems(Map.of("B", List.of(put("b13")))).build();
+                    case 4:
+                        throw new IllegalStateException("throttled");
+                    default:
+                        return BatchWriteItemResponse.builder().build();
+                }
+            }
+
+            @Override
+            public String serviceName() {
+                return "dynamodb";
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        DynamoDbBatchSupport.PartialWriteException failure = assertThrows(
+            DynamoDbBatchSupport.PartialWriteException.class,
+            () -> DynamoDbBatchSupport.batchWriteGroups(client, groups));
+        assertEquals(List.of(24, 2, 6, 1), callSizes);
+        BitSet expected = new BitSet();
+        expected.set(13);
+        assertEquals(expected, failure.getUnwrittenGroups());
+    }
+
+    private static WriteRequest put(String id) {
+        return WriteRequest.builder()
+            .putRequest(PutRequest.builder().item(Map.of("id", AttributeValue.builder().s(id).build())).build())
+            .build();
+    }
+}
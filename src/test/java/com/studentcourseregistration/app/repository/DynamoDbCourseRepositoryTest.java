@@ -0,0 +1,67 @@
+package com.studentcourseregistration.app.repository;
+
+import com.studentcourseregistration.app.DynamoDbLocalTest;
+import com.studentcourseregistration.app.model.Course;
+import com.studentcourseregistration.app.service.CourseService;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Parallel scans and streamed reads against DynamoDB Local.
+ */
+public class DynamoDbCourseRepositoryTest extends DynamoDbLocalTest {
+
+    @Test
+    public void testSegmentedScanReturnsEveryItemOnce() {
+        CourseService courseService = new CourseService();
+        String suffix = uniqueSuffix();
+        for (int i = 0; i < 40; i++) {
+            createCourse(courseService, "SEG" + i + "_" + suffix, "MWF 08:00-09:00", 10);
+        }
+
+        DynamoDbCourseRepository repository = new DynamoDbCourseRepository();
+        Set<String> sequential = new HashSet<>();
+        repository.scanAll(1, course -> sequential.add(course.getCourseId()));
+        Set<String> segmented = ConcurrentHashMap.newKeySet();
+        AtomicInteger delivered = new AtomicInteger();
+        repository.scanAll(4, course -> {
+            segmented.add(course.getCourseId());
+            delivered.incrementAndGet();
+        });
+        assertEquals(sequential, segmented);
+        assertEquals(sequential.size(), delivered.get());
+        assertThrows(IllegalArgumentException.class, () -> repository.scanAll(0, course -> { }));
+    }
+
+    @Test
+    public void testRepositoryStreamsMatchMaterializedLookups() {
+        CourseService courseService = new CourseService();
+        String suffix = uniqueSuffix();
+        String department = "Stream Department " + suffix;
+        Set<String> created = new HashSet<>();
+        for (int i = 0; i < 5; i++) {
+            created.add(courseService.createCourse(
+                "STR" + i + "_" + suffix, "Stream Course " + i, "Stream test course",
+                3, department, "Test Instructor",
+                "Fall", 2024, "MWF 08:00-09:00", "Room 1", 10, List.of()
+            ).getCourseId());
+        }
+
+        DynamoDbCourseRepository repository = new DynamoDbCourseRepository();
+        try (Stream<Course> courses = repository.streamByDepartment(department)) {
+            assertEquals(created, courses.map(Course::getCourseId).collect(Collectors.toSet()));
+        }
+        try (Stream<Course> courses = repository.streamAll()) {
+            assertEquals(created.size(), courses.filter(course -> created.contains(course.getCourseId())).count());
+        }
+        assertEquals(created.size(), repository.findByDepartment(department).size());
+    }
+}
@@ -0,0 +1,43 @@
+package com.studentcourseregistration.app.repository;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.DescribeTableRequest;
+import software.amazon.awssdk.services.dynamodb.model.DescribeTableResponse;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for DynamoDbParallelScan
+ */
+public class DynamoDbParallelScanTest {
+
+    @Test
+    public void testScanSegmentCountIsSizedOncePerTable() {
+        AtomicInteger describes = new AtomicInteger();
+        DynamoDbClient client = new DynamoDbClient() {
+            @Override
+            public DescribeTableResponse describeTable(DescribeTableRequest request) {
+                describes.incrementAndGet();
+                return DescribeTableResponse.builder()
+                    .table(t -> t.tableName(request.tableName()).tableSizeBytes(3 * DynamoDbParallelScan.BYTES_PER_SEGMENT))
+                    .build();
+            }
+
+            @Override
+            public String serviceName() {
+                return "dynamodb";
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        String table = "SegmentSizing" + System.nanoTime();
+
+        assertEquals(3, DynamoDbParallelScan.segmentsFor(client, table));
+        assertEquals(3, DynamoDbParallelScan.segmentsFor(client, table));
+        assertEquals(1, describes.get());
+    }
+}
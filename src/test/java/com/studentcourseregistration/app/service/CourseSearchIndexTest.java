@@ -0,0 +1,101 @@
+package com.studentcourseregistration.app.service;
+
+import com.studentcourseregistration.app.model.Course;
+import com.studentcourseregistration.app.repository.Page;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Unit tests for CourseSearchIndex
+ */
+public class CourseSearchIndexTest {
+
+    @Test
+    public void testRanksByFieldAndConfirmsEveryCandidate() {
+        CourseSearchIndex index = new CourseSearchIndex();
+        index.put(course("1", "CS101", "Intro to Programming", "Ada Lovelace", "Computer Science", "Basics"));
+        index.put(course("2", "MATH201", "Discrete Math", "Alan Turing", "Mathematics", "Proofs for programmers"));
+        index.put(course("3", "PROG300", "Compilers", "Grace Hopper", "Computer Science", "Parsing"));
+
+        // Code prefix, then name, then description
+        assertEquals(List.of("3", "1", "2"), ids(index.search("prog")));
+        assertEquals(List.of("3", "1", "2"), ids(index.search(" PROG ")));
+        assertEquals(List.of("3"), ids(index.search("prog", 1)));
+        assertEquals("1", ids(index.search("cs101")).get(0));
+        // Every trigram of "introg" occurs in course 1, but not as one substring
+        assertEquals(List.of(), ids(index.search("introg")));
+        // Shorter than a trigram: the fields are scanned
+        assertEquals(List.of("2"), ids(index.search("ma")));
+        assertEquals(List.of(), ids(index.search("  ")));
+    }
+
+    @Test
+    public void testFollowsPutsAndRemovals() {
+        CourseSearchIndex index = new CourseSearchIndex();
+        Course course = course("1", "HIST110", "World History", "Staff", "History", "Survey");
+        index.put(course);
+        index.put(course("2", "HIST210", "Modern Europe", "Staff", "History", "Survey"));
+        assertEquals(List.of("1"), ids(index.search("world")));
+
+        // Re-putting a course re-indexes it from its current fields
+        course.setCourseName("Ancient Rome");
+        index.put(course);
+        assertEquals(List.of(), ids(index.search("world")));
+        assertEquals(List.of("1"), ids(index.search("rome")));
+        assertEquals(2, index.size());
+
+        index.remove("1");
+        index.remove("missing");
+        assertEquals(List.of("2"), ids(index.search("hist")));
+        assertEquals(1, index.size());
+
+        index.replaceAll(List.of(course("3", "ART100", "Drawing", "Staff", "Art", "Studio")));
+        assertEquals(List.of(), ids(index.search("hist")));
+        assertEquals(List.of("3"), ids(index.search("draw")));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void testPagesResumeInRankOrder() {
+        CourseSearchIndex index = new CourseSearchIndex();
+        for (int i = 0; i < 7; i++) {
+            // Even codes match in the name, odd ones only in the description
+            index.put(i % 2 == 0
+                ? course("c" + i, "LAB" + i, "Lab Methods " + i, "Staff", "Biology", "Bench work")
+                : course("c" + i, "SEM" + i, "Seminar " + i, "Staff", "Biology", "Lab reading"));
+        }
+        List<String> all = ids(index.search("lab"));
+        assertEquals(7, all.size());
+
+        List<String> paged = new ArrayList<>();
+        String cursor = null;
+        do {
+            Page<Course> page = index.search("lab", 3, cursor);
+            paged.addAll(ids(page.getItems()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        assertEquals(all, paged);
+        assertEquals(List.of("c0", "c2", "c4", "c6"), all.subList(0, 4));
+        assertThrows(IllegalArgumentException.class, () -> index.search("lab", 0, null));
+    }
+
+    private static List<String> ids(List<Course> courses) {
+        return courses.stream().map(Course::getCourseId).collect(Collectors.toList());
+    }
+
+    private static Course course(String courseId, String courseCode, String courseName, String instructor,
+                                 String department, String description) {
+        Course course = new Course();
+        course.setCourseId(courseId);
+        course.setCourseCode(courseCode);
+        course.setCourseName(courseName);
+        course.setInstructor(instructor);
+        course.setDepartment(department);
+        course.setDescription(description);
+        return course;
+    }
+}
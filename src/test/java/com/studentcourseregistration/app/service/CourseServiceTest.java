@@ -0,0 +1,126 @@
+package com.studentcourseregistration.app.service;
+
+import com.studentcourseregistration.app.DynamoDbLocalTest;
+import com.studentcourseregistration.app.model.Course;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Seat counters, the course cache and the catalog snapshot against DynamoDB Local.
+ */
+public class CourseServiceTest extends DynamoDbLocalTest {
+
+    @Test
+    public void testReleaseNeverDropsBelowZero() {
+        CourseService courseService = new CourseService();
+        Course course = createCourse(courseService, "REL" + uniqueSuffix(), "TTh 08:00-09:00", 1);
+
+        assertTrue(courseService.incrementEnrollment(course.getCourseId()));
+        assertFalse(courseService.incrementEnrollment(course.getCourseId()));
+        assertTrue(courseService.decrementEnrollment(course.getCourseId()));
+        assertFalse(courseService.decrementEnrollment(course.getCourseId()));
+        assertFalse(courseService.incrementEnrollment("missing-" + uniqueSuffix()));
+        assertEquals(0, courseService.findById(course.getCourseId()).getEnrolled());
+    }
+
+    @Test
+    public void testCourseCacheRefreshesCountersAndInvalidatesOnWrite() {
+        CourseService courseService = new CourseService();
+        Course course = createCourse(courseService, "CACHE" + uniqueSuffix(), "TTh 18:00-19:00", 2);
+
+        courseService.findById(course.getCourseId());
+        courseService.findById(course.getCourseId());
+        assertEquals(1, courseService.getCacheStats().getHits());
+        assertEquals(1, courseService.getCacheStats().getMisses());
+
+        // Counter writes refresh the cached copy from the returned item
+        assertTrue(courseService.incrementEnrollment(course.getCourseId()));
+        assertEquals(1, courseService.findById(course.getCourseId()).getEnrolled());
+        assertEquals(1, courseService.getCacheStats().getMisses());
+
+        // Callers get their own copy, and updates invalidate
+        Course copy = courseService.findById(course.getCourseId());
+        copy.setCourseName("Renamed Course");
+        assertEquals(course.getCourseName(), courseService.findById(course.getCourseId()).getCourseName());
+        courseService.updateCourse(copy);
+        assertEquals("Renamed Course", courseService.findById(course.getCourseId()).getCourseName());
+        assertEquals(2, courseService.getCacheStats().getMisses());
+
+        courseService.deleteCourse(course.getCourseId());
+        assertNull(courseService.findById(course.getCourseId()));
+    }
+
+    @Test
+    public void testCatalogSnapshotPicksUpRemoteChangesIncrementally() throws Exception {
+        CourseService local = new CourseService();
+        CourseService remote = new CourseService();
+        String code = "CAT" + uniqueSuffix();
+        int before = remote.getAllCourses().size();
+
+        Course course = createCourse(local, code, "MWF 19:00-20:00", 1);
+        // The writing instance sees its own change immediately
+        assertTrue(local.getAllCourses().stream().anyMatch(c -> code.equals(c.getCourseCode())));
+        assertThrows(UnsupportedOperationException.class, () -> local.getAllCourses().clear());
+
+        // Another instance picks it up from updated-index on its next refresh
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(15);
+        while (remote.getAllCourses().stream().noneMatch(c -> code.equals(c.getCourseCode()))
+                && System.nanoTime() < deadline) {
+            Thread.sleep(250);
+        }
+        assertEquals(before + 1, remote.getAllCourses().size());
+        assertTrue(remote.getAvailableCourses().stream().anyMatch(c -> code.equals(c.getCourseCode())));
+
+        // Seat changes flow through the same path
+        assertTrue(local.incrementEnrollment(course.getCourseId()));
+        assertTrue(local.getAvailableCourses().stream().noneMatch(c -> code.equals(c.getCourseCode())));
+        deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(15);
+        while (remote.getAvailableCourses().stream().anyMatch(c -> code.equals(c.getCourseCode()))
+                && System.nanoTime() < deadline) {
+            Thread.sleep(250);
+        }
+        assertTrue(remote.getAvailableCourses().stream().noneMatch(c -> code.equals(c.getCourseCode())));
+    }
+
+    @Test
+    public void testVersionedUpdatesNeverLoseConcurrentWrites() throws Exception {
+        CourseService courseService = new CourseService();
+        Course course = createCourse(courseService, "VER" + uniqueSuffix(), "MWF 16:00-17:00", 10);
+        assertEquals(1L, course.getVersion());
+
+        // A seat change moves the version, so an edit based on the old read is rejected
+        Course stale = courseService.findById(course.getCourseId());
+        assertTrue(courseService.incrementEnrollment(course.getCourseId()));
+        stale.setLocation("Room 7");
+        assertThrows(ConditionalCheckFailedException.class, () -> courseService.updateCourse(stale));
+
+        int writers = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        try {
+            List<Future<Course>> futures = new ArrayList<>();
+            for (int i = 0; i < writers; i++) {
+                futures.add(executor.submit(() -> courseService.updateCourse(course.getCourseId(),
+                    c -> c.setCapacity(c.getCapacity() + 1))));
+            }
+            for (Future<Course> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Course updated = courseService.updateCourse(course.getCourseId(), c -> c.setLocation("Room 7"));
+        assertEquals(10 + writers, updated.getCapacity());
+        assertEquals(1, updated.getEnrolled());
+        assertEquals("Room 7", updated.getLocation());
+        assertEquals(3L + writers, updated.getVersion());
+    }
+}
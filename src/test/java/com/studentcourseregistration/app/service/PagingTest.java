@@ -0,0 +1,102 @@
+package com.studentcourseregistration.app.service;
+
+import com.studentcourseregistration.app.DynamoDbLocalTest;
+import com.studentcourseregistration.app.model.Course;
+import com.studentcourseregistration.app.model.CourseSummary;
+import com.studentcourseregistration.app.model.Student;
+import com.studentcourseregistration.app.repository.CourseFilter;
+import com.studentcourseregistration.app.repository.Page;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Cursor-paged rosters and course listings against DynamoDB Local.
+ */
+public class PagingTest extends DynamoDbLocalTest {
+
+    @Test
+    public void testRegistrationPagesSkipDroppedAndCoverTheCourseOnce() {
+        CourseService courseService = new CourseService();
+        StudentService studentService = newStudentService();
+        RegistrationService registrationService = new RegistrationService();
+        String suffix = uniqueSuffix();
+        Course course = createCourse(courseService, "PAGE" + suffix, "MWF 08:00-09:00", 10);
+
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            Student student = createStudent(studentService, "pager" + i + "_" + suffix);
+            registrationService.registerStudentForCourse(student.getStudentId(), course.getCourseId());
+            students.add(student);
+        }
+        // Dropped registrations stay in course-index but are filtered out of every page
+        registrationService.dropCourse(students.get(1).getStudentId(), course.getCourseId());
+        registrationService.dropCourse(students.get(4).getStudentId(), course.getCourseId());
+
+        Set<String> seen = new HashSet<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            Page<Student> page = registrationService.getCourseRoster(course.getCourseId(), 2, cursor);
+            assertTrue(page.getItems().size() <= 2);
+            for (Student student : page.getItems()) {
+                assertTrue(seen.add(student.getStudentId()), "student returned twice");
+            }
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+        assertEquals(5, seen.size());
+        assertFalse(seen.contains(students.get(1).getStudentId()));
+        assertTrue(pages >= 3);
+
+        assertThrows(IllegalArgumentException.class,
+            () -> registrationService.getCourseRegistrations(course.getCourseId(), 2, "not-a-cursor"));
+    }
+
+    @Test
+    public void testSummaryListingsFilterAndProjectOnTheServer() {
+        CourseService courseService = new CourseService();
+        String suffix = uniqueSuffix();
+        String department = "Summary Dept " + suffix;
+        String semester = "Term " + suffix;
+        for (int i = 0; i < 6; i++) {
+            Course course = courseService.createCourse(
+                "SUM" + i + "_" + suffix, "Summary Course " + i, "A long description that listings never read",
+                i % 2 == 0 ? 3 : 1, department, "Test Instructor",
+                semester, 2024, "MWF 08:00-09:00", "Room 1", 1, List.of("PREREQ")
+            );
+            if (i == 0) {
+                // Full courses are filtered out by DynamoDB, not by the client
+                assertTrue(courseService.incrementEnrollment(course.getCourseId()));
+            }
+        }
+
+        CourseFilter filter = new CourseFilter().department(department).creditsBetween(3, 4).openSeats();
+        List<CourseSummary> summaries = new ArrayList<>();
+        String cursor = null;
+        do {
+            Page<CourseSummary> page = courseService.findCourseSummaries(filter, 1, cursor);
+            summaries.addAll(page.getItems());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        assertEquals(Set.of("SUM2_" + suffix, "SUM4_" + suffix),
+            summaries.stream().map(CourseSummary::getCourseCode).collect(Collectors.toSet()));
+        assertTrue(summaries.stream().allMatch(CourseSummary::isAvailable));
+
+        // Without a department the listing is a filtered scan
+        CourseFilter term = new CourseFilter().semester(semester).year(2024);
+        int scanned = 0;
+        cursor = null;
+        do {
+            Page<CourseSummary> page = courseService.findCourseSummaries(term, Page.MAX_LIMIT, cursor);
+            scanned += page.getItems().size();
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        assertEquals(6, scanned);
+    }
+}
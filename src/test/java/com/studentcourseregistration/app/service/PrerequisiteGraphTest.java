@@ -0,0 +1,128 @@
+package com.studentcourseregistration.app.service;
+
+import com.studentcourseregistration.app.model.Course;
+import com.studentcourseregistration.app.model.Registration;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Unit tests for PrerequisiteGraph
+ */
+public class PrerequisiteGraphTest {
+
+    @Test
+    public void testLongChainCompilesAndChecksWithoutOverflowingTheStack() {
+        // Deep enough that one stack frame per course would overflow a default thread stack
+        int length = 20_000;
+        List<Course> chain = new ArrayList<>();
+        for (int i = 0; i < length; i++) {
+            chain.add(course("C" + i, "CH" + i, i == 0 ? List.of() : List.of("CH" + (i - 1))));
+        }
+        String top = "C" + (length - 1);
+
+        PrerequisiteGraph graph = PrerequisiteGraph.compile(chain, 1);
+        assertFalse(graph.isCyclic(top));
+        assertTrue(graph.isSatisfied("C1", graph.satisfiedBy(List.of(top))));
+        assertFalse(graph.isSatisfied(top, graph.satisfiedBy(List.of("C0"))));
+        PrerequisiteGraph.checkAcyclic(chain, chain.get(length - 1));
+
+        // Closing the chain into a loop puts every course on the cycle
+        Course looped = course("C0", "CH0", List.of("CH" + (length - 1)));
+        IllegalArgumentException cycle = assertThrows(IllegalArgumentException.class, () ->
+            PrerequisiteGraph.checkAcyclic(chain, looped));
+        assertTrue(cycle.getMessage().startsWith("Prerequisite cycle: CH0 -> CH" + (length - 1) + " -> "));
+        assertTrue(cycle.getMessage().endsWith(" -> CH1 -> CH0"));
+
+        List<Course> stored = new ArrayList<>(chain);
+        stored.set(0, looped);
+        PrerequisiteGraph cyclic = PrerequisiteGraph.compile(stored, 2);
+        assertTrue(cyclic.isCyclic("C0"));
+        assertTrue(cyclic.isCyclic(top));
+        assertFalse(cyclic.isSatisfied(top, cyclic.satisfiedBy(List.of("C0"))));
+    }
+
+    @Test
+    public void testPrerequisiteCycleOnlyBlocksTheCoursesOnIt() {
+        // A cycle written by another node, which this one never validated
+        Course cycleA = course("C1", "CYA", List.of("CYB"));
+        Course cycleB = course("C2", "CYB", List.of("CYA"));
+        Course above = course("C3", "CYC", List.of("CYA"));
+        Course intro = course("C4", "INTRO", List.of());
+        Course next = course("C5", "NEXT", List.of("INTRO"));
+        PrerequisiteGraph graph = PrerequisiteGraph.compile(List.of(cycleA, cycleB, above, intro, next), 1);
+
+        assertTrue(graph.isCyclic("C1"));
+        assertTrue(graph.isCyclic("C2"));
+        assertFalse(graph.isCyclic("C3"));
+        assertFalse(graph.isSatisfied("C1", graph.satisfiedBy(List.of("C2"))));
+        assertTrue(graph.isSatisfied("C3", graph.satisfiedBy(List.of("C1"))));
+        assertTrue(graph.isSatisfied("C4", graph.satisfiedBy(List.of())));
+        assertTrue(graph.isSatisfied("C5", graph.satisfiedBy(List.of("C4"))));
+        assertFalse(graph.isSatisfied("C5", graph.satisfiedBy(List.of())));
+    }
+
+    @Test
+    public void testCompletedCourseSatisfiesEverythingBelowIt() {
+        Course intro = course("C1", "INTRO", List.of());
+        Course mid = course("C2", "MID", List.of("INTRO"));
+        Course advanced = course("C3", "ADV", List.of("MID", "INTRO"));
+        // OUT is not in the catalog, so no completed catalog course can stand in for it
+        Course external = course("C4", "EXT", List.of("OUT"));
+        PrerequisiteGraph graph = PrerequisiteGraph.compile(List.of(intro, mid, advanced, external), 7);
+
+        assertEquals(7, graph.getVersion());
+        assertTrue(graph.hasPrerequisites("C3"));
+        assertFalse(graph.hasPrerequisites("C1"));
+        assertTrue(graph.isSatisfied("C3", graph.satisfiedBy(List.of("C2"))));
+        assertFalse(graph.isSatisfied("C3", graph.satisfiedBy(List.of("C1"))));
+        assertFalse(graph.isSatisfied("C4", graph.satisfiedBy(List.of("C1", "C2", "C3"))));
+        assertTrue(graph.isSatisfied("unknown", new BitSet()));
+    }
+
+    @Test
+    public void testCheckAcyclicNamesTheCycleAnEditWouldClose() {
+        List<Course> catalog = List.of(
+            course("C1", "A", List.of()),
+            course("C2", "B", List.of("A")),
+            course("C3", "C", List.of("B")));
+
+        IllegalArgumentException cycle = assertThrows(IllegalArgumentException.class, () ->
+            PrerequisiteGraph.checkAcyclic(catalog, course("C1", "A", List.of("C"))));
+        assertEquals("Prerequisite cycle: A -> C -> B -> A", cycle.getMessage());
+        IllegalArgumentException selfLoop = assertThrows(IllegalArgumentException.class, () ->
+            PrerequisiteGraph.checkAcyclic(catalog, course("C4", "D", List.of("D"))));
+        assertEquals("Prerequisite cycle: D -> D", selfLoop.getMessage());
+
+        PrerequisiteGraph.checkAcyclic(catalog, course("C4", "D", List.of("C", "A")));
+        // Renaming A to X drops A's stored prerequisite on X, so X -> B -> A ends there
+        PrerequisiteGraph.checkAcyclic(List.of(course("C1", "A", List.of("X")), course("C2", "B", List.of("A"))),
+            course("C1", "X", List.of("B")));
+    }
+
+    @Test
+    public void testOnlyPassingGradesCompleteACourse() {
+        assertTrue(PrerequisiteGraph.isCompleted(graded("B+")));
+        assertFalse(PrerequisiteGraph.isCompleted(graded(" f ")));
+        assertFalse(PrerequisiteGraph.isCompleted(graded("W")));
+        assertFalse(PrerequisiteGraph.isCompleted(graded(" ")));
+        assertFalse(PrerequisiteGraph.isCompleted(graded(null)));
+    }
+
+    private static Registration graded(String grade) {
+        Registration registration = new Registration();
+        registration.setGrade(grade);
+        return registration;
+    }
+
+    private static Course course(String courseId, String courseCode, List<String> prerequisites) {
+        Course course = new Course();
+        course.setCourseId(courseId);
+        course.setCourseCode(courseCode);
+        course.setPrerequisites(prerequisites);
+        return course;
+    }
+}
@@ -0,0 +1,352 @@
+package com.studentcourseregistration.app.service;
+
+import com.studentcourseregistration.app.DynamoDbLocalTest;
+import com.studentcourseregistration.app.model.Course;
+import com.studentcourseregistration.app.model.Student;
+import com.studentcourseregistration.app.repository.DynamoDbAsyncRegistrationRepository;
+import com.studentcourseregistration.app.repository.DynamoDbAsyncStudentRepository;
+import com.studentcourseregistration.app.repository.DynamoDbCourseRepository;
+import com.studentcourseregistration.app.repository.DynamoDbStudentRepository;
+import com.studentcourseregistration.app.util.PasswordHasher;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Registration transactions, batches and waitlists against DynamoDB Local.
+ */
+public class RegistrationServiceTest extends DynamoDbLocalTest {
+
+    private static final int REGISTRANTS = 64;
+    private static final int CAPACITY = 10;
+
+    @Test
+    public void testNoOversellingUnderParallelRegistrants() throws Exception {
+        CourseService courseService = new CourseService();
+        // Sized for the whole signup burst; the default hasher would reject part of it
+        StudentService studentService = new StudentService(new PasswordHasher(4, 2, REGISTRANTS));
+        RegistrationService registrationService = new RegistrationService();
+        String suffix = uniqueSuffix();
+        Course course = createCourse(courseService, "RACE" + suffix, "MWF 08:00-09:00", CAPACITY);
+
+        ExecutorService executor = Executors.newFixedThreadPool(REGISTRANTS);
+        try {
+            List<Future<Student>> created = new ArrayList<>();
+            for (int i = 0; i < REGISTRANTS; i++) {
+                String name = "racer" + i + "_" + suffix;
+                created.add(executor.submit(() -> createStudent(studentService, name)));
+            }
+            List<Student> students = new ArrayList<>();
+            for (Future<Student> future : created) {
+                students.add(future.get());
+            }
+
+            CountDownLatch start = new CountDownLatch(1);
+            AtomicInteger registered = new AtomicInteger();
+            AtomicInteger full = new AtomicInteger();
+            List<Future<?>> attempts = new ArrayList<>();
+            for (Student student : students) {
+                attempts.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        registrationService.registerStudentForCourse(student.getStudentId(), course.getCourseId());
+                        registered.incrementAndGet();
+                    } catch (IllegalArgumentException e) {
+                        assertEquals("Course is full", e.getMessage());
+                        full.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> attempt : attempts) {
+                attempt.get();
+            }
+
+            assertEquals(CAPACITY, registered.get());
+            assertEquals(REGISTRANTS - CAPACITY, full.get());
+            assertEquals(CAPACITY, courseService.findById(course.getCourseId()).getEnrolled());
+            assertEquals(CAPACITY, registrationService.getCourseRegistrations(course.getCourseId()).size());
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void testTransactionalRegistrationReportsTypedFailures() {
+        CourseService courseService = new CourseService();
+        StudentService studentService = newStudentService();
+        RegistrationService registrationService = new RegistrationService();
+        String suffix = uniqueSuffix();
+        Course course = createCourse(courseService, "TXN" + suffix, "MWF 12:00-13:00", 1);
+        Student first = createStudent(studentService, "first_" + suffix);
+        Student second = createStudent(studentService, "second_" + suffix);
+
+        RegistrationResult registered = registrationService.tryRegisterStudentForCourse(first.getStudentId(), course.getCourseId());
+        assertTrue(registered.isSuccess());
+
+        RegistrationResult duplicate = registrationService.tryRegisterStudentForCourse(first.getStudentId(), course.getCourseId());
+        assertEquals(RegistrationResult.FailureReason.DUPLICATE, duplicate.getFailureReason());
+
+        RegistrationResult full = registrationService.tryRegisterStudentForCourse(second.getStudentId(), course.getCourseId());
+        assertEquals(RegistrationResult.FailureReason.COURSE_FULL, full.getFailureReason());
+
+        assertTrue(registrationService.dropCourse(first.getStudentId(), course.getCourseId()));
+        assertFalse(registrationService.dropCourse(first.getStudentId(), course.getCourseId()));
+        assertTrue(registrationService.tryRegisterStudentForCourse(first.getStudentId(), course.getCourseId()).isSuccess());
+        assertEquals(1, courseService.findById(course.getCourseId()).getEnrolled());
+    }
+
+    @Test
+    public void testFillingACourseReachesTheSharedCatalogImmediately() {
+        CourseService courseService = new CourseService();
+        StudentService studentService = newStudentService();
+        RegistrationService registrationService = new RegistrationService(courseService, studentService);
+        String suffix = uniqueSuffix();
+        Course course = createCourse(courseService, "FILL" + suffix, "TR 07:00-08:00", 1);
+        Student first = createStudent(studentService, "fill1_" + suffix);
+        Student second = createStudent(studentService, "fill2_" + suffix);
+        assertTrue(isListedAsAvailable(courseService, course));
+
+        // Well inside the catalog's poll interval, so only the commit hook can explain the change
+        assertTrue(registrationService.tryRegisterStudentForCourse(first.getStudentId(), course.getCourseId()).isSuccess());
+        assertFalse(isListedAsAvailable(courseService, course));
+        assertEquals(1, courseService.findById(course.getCourseId()).getEnrolled());
+
+        assertTrue(registrationService.joinWaitlist(second.getStudentId(), course.getCourseId()).isSuccess());
+        assertTrue(registrationService.dropCourse(first.getStudentId(), course.getCourseId()));
+        assertFalse(isListedAsAvailable(courseService, course));
+
+        assertTrue(registrationService.dropCourse(second.getStudentId(), course.getCourseId()));
+        assertTrue(isListedAsAvailable(courseService, course));
+    }
+
+    private static boolean isListedAsAvailable(CourseService courseService, Course course) {
+        return courseService.getAvailableCourses().stream()
+            .anyMatch(available -> available.getCourseId().equals(course.getCourseId()));
+    }
+
+    @Test
+    public void testBatchRegistrationReportsPerPairOutcomes() {
+        CourseService courseService = new CourseService();
+        RegistrationService registrationService = new RegistrationService();
+        DynamoDbStudentRepository studentRepository = new DynamoDbStudentRepository();
+        String suffix = uniqueSuffix();
+        Course small = createCourse(courseService, "BATCHA" + suffix, "MWF 15:00-16:00", 30);
+        Course large = createCourse(courseService, "BATCHB" + suffix, "TTh 15:00-16:30", 100);
+
+        List<RegistrationRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            Student student = saveStudent(studentRepository, "batch" + i + "_" + suffix);
+            requests.add(new RegistrationRequest(student.getStudentId(), small.getCourseId()));
+            requests.add(new RegistrationRequest(student.getStudentId(), large.getCourseId()));
+        }
+        requests.add(new RegistrationRequest("batch0_" + suffix, large.getCourseId()));
+        requests.add(new RegistrationRequest("missing_" + suffix, large.getCourseId()));
+
+        List<RegistrationResult> results = registrationService.registerBatch(requests);
+
+        assertEquals(requests.size(), results.size());
+        long registered = results.stream().filter(RegistrationResult::isSuccess).count();
+        long full = results.stream()
+            .filter(r -> r.getFailureReason() == RegistrationResult.FailureReason.COURSE_FULL).count();
+        assertEquals(70, registered);
+        assertEquals(10, full);
+        assertEquals(RegistrationResult.FailureReason.DUPLICATE, results.get(80).getFailureReason());
+        assertEquals(RegistrationResult.FailureReason.STUDENT_NOT_FOUND, results.get(81).getFailureReason());
+        assertEquals(30, courseService.findById(small.getCourseId()).getEnrolled());
+        assertEquals(40, courseService.findById(large.getCourseId()).getEnrolled());
+        assertEquals(40, registrationService.getCourseRegistrations(large.getCourseId()).size());
+        assertEquals(40, registrationService.getCourseRoster(large.getCourseId()).size());
+        assertEquals(2, registrationService.getStudentCourses("batch0_" + suffix).size());
+        assertEquals(RegistrationResult.FailureReason.DUPLICATE, registrationService
+            .tryRegisterStudentForCourse("batch1_" + suffix, large.getCourseId()).getFailureReason());
+    }
+
+    @Test
+    public void testConcurrentDropsPromoteWaitlistInOrder() throws Exception {
+        CourseService courseService = new CourseService();
+        RegistrationService registrationService = new RegistrationService();
+        DynamoDbStudentRepository studentRepository = new DynamoDbStudentRepository();
+        String suffix = uniqueSuffix();
+        Course course = createCourse(courseService, "WAIT" + suffix, "MWF 17:00-18:00", 4);
+        List<String> studentIds = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            studentIds.add(saveStudent(studentRepository, "wait" + i + "_" + suffix).getStudentId());
+        }
+
+        // Four hold seats, six queue in order
+        for (int i = 0; i < 4; i++) {
+            assertTrue(registrationService.tryRegisterStudentForCourse(studentIds.get(i), course.getCourseId()).isSuccess());
+        }
+        for (int i = 4; i < 10; i++) {
+            RegistrationResult result = registrationService.joinWaitlist(studentIds.get(i), course.getCourseId());
+            assertEquals("WAITLISTED", result.getRegistration().getStatus());
+        }
+        assertEquals(RegistrationResult.FailureReason.DUPLICATE,
+            registrationService.joinWaitlist(studentIds.get(4), course.getCourseId()).getFailureReason());
+        assertEquals(6, registrationService.getWaitlistPosition(studentIds.get(9), course.getCourseId()));
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Boolean>> drops = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                String studentId = studentIds.get(i);
+                drops.add(executor.submit(() -> {
+                    start.await();
+                    return registrationService.dropCourse(studentId, course.getCourseId());
+                }));
+            }
+            start.countDown();
+            for (Future<Boolean> drop : drops) {
+                assertTrue(drop.get());
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        }
+
+        // Every freed seat went to the next four in line; nothing was released to the course
+        assertEquals(4, courseService.findById(course.getCourseId()).getEnrolled());
+        for (int i = 4; i < 8; i++) {
+            assertEquals(1, registrationService.getStudentCourses(studentIds.get(i)).size());
+        }
+        assertEquals(1, registrationService.getWaitlistPosition(studentIds.get(8), course.getCourseId()));
+        assertEquals(2, registrationService.getWaitlistPosition(studentIds.get(9), course.getCourseId()));
+
+        // Leaving the waitlist frees the marker without touching seats
+        assertTrue(registrationService.dropCourse(studentIds.get(9), course.getCourseId()));
+        assertEquals(0, registrationService.getWaitlistPosition(studentIds.get(9), course.getCourseId()));
+        assertEquals(4, courseService.findById(course.getCourseId()).getEnrolled());
+    }
+
+    @Test
+    public void testPromotionPassesOverWaitlistedStudentsWhoNowClash() {
+        CourseService courseService = new CourseService();
+        StudentService studentService = newStudentService();
+        RegistrationService registrationService = new RegistrationService();
+        String suffix = uniqueSuffix();
+        Course course = createCourse(courseService, "PROM" + suffix, "MW 09:00-10:30", 1);
+        Course clashing = createCourse(courseService, "PCLASH" + suffix, "MW 10:00-11:00", 10);
+        List<String> students = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            students.add(createStudent(studentService, "prom" + i + "_" + suffix).getStudentId());
+        }
+        assertTrue(registrationService.tryRegisterStudentForCourse(students.get(0), course.getCourseId()).isSuccess());
+        assertTrue(registrationService.joinWaitlist(students.get(1), course.getCourseId()).isSuccess());
+        assertTrue(registrationService.joinWaitlist(students.get(2), course.getCourseId()).isSuccess());
+        assertTrue(registrationService.tryRegisterStudentForCourse(students.get(1), clashing.getCourseId()).isSuccess());
+
+        assertTrue(registrationService.dropCourse(students.get(0), course.getCourseId()));
+        assertEquals(List.of(course.getCourseId()), registrationService.getStudentCourses(students.get(2)).stream()
+            .map(Course::getCourseId).collect(Collectors.toList()));
+        assertEquals(1, registrationService.getWaitlistPosition(students.get(1), course.getCourseId()));
+        assertEquals(1, courseService.findById(course.getCourseId()).getEnrolled());
+    }
+
+    @Test
+    public void testDropHandsALongIneligibleLineToTheFollowUpPromotion() {
+        CourseService courseService = new CourseService();
+        StudentService studentService = newStudentService();
+        RegistrationService registrationService = new RegistrationService(courseService, studentService);
+        String suffix = uniqueSuffix();
+        Course course = createCourse(courseService, "DEEP" + suffix, "TR 14:00-15:30", 1);
+        Course clashing = createCourse(courseService, "DCLASH" + suffix, "TR 15:00-16:00", 20);
+        Student holder = createStudent(studentService, "deep_holder_" + suffix);
+        assertTrue(registrationService.tryRegisterStudentForCourse(holder.getStudentId(), course.getCourseId()).isSuccess());
+        // More clashing entries than one drop checks, so the eligible student is reached by the follow-up
+        List<String> clashingStudents = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            String studentId = createStudent(studentService, "deep" + i + "_" + suffix).getStudentId();
+            assertTrue(registrationService.joinWaitlist(studentId, course.getCourseId()).isSuccess());
+            assertTrue(registrationService.tryRegisterStudentForCourse(studentId, clashing.getCourseId()).isSuccess());
+            clashingStudents.add(studentId);
+        }
+        Student eligible = createStudent(studentService, "deep_eligible_" + suffix);
+        assertTrue(registrationService.joinWaitlist(eligible.getStudentId(), course.getCourseId()).isSuccess());
+
+        assertTrue(registrationService.dropCourse(holder.getStudentId(), course.getCourseId()));
+        assertEquals(List.of(course.getCourseId()), registrationService.getStudentCourses(eligible.getStudentId()).stream()
+            .map(Course::getCourseId).collect(Collectors.toList()));
+        for (int i = 0; i < clashingStudents.size(); i++) {
+            assertEquals(i + 1, registrationService.getWaitlistPosition(clashingStudents.get(i), course.getCourseId()));
+        }
+        assertEquals(1, courseService.findById(course.getCourseId()).getEnrolled());
+    }
+
+    @Test
+    public void testRegistrationChecksReadConcurrentlyAndReportEachFailure() {
+        CourseService courseService = new CourseService();
+        StudentService studentService = newStudentService();
+        RegistrationService registrationService = new RegistrationService();
+        String suffix = uniqueSuffix();
+        Course basics = createCourse(courseService, "FAN1_" + suffix, "MWF 08:00-09:00", 10);
+        Course clash = createCourse(courseService, "FAN2_" + suffix, "MWF 08:00-09:00", 10);
+        Course advanced = createCourse(courseService, "FAN3_" + suffix, "TTH 10:00-11:30", 10, basics.getCourseCode());
+        String studentId = createStudent(studentService, "fanout_" + suffix).getStudentId();
+
+        assertTrue(registrationService.tryRegisterStudentForCourse(studentId, basics.getCourseId()).isSuccess());
+        assertEquals(RegistrationResult.FailureReason.DUPLICATE,
+            registrationService.tryRegisterStudentForCourse(studentId, basics.getCourseId()).getFailureReason());
+        assertEquals(RegistrationResult.FailureReason.SCHEDULE_CONFLICT,
+            registrationService.tryRegisterStudentForCourse(studentId, clash.getCourseId()).getFailureReason());
+        assertEquals(RegistrationResult.FailureReason.PREREQUISITES_NOT_MET,
+            registrationService.tryRegisterStudentForCourse(studentId, advanced.getCourseId()).getFailureReason());
+        assertEquals(RegistrationResult.FailureReason.COURSE_NOT_FOUND,
+            registrationService.tryRegisterStudentForCourse(studentId, "missing-" + suffix).getFailureReason());
+        assertEquals(RegistrationResult.FailureReason.STUDENT_NOT_FOUND,
+            registrationService.tryRegisterStudentForCourse("missing-" + suffix, basics.getCourseId()).getFailureReason());
+
+        // The async repositories see what the synchronous path wrote
+        assertEquals(studentId, new DynamoDbAsyncStudentRepository().findByUsername("fanout_" + suffix)
+            .join().orElseThrow().getStudentId());
+        assertTrue(new DynamoDbAsyncRegistrationRepository().findActiveRegistration(studentId, basics.getCourseId())
+            .join().isPresent());
+    }
+
+    @Test
+    public void testStoredPrerequisiteCycleDoesNotBlockUnrelatedRegistrations() {
+        CourseService courseService = new CourseService();
+        StudentService studentService = newStudentService();
+        String suffix = uniqueSuffix();
+        Course unrelated = createCourse(courseService, "UNREL" + suffix, "MWF 08:00-09:00", 10);
+        String cycleA = "CYA" + suffix;
+        String cycleB = "CYB" + suffix;
+        IllegalArgumentException rejected = assertThrows(IllegalArgumentException.class, () -> {
+            createCourse(courseService, cycleA, "TTH 08:00-09:00", 10, cycleB);
+            createCourse(courseService, cycleB, "TTH 10:00-11:00", 10, cycleA);
+        });
+        assertTrue(rejected.getMessage().contains(cycleB + " -> " + cycleA + " -> " + cycleB), rejected.getMessage());
+
+        // Written past validation, as another node racing this one could
+        Course stored = new Course();
+        stored.setCourseId(UUID.randomUUID().toString());
+        stored.setCourseCode(cycleB);
+        stored.setCourseName("Cycle B");
+        stored.setDepartment("Test Department");
+        stored.setCapacity(10);
+        stored.setEnrolled(0);
+        stored.setPrerequisites(List.of(cycleA));
+        new DynamoDbCourseRepository().save(stored);
+
+        // A fresh service loads the cyclic catalog
+        RegistrationService registrationService = new RegistrationService();
+        Student student = createStudent(studentService, "cycle_" + suffix);
+        assertTrue(registrationService.tryRegisterStudentForCourse(
+            student.getStudentId(), unrelated.getCourseId()).isSuccess());
+        assertEquals(RegistrationResult.FailureReason.PREREQUISITES_NOT_MET, registrationService
+            .tryRegisterStudentForCourse(student.getStudentId(), stored.getCourseId()).getFailureReason());
+    }
+}
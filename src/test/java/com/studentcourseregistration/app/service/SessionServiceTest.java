@@ -0,0 +1,35 @@
+package com.studentcourseregistration.app.service;
+
+import com.studentcourseregistration.app.DynamoDbLocalTest;
+import com.studentcourseregistration.app.model.Student;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Sessions shared through DynamoDB Local.
+ */
+public class SessionServiceTest extends DynamoDbLocalTest {
+
+    @Test
+    public void testSharedSessionsResolveOnAnyNode() {
+        StudentService studentService = newStudentService();
+        String username = "shared_" + uniqueSuffix();
+        Student student = createStudent(studentService, username);
+
+        SessionService nodeA = newSharedSessionService(studentService);
+        SessionService nodeB = newSharedSessionService(studentService);
+
+        String token = nodeA.login(username, PASSWORD);
+        assertEquals(student.getStudentId(), nodeB.resolve(token).getStudentId());
+
+        nodeA.logout(token);
+        SessionService nodeC = newSharedSessionService(studentService);
+        assertNull(nodeC.resolve(token));
+        assertNull(nodeA.resolve(token));
+    }
+
+    private static SessionService newSharedSessionService(StudentService studentService) {
+        return new SessionService(studentService::verifyCredentials, studentService::findById,
+            SessionService.DEFAULT_IDLE_TIMEOUT, SessionService.DEFAULT_MAX_LIFETIME, 100, true);
+    }
+}
@@ -0,0 +1,98 @@
+package com.studentcourseregistration.app.service;
+
+import com.studentcourseregistration.app.DynamoDbLocalTest;
+import com.studentcourseregistration.app.model.Student;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Signup uniqueness against DynamoDB Local.
+ */
+public class StudentServiceTest extends DynamoDbLocalTest {
+
+    @Test
+    public void testConcurrentSignupsCannotShareUsernameOrEmail() throws Exception {
+        StudentService studentService = newStudentService();
+        String suffix = uniqueSuffix();
+        String username = "unique_" + suffix;
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                int n = i;
+                futures.add(executor.submit(() -> {
+                    try {
+                        studentService.createStudent("Unique", "No" + n, "unique" + n + "_" + suffix + "@test.com",
+                            username, PASSWORD, "Physics", 1);
+                        created.incrementAndGet();
+                    } catch (IllegalArgumentException e) {
+                        assertEquals("Username already exists", e.getMessage());
+                        rejected.incrementAndGet();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, created.get());
+        assertEquals(7, rejected.get());
+
+        // A second service instance still sees the claim
+        Student owner = studentService.findByUsername(username);
+        IllegalArgumentException duplicateEmail = assertThrows(IllegalArgumentException.class, () ->
+            newStudentService().createStudent("Other", "Person", owner.getEmail(),
+                "other_" + suffix, PASSWORD, "Physics", 1));
+        assertEquals("Email already exists", duplicateEmail.getMessage());
+
+        studentService.deleteStudent(owner.getStudentId());
+        Student replacement = studentService.createStudent("New", "Owner", "new_" + suffix + "@test.com",
+            username, PASSWORD, "Physics", 1);
+        assertEquals(username, replacement.getUsername());
+    }
+
+    @Test
+    public void testChangingUsernameOrEmailMovesItsClaim() {
+        StudentService studentService = newStudentService();
+        String suffix = uniqueSuffix();
+        Student first = createStudent(studentService, "mover_" + suffix);
+        Student second = createStudent(studentService, "stayer_" + suffix);
+
+        IllegalArgumentException taken = assertThrows(IllegalArgumentException.class, () ->
+            studentService.updateStudent(first.getStudentId(), s -> s.setUsername(second.getUsername())));
+        assertEquals("Username already exists", taken.getMessage());
+
+        Student moved = studentService.updateStudent(first.getStudentId(), s -> {
+            s.setUsername("moved_" + suffix);
+            s.setEmail("moved_" + suffix + "@test.com");
+        });
+        assertEquals("moved_" + suffix, studentService.findById(first.getStudentId()).getUsername());
+        assertEquals(moved.getVersion(), studentService.findById(first.getStudentId()).getVersion());
+
+        // The new values are claimed, even against a service with its own filters
+        IllegalArgumentException claimed = assertThrows(IllegalArgumentException.class, () ->
+            createStudent(newStudentService(), "moved_" + suffix));
+        assertEquals("Username already exists", claimed.getMessage());
+
+        // and the old ones are free again
+        Student reused = createStudent(studentService, "mover_" + suffix);
+        assertEquals("mover_" + suffix + "@test.com", reused.getEmail());
+
+        // Other fields still update through the plain versioned write
+        moved.setMajor("History");
+        studentService.updateStudent(moved);
+        assertEquals("History", studentService.findById(first.getStudentId()).getMajor());
+    }
+}
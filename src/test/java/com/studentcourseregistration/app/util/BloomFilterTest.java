@@ -0,0 +1,36 @@
+package com.studentcourseregistration.app.util;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for BloomFilter
+ */
+public class BloomFilterTest {
+
+    @Test
+    public void testAddedValuesAreAlwaysFoundAndOthersRarely() {
+        BloomFilter filter = new BloomFilter(1_000, 0.01);
+        for (int i = 0; i < 1_000; i++) {
+            filter.add("user" + i);
+        }
+        for (int i = 0; i < 1_000; i++) {
+            assertTrue(filter.mightContain("user" + i));
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (filter.mightContain("other" + i)) {
+                falsePositives++;
+            }
+        }
+        // About 1% expected; allow for hash variance
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+        assertEquals(1_000, filter.size());
+    }
+
+    @Test
+    public void testRejectsInvalidSizing() {
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(10, 1.0));
+    }
+}
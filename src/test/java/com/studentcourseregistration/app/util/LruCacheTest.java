@@ -0,0 +1,87 @@
+package com.studentcourseregistration.app.util;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unit tests for LruCache
+ */
+public class LruCacheTest {
+
+    @Test
+    public void testTouchRestartsTtlButNeverInsertsAnInvalidatedKey() throws Exception {
+        LruCache<String, String> cache = new LruCache<>(10, Duration.ofMillis(200));
+        cache.put("token", "session");
+        for (int i = 0; i < 3; i++) {
+            Thread.sleep(120);
+            assertTrue(cache.touch("token"));
+        }
+        assertEquals("session", cache.getIfPresent("token"));
+
+        cache.invalidate("token");
+        assertFalse(cache.touch("token"));
+        assertNull(cache.getIfPresent("token"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsedAndExpiresByTtl() throws Exception {
+        LruCache<String, Integer> cache = new LruCache<>(2, Duration.ofMillis(100));
+        cache.put("a", 1);
+        cache.put("b", 2);
+        assertEquals(1, cache.getIfPresent("a"));
+        cache.put("c", 3);
+        assertNull(cache.getIfPresent("b"));
+        assertEquals(1, cache.getIfPresent("a"));
+        assertEquals(3, cache.getIfPresent("c"));
+
+        Thread.sleep(150);
+        assertNull(cache.getIfPresent("a"));
+        LruCache.Stats stats = cache.stats();
+        assertEquals(3, stats.getHits());
+        assertEquals(2, stats.getMisses());
+        assertEquals(1, stats.getEvictions());
+        assertEquals(1, stats.getExpirations());
+        assertEquals(1, stats.getSize());
+    }
+
+    @Test
+    public void testLoadRacingAWriteIsReturnedButNotCached() {
+        LruCache<String, String> cache = new LruCache<>(10, Duration.ofMinutes(1));
+        assertEquals("stale", cache.get("k", key -> {
+            cache.invalidate(key);
+            return "stale";
+        }));
+        assertNull(cache.getIfPresent("k"));
+
+        assertNull(cache.get("k", key -> null));
+        assertEquals(0, cache.size());
+        assertEquals("fresh", cache.get("k", key -> "fresh"));
+        assertEquals("fresh", cache.get("k", key -> fail("a cached value is served without loading")));
+
+        cache.updateIfPresent("k", value -> value + "er");
+        assertEquals("fresher", cache.getIfPresent("k"));
+        cache.updateIfPresent("absent", value -> "inserted");
+        assertNull(cache.getIfPresent("absent"));
+    }
+
+    @Test
+    public void testGetAllLoadsOnlyTheMissingKeysInOneCall() {
+        LruCache<String, String> cache = new LruCache<>(10, Duration.ofMinutes(1));
+        cache.put("a", "A");
+        List<List<String>> calls = new ArrayList<>();
+        Map<String, String> result = cache.getAll(List.of("a", "b", "c", "b"), missing -> {
+            calls.add(missing);
+            return Map.of("b", "B");
+        });
+        assertEquals(List.of(List.of("b", "c")), calls);
+        assertEquals(Map.of("a", "A", "b", "B"), result);
+        assertEquals("B", cache.getIfPresent("b"));
+        assertNull(cache.getIfPresent("c"));
+    }
+}
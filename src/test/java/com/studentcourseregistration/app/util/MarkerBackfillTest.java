@@ -0,0 +1,70 @@
+package com.studentcourseregistration.app.util;
+
+import com.studentcourseregistration.app.DynamoDbLocalTest;
+import com.studentcourseregistration.app.model.Course;
+import com.studentcourseregistration.app.model.Registration;
+import com.studentcourseregistration.app.model.Student;
+import com.studentcourseregistration.app.model.UniqueConstraint;
+import com.studentcourseregistration.app.repository.DynamoDbRegistrationRepository;
+import com.studentcourseregistration.app.repository.DynamoDbStudentRepository;
+import com.studentcourseregistration.app.service.CourseService;
+import com.studentcourseregistration.app.service.RegistrationResult;
+import com.studentcourseregistration.app.service.RegistrationService;
+import com.studentcourseregistration.app.service.StudentService;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.UUID;
+
+/**
+ * Marker backfill of items stored before markers existed, against DynamoDB Local.
+ */
+public class MarkerBackfillTest extends DynamoDbLocalTest {
+
+    @Test
+    public void testMarkerBackfillClaimsValuesOfLegacyStudents() {
+        DynamoDbStudentRepository studentRepository = new DynamoDbStudentRepository();
+        String suffix = uniqueSuffix();
+        Student legacy = saveStudent(studentRepository, "legacy_" + suffix);
+        String usernameKey = UniqueConstraint.usernameKey(legacy.getUsername());
+        String emailKey = UniqueConstraint.emailKey(legacy.getEmail());
+
+        MarkerBackfill.backfillUniqueConstraints(studentRepository);
+
+        assertFalse(studentRepository.claimUniqueConstraint(usernameKey, "other_" + suffix));
+        assertFalse(studentRepository.claimUniqueConstraint(emailKey, "other_" + suffix));
+        assertTrue(studentRepository.claimUniqueConstraint(usernameKey, legacy.getStudentId()));
+
+        // Deleting releases the backfilled claims, and filters loaded before the delete still admit the value
+        StudentService studentService = newStudentService();
+        studentService.deleteStudent(legacy.getStudentId());
+        Student reused = createStudent(studentService, legacy.getUsername());
+        assertEquals(legacy.getEmail(), reused.getEmail());
+    }
+
+    @Test
+    public void testMarkerBackfillLetsLegacyRegistrationsBeCheckedAndDropped() {
+        CourseService courseService = new CourseService();
+        RegistrationService registrationService = new RegistrationService();
+        DynamoDbRegistrationRepository registrationRepository = new DynamoDbRegistrationRepository();
+        String suffix = uniqueSuffix();
+        Course course = createCourse(courseService, "LEGACY" + suffix, "F 07:00-08:00", 5);
+        Student student = createStudent(newStudentService(), "legreg_" + suffix);
+        // Stored the way registrations were before Enrollment markers existed
+        Registration legacy = new Registration();
+        legacy.setRegistrationId(UUID.randomUUID().toString());
+        legacy.setStudentId(student.getStudentId());
+        legacy.setCourseId(course.getCourseId());
+        legacy.setStatus("ENROLLED");
+        registrationRepository.save(legacy);
+        assertTrue(courseService.incrementEnrollment(course.getCourseId()));
+        assertFalse(registrationService.dropCourse(student.getStudentId(), course.getCourseId()));
+
+        MarkerBackfill.backfillEnrollments(registrationRepository);
+
+        assertEquals(RegistrationResult.FailureReason.DUPLICATE, registrationService
+            .tryRegisterStudentForCourse(student.getStudentId(), course.getCourseId()).getFailureReason());
+        assertTrue(registrationService.dropCourse(student.getStudentId(), course.getCourseId()));
+        assertEquals(0, courseService.findById(course.getCourseId()).getEnrolled());
+    }
+}
@@ -0,0 +1,25 @@
+package com.studentcourseregistration.app.util;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for WeeklySchedule
+ */
+public class WeeklyScheduleTest {
+
+    @Test
+    public void testScheduleOverlapDetection() {
+        // Partial overlap on shared days
+        assertTrue(WeeklySchedule.conflicts("MWF 09:00-10:00", "MW 09:30-10:30"));
+        // Same times on disjoint days
+        assertFalse(WeeklySchedule.conflicts("MWF 09:00-10:00", "TTh 09:00-10:00"));
+        // Back-to-back meetings do not overlap
+        assertFalse(WeeklySchedule.conflicts("TTh 10:30-12:00", "TTh 12:00-13:30"));
+        assertTrue(WeeklySchedule.conflicts("TTh 10:30-12:00", "R 11:55-12:30"));
+        assertTrue(WeeklySchedule.conflicts("MW 09:00-10:00, F 13:00-15:00", "F 14:00-14:30"));
+        // Unparseable schedules fall back to exact matching
+        assertTrue(WeeklySchedule.conflicts("TBA", "TBA"));
+        assertFalse(WeeklySchedule.conflicts("TBA", "MWF 09:00-10:00"));
+    }
+}